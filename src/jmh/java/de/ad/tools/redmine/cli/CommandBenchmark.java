@@ -0,0 +1,141 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.test.FakeRedmineServer;
+import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs each command through {@link RedmineCli#handleCommand} against a
+ * {@link FakeRedmineServer}, including HTTP, JSON mapping and rendering.
+ * <p>
+ * Samples give the latency percentiles, {@link ServerProfiler} adds requests,
+ * bytes and peak heap. Narrow the matrix with e.g. '-p issues=100'.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommandBenchmark {
+  private static final String PROJECT = "project-1";
+
+  @Param({ "100", "10000", "100000" })
+  public int issues;
+
+  @Param({ "1", "100" })
+  public int journals;
+
+  //Simulated round trip time in milliseconds
+  @Param({ "0", "20" })
+  public int latency;
+
+  private FakeRedmineServer server;
+  private Path directory;
+  private RedmineCli redmineCli;
+  private String issueId;
+  private int updates;
+
+  @Setup
+  public void setUp() throws IOException {
+    server = new FakeRedmineServer().withProjects(10).withIssues(issues)
+        .withJournals(journals).withMembers(20).withLatency(latency).start();
+
+    directory = Files.createTempDirectory("redmine-benchmark");
+    FileUtil.impl = new FileUtil.FileUtilImpl(directory.toFile());
+    RedmineUtil.cache = new ReferenceDataCache();
+
+    Configuration configuration = new Configuration();
+    configuration.setServer(server.getUrl());
+    configuration.setApiKey(FakeRedmineServer.API_KEY);
+
+    redmineCli = new RedmineCli(configuration,
+        new PrintStream(new NullOutputStream()),
+        new RedmineCli.RedmineManagerFactory());
+    issueId = String.valueOf(issues / 2);
+
+    ServerProfiler.server = server;
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    ServerProfiler.server = null;
+    server.close();
+
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile)
+          .forEach(File::delete);
+    }
+  }
+
+  @Benchmark
+  public void issues() throws Exception {
+    handleCommand("issues");
+  }
+
+  @Benchmark
+  public void issue() throws Exception {
+    handleCommand("issue", issueId);
+  }
+
+  @Benchmark
+  public void history() throws Exception {
+    handleCommand("history", issueId);
+  }
+
+  @Benchmark
+  public void projects() throws Exception {
+    handleCommand("projects");
+  }
+
+  @Benchmark
+  public void project() throws Exception {
+    handleCommand("project", PROJECT);
+  }
+
+  @Benchmark
+  public void list() throws Exception {
+    handleCommand("list", "status");
+  }
+
+  @Benchmark
+  public void createIssue() throws Exception {
+    handleCommand("create-issue", PROJECT, "Benchmark",
+        "--priority=High");
+  }
+
+  @Benchmark
+  public void updateIssue() throws Exception {
+    handleCommand("update-issue", issueId,
+        "--subject=Benchmark " + updates++);
+  }
+
+  private void handleCommand(String... args) throws Exception {
+    redmineCli.handleCommand(args);
+    ServerProfiler.operations.incrementAndGet();
+  }
+
+  private static class NullOutputStream extends OutputStream {
+    @Override public void write(int b) {
+    }
+
+    @Override public void write(byte[] b, int off, int len) {
+    }
+  }
+}
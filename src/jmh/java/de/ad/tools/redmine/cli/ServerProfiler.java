@@ -0,0 +1,72 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.test.FakeRedmineServer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Adds the peak heap of each iteration and, for benchmarks talking to a
+ * {@link FakeRedmineServer}, the requests and bytes per operation to the
+ * results. Enabled with '-prof de.ad.tools.redmine.cli.ServerProfiler'.
+ */
+public class ServerProfiler implements InternalProfiler {
+  //Set by benchmarks using a server, counted once per operation
+  static volatile FakeRedmineServer server;
+  static final AtomicLong operations = new AtomicLong();
+
+  private static final double MEGABYTE = 1024 * 1024;
+
+  @Override public String getDescription() {
+    return "Peak heap, requests and bytes received per operation";
+  }
+
+  @Override public void beforeIteration(BenchmarkParams benchmarkParams,
+      IterationParams iterationParams) {
+    ManagementFactory.getMemoryPoolMXBeans()
+        .forEach(MemoryPoolMXBean::resetPeakUsage);
+
+    operations.set(0);
+    if (server != null) {
+      server.resetStatistics();
+    }
+  }
+
+  @Override public Collection<? extends Result> afterIteration(
+      BenchmarkParams benchmarkParams, IterationParams iterationParams,
+      IterationResult result) {
+    List<Result> results = new ArrayList<>();
+
+    long peakHeap = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peakHeap += pool.getPeakUsage().getUsed();
+      }
+    }
+    results.add(new ScalarResult("\u00b7heap.peak", peakHeap / MEGABYTE,
+        "MB", AggregationPolicy.MAX));
+
+    long count = operations.get();
+    if (server != null && count > 0) {
+      results.add(new ScalarResult("\u00b7requests",
+          (double) server.getRequestCount() / count, "requests/op",
+          AggregationPolicy.AVG));
+      results.add(new ScalarResult("\u00b7bytes",
+          (double) server.getBytesSent() / count, "B/op",
+          AggregationPolicy.AVG));
+    }
+
+    return results;
+  }
+}
@@ -0,0 +1,294 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.test.FakeRedmineServer;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Launches the jar in a new JVM for each run of a command and measures what
+ * a user waits for: the time to the first byte of output and to the exit.
+ * The classes loaded and the peak resident set size show what the startup
+ * pulls in, e.g. AWT or reflection heavy libraries.
+ * <p>
+ * Commands talk to a {@link FakeRedmineServer}, in a fresh working directory
+ * so neither a configuration, a cache nor a daemon of the user is involved.
+ * <p>
+ * Usage: StartupBenchmark &lt;jar&gt; &lt;result file&gt; [runs]
+ */
+public class StartupBenchmark {
+  static final String[][] COMMANDS = new String[][] {
+      new String[] { "help" },
+      new String[] { "config" },
+      new String[] { "projects" },
+      new String[] { "issues" },
+      new String[] { "issue", "1" },
+      new String[] { "list", "status" } };
+
+  private static final int DEFAULT_RUNS = 10;
+  private static final int WARMUP_RUNS = 1;
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println(
+          "Usage: StartupBenchmark <jar> <result file> [runs]");
+      System.exit(1);
+    }
+
+    File jar = new File(args[0]);
+    File resultFile = new File(args[1]);
+    int runs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RUNS;
+    if (runs < 1) {
+      System.err.println("At least one run is needed.");
+      System.exit(1);
+    }
+
+    List<Result> results = new ArrayList<>();
+    try (FakeRedmineServer server = new FakeRedmineServer().start()) {
+      for (String[] command : COMMANDS) {
+        Path directory = Files.createTempDirectory("redmine-startup");
+        try {
+          StartupBenchmark benchmark = new StartupBenchmark(jar, directory);
+          benchmark.launch("connect", server.getUrl(),
+              FakeRedmineServer.API_KEY);
+
+          Result result = benchmark.measure(command, runs);
+          System.out.println(result);
+          results.add(result);
+        } finally {
+          delete(directory);
+        }
+      }
+    }
+
+    resultFile.getAbsoluteFile().getParentFile().mkdirs();
+    try (PrintWriter writer = new PrintWriter(resultFile, "UTF-8")) {
+      writer.print(toJson(results));
+    }
+  }
+
+  private final File jar;
+  private final Path directory;
+
+  StartupBenchmark(File jar, Path directory) {
+    this.jar = jar;
+    this.directory = directory;
+  }
+
+  Result measure(String[] command, int runs) throws Exception {
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      launch(command);
+    }
+
+    Result result = new Result(String.join(" ", command));
+    for (int i = 0; i < runs; i++) {
+      Run run = launch(command);
+      result.firstByte.add(run.firstByte);
+      result.total.add(run.total);
+      result.peakRss = Math.max(result.peakRss, run.peakRss);
+    }
+    result.classes = countLoadedClasses(command);
+
+    return result;
+  }
+
+  private Run launch(String... command) throws Exception {
+    Process process = start(Collections.emptyList(), command);
+    long start = System.nanoTime();
+
+    AtomicLong peakRss = new AtomicLong(-1);
+    Thread monitor = monitorRss(process, peakRss);
+
+    long firstByte = -1;
+    try (InputStream in = process.getInputStream()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        if (firstByte < 0 && read > 0) {
+          firstByte = System.nanoTime() - start;
+        }
+      }
+    }
+
+    int exitCode = process.waitFor();
+    long total = System.nanoTime() - start;
+    monitor.interrupt();
+    monitor.join();
+
+    if (exitCode != 0) {
+      throw new IllegalStateException(String.format(
+          "'%s' exited with %d.", String.join(" ", command), exitCode));
+    }
+
+    return new Run(firstByte < 0 ? total : firstByte, total, peakRss.get());
+  }
+
+  //In a separate run, as the class loading log delays the first byte
+  private int countLoadedClasses(String[] command) throws Exception {
+    Process process = start(Collections.singletonList("-verbose:class"),
+        command);
+
+    int classes = 0;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        process.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        //"[Loaded ..." up to Java 8, "[...][class,load] ..." later
+        if (line.startsWith("[Loaded ") || line.contains("[class,load]")) {
+          classes++;
+        }
+      }
+    }
+    process.waitFor();
+
+    return classes;
+  }
+
+  private Process start(List<String> jvmOptions, String... command)
+      throws IOException {
+    List<String> processCommand = new ArrayList<>();
+    processCommand.add(new File(System.getProperty("java.home"),
+        "bin/java").getPath());
+    processCommand.addAll(jvmOptions);
+    processCommand.add("-jar");
+    processCommand.add(jar.getAbsolutePath());
+    processCommand.addAll(Arrays.asList(command));
+
+    return new ProcessBuilder(processCommand).directory(directory.toFile())
+        .redirectErrorStream(true).start();
+  }
+
+  /**
+   * Polls the high water mark of the resident set size on Linux. Stays at -1
+   * elsewhere.
+   */
+  private static Thread monitorRss(Process process, AtomicLong peakRss) {
+    long pid = getPid(process);
+    File status = new File("/proc/" + pid + "/status");
+
+    Thread monitor = new Thread(() -> {
+      while (pid > 0 && !Thread.currentThread().isInterrupted()) {
+        try {
+          for (String line : Files.readAllLines(status.toPath())) {
+            if (line.startsWith("VmHWM:")) {
+              peakRss.set(Math.max(peakRss.get(),
+                  Long.parseLong(line.replaceAll("[^0-9]", ""))));
+            }
+          }
+          TimeUnit.MILLISECONDS.sleep(2);
+        } catch (IOException | InterruptedException e) {
+          //The process has exited
+          return;
+        }
+      }
+    });
+    monitor.setDaemon(true);
+    monitor.start();
+
+    return monitor;
+  }
+
+  private static long getPid(Process process) {
+    try {
+      return (Long) Process.class.getMethod("pid").invoke(process);
+    } catch (ReflectiveOperationException e) {
+      //Up to Java 8
+      try {
+        Field pid = process.getClass().getDeclaredField("pid");
+        pid.setAccessible(true);
+        return pid.getInt(process);
+      } catch (ReflectiveOperationException | RuntimeException e2) {
+        return -1;
+      }
+    }
+  }
+
+  private static String toJson(List<Result> results) {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n  \"java\": \"")
+        .append(System.getProperty("java.version"))
+        .append("\",\n  \"results\": [");
+    for (int i = 0; i < results.size(); i++) {
+      Result result = results.get(i);
+      json.append(i > 0 ? ",\n" : "\n").append("    {\"command\": \"")
+          .append(result.command).append("\", \"runs\": ")
+          .append(result.total.size())
+          .append(", \"firstByteMs\": ").append(percentiles(result.firstByte))
+          .append(", \"totalMs\": ").append(percentiles(result.total))
+          .append(", \"classes\": ").append(result.classes)
+          .append(", \"peakRssKb\": ").append(result.peakRss).append('}');
+    }
+
+    return json.append("\n  ]\n}\n").toString();
+  }
+
+  private static String percentiles(List<Long> nanos) {
+    //JSON needs a decimal point, whatever the locale
+    return String.format(Locale.ROOT,
+        "{\"p50\": %.1f, \"p90\": %.1f, \"max\": %.1f}",
+        percentile(nanos, 50), percentile(nanos, 90), percentile(nanos, 100));
+  }
+
+  static double percentile(List<Long> nanos, int percentile) {
+    List<Long> sorted = new ArrayList<>(nanos);
+    Collections.sort(sorted);
+
+    int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+
+    return sorted.get(Math.max(0, index)) / 1e6;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile)
+          .forEach(File::delete);
+    }
+  }
+
+  private static class Run {
+    private final long firstByte;
+    private final long total;
+    private final long peakRss;
+
+    Run(long firstByte, long total, long peakRss) {
+      this.firstByte = firstByte;
+      this.total = total;
+      this.peakRss = peakRss;
+    }
+  }
+
+  static class Result {
+    private final String command;
+    private final List<Long> firstByte = new ArrayList<>();
+    private final List<Long> total = new ArrayList<>();
+    private long peakRss = -1;
+    private int classes;
+
+    Result(String command) {
+      this.command = command;
+    }
+
+    @Override public String toString() {
+      return String.format(
+          "%-12s first byte %7.1f ms  total %7.1f ms  %5d classes  %7d kB",
+          command, percentile(firstByte, 50), percentile(total, 50), classes,
+          peakRss);
+    }
+  }
+}
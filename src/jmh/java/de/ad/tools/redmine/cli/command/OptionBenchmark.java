@@ -0,0 +1,81 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.StringUtil;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parses arguments and options the way every command does before it runs,
+ * and the lines of a batch file the way 'batch' reads them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OptionBenchmark {
+  private static final String[][] ARGUMENTS = new String[][] {
+      new String[] { "42" },
+      new String[] { "42", "--status=Resolved", "--priority=High",
+          "--assignee=me" },
+      new String[] { "42", "--subject=\"Fix the login page\"",
+          "--description=\"See C:/logs/app-1.2.log for details\"",
+          "--offline" },
+      new String[] { "42", "--status", "In Progress", "--status", "New",
+          "--subject=\"Gr\u00f6\u00dfe \u6771\u4eac \u2013 v1.2\"" } };
+
+  private static final String[] LINES = new String[] {
+      "42",
+      "42 --status=Resolved --priority=High --assignee=me",
+      "42 --subject=\"Fix the login page\" "
+          + "--description='See C:/logs/app-1.2.log for details' --offline",
+      "42 --status \"In Progress\" --status New "
+          + "--subject=\"Gr\u00f6\u00dfe \u6771\u4eac \u2013 v1.2\"" };
+
+  @Param({ "0", "1", "2", "3" })
+  public int arguments;
+
+  private String[] supplied;
+  private String line;
+  private Command command;
+
+  @Setup
+  public void setUp() {
+    supplied = ARGUMENTS[arguments];
+    line = LINES[arguments];
+    command = new Command("benchmark", "", "",
+        new Command.Argument[] {
+            new Command.NumberArgument("id", "", false) },
+        new Command.Option[] {
+            new Command.Option("subject", ""),
+            new Command.Option("description", ""),
+            new Command.Option("status", ""),
+            new Command.Option("priority", ""),
+            new Command.Option("assignee", ""),
+            new Command.Option("offline", "", true) },
+        new Configuration(), new PrintStream(new NullOutputStream()));
+  }
+
+  @Benchmark
+  public Command.Invocation parse() {
+    return command.parse(supplied);
+  }
+
+  @Benchmark
+  public Command.Invocation parseBatchLine() {
+    return command.parse(StringUtil.splitArguments(line));
+  }
+
+  private static class NullOutputStream extends OutputStream {
+    @Override public void write(int b) {
+    }
+  }
+}
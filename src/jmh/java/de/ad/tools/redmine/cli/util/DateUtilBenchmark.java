@@ -0,0 +1,36 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Called once per row of 'issues'. Older dates fall through more units.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilBenchmark {
+  @Param({ "30", "7200", "864000", "94608000" })
+  public long secondsAgo;
+
+  private Date date;
+
+  @Setup
+  public void setUp() {
+    date = new Date(System.currentTimeMillis()
+        - TimeUnit.SECONDS.toMillis(secondsAgo));
+  }
+
+  @Benchmark
+  public String getTimeDifferenceAsText() {
+    return DateUtil.getTimeDifferenceAsText(date);
+  }
+}
@@ -0,0 +1,23 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.OutputStream;
+
+/**
+ * Counts and drops what is written, so benchmarks measure formatting rather
+ * than the terminal.
+ */
+class DiscardingOutputStream extends OutputStream {
+  private long count;
+
+  @Override public void write(int b) {
+    count++;
+  }
+
+  @Override public void write(byte[] b, int off, int len) {
+    count += len;
+  }
+
+  long getCount() {
+    return count;
+  }
+}
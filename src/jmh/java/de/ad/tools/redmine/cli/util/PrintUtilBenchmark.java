@@ -0,0 +1,71 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Prints tables shaped like the output of 'issues'. Compare with
+ * {@link #tableWriter}, which 'issues' uses for long listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PrintUtilBenchmark {
+  private static final String[] HEADER = new String[] { "ID", "Tracker",
+      "Status", "Priority", "Assignee", "Updated", "Subject" };
+  private static final String[] TRACKERS = new String[] { "Bug", "Feature",
+      "Support" };
+  private static final String[] STATUSES = new String[] { "New",
+      "In Progress", "Resolved", "Feedback" };
+
+  @Param({ "10", "10000", "1000000" })
+  public int rows;
+
+  private String[][] table;
+  private DiscardingOutputStream stream;
+  private PrintStream out;
+
+  @Setup
+  public void setUp() {
+    table = new String[rows][];
+    for (int i = 0; i < rows; i++) {
+      table[i] = new String[] { "#" + (i + 1),
+          TRACKERS[i % TRACKERS.length],
+          STATUSES[i % STATUSES.length],
+          i % 10 == 0 ? "Urgent" : "Normal",
+          i % 3 == 0 ? "(not assigned)" : "John Doe",
+          (i % 59 + 1) + " minutes ago",
+          StringUtil.ellipsize("Subject of issue number " + (i + 1), 24) };
+    }
+
+    stream = new DiscardingOutputStream();
+    out = new PrintStream(stream);
+  }
+
+  @Benchmark
+  public long printTable() {
+    //The header is upper cased in place
+    PrintUtil.printTable(out, HEADER.clone(), table);
+
+    return stream.getCount();
+  }
+
+  @Benchmark
+  public long tableWriter() {
+    TableWriter writer = TableWriter.withLookAhead(out, HEADER, 25);
+    for (String[] row : table) {
+      writer.writeRow(row);
+    }
+    writer.flush();
+
+    return stream.getCount();
+  }
+}
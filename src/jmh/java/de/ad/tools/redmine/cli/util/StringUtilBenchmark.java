@@ -0,0 +1,24 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringUtilBenchmark {
+  @Param({ "Short subject",
+      "A subject which is too long for the subject column" })
+  public String subject;
+
+  @Benchmark
+  public String ellipsize() {
+    return StringUtil.ellipsize(subject, 24);
+  }
+}
@@ -1,42 +1,83 @@
 package de.ad.tools.redmine.cli;
 
 import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import de.ad.tools.redmine.cli.util.Timings;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class Application {
 
   public static final String LOCAL_CONFIGURATION_FILE_NAME = ".redmine";
+  public static final String LOCAL_CACHE_FILE_NAME = ".redmine-cache";
+  public static final String LOCAL_MIRROR_FILE_NAME = ".redmine-mirror";
+  public static final String LOCAL_INDEX_FILE_NAME = ".redmine-index";
+  public static final String LOCAL_HTTP_CACHE_DIRECTORY_NAME =
+      ".redmine-http-cache";
 
   static Application instance =
       new Application(new ConfigurationManager(LOCAL_CONFIGURATION_FILE_NAME),
+          new CacheManager(LOCAL_CACHE_FILE_NAME),
           new RedmineCliFactory(), System.out,
           new RedmineCli.RedmineManagerFactory());
 
   private ConfigurationManager configurationManager;
+  private CacheManager cacheManager;
   private RedmineCliFactory redmineCliFactory;
   private PrintStream out;
   private RedmineCli.RedmineManagerFactory redmineManagerFactory;
 
   Application(ConfigurationManager configurationManager,
-      RedmineCliFactory redmineCliFactory, PrintStream out,
-      RedmineCli.RedmineManagerFactory redmineManagerFactory) {
+      CacheManager cacheManager, RedmineCliFactory redmineCliFactory,
+      PrintStream out, RedmineCli.RedmineManagerFactory redmineManagerFactory) {
     this.configurationManager = configurationManager;
+    this.cacheManager = cacheManager;
     this.redmineCliFactory = redmineCliFactory;
     this.out = out;
     this.redmineManagerFactory = redmineManagerFactory;
   }
 
   public static void main(String... args) {
-    instance.run(args);
+    if (args.length > 0 && Daemon.START_OPTION.equals(args[0])) {
+      Daemon.instance.run();
+    } else if (Arrays.asList(args).contains(Timings.OPTION)
+        || !DaemonClient.forward(args, System.out)) {
+      //Timings are measured in this process, never in the daemon
+      instance.run(args);
+    }
   }
 
   void run(String... args) {
-    Configuration configuration = configurationManager.loadConfiguration();
+    Timings timings =
+        new Timings(Arrays.asList(args).contains(Timings.OPTION));
+    Timings.instance = timings;
+    args = Arrays.stream(args)
+        .filter(a -> !Timings.OPTION.equals(a))
+        .toArray(String[]::new);
+
+    Configuration configuration;
+    ReferenceDataCache cache;
+    try (Timings.Phase phase = timings.start("config load")) {
+      configuration = configurationManager.loadConfiguration();
+      cache = cacheManager.loadCache(configuration);
+    }
+
+    RedmineUtil.cache = cache;
 
-    RedmineCli redmineCli = redmineCliFactory.produce(configuration, out,
-        redmineManagerFactory);
+    RedmineCli redmineCli;
+    try (Timings.Phase phase = timings.start("command construction")) {
+      redmineCli = redmineCliFactory.produce(configuration, out,
+          redmineManagerFactory);
+    }
 
     try {
       redmineCli.handleCommand(args);
@@ -44,11 +85,18 @@ public class Application {
       out.println(e.getMessage());
     }
 
-    configurationManager.persistConfiguration(configuration);
+    try (Timings.Phase phase = timings.start("config persist")) {
+      configurationManager.persistConfiguration(configuration);
+      cacheManager.persistCache(cache);
+    }
+
+    timings.report(System.err);
   }
 
   static class ConfigurationManager {
     private String configurationFileName;
+    //The configuration as last read from or written to the file
+    private Configuration loaded = new Configuration();
 
     public ConfigurationManager(String configurationFileName) {
       this.configurationFileName = configurationFileName;
@@ -60,20 +108,150 @@ public class Application {
       }
 
       try {
-        return FileUtil.readObjectFromFile(configurationFileName);
+        Configuration configuration =
+            parse(FileUtil.readFile(configurationFileName));
+        loaded = copy(configuration);
+
+        return configuration;
       } catch (IOException | ClassNotFoundException e) {
-        throw new IllegalStateException();
+        throw new IllegalStateException(e.getMessage(), e);
       }
     }
 
+    /**
+     * @return the modification time of the file, 0 if there is none
+     */
+    public long getLastModified() {
+      return FileUtil.getFile(configurationFileName).lastModified();
+    }
+
+    /**
+     * Writes the configuration while the file is locked. Values another
+     * process changed in the meantime are kept unless this process changed
+     * them too.
+     */
     public void persistConfiguration(Configuration configuration) {
+      if (!configuration.isDirty()) {
+        return;
+      }
+
+      try {
+        FileUtil.updateFile(configurationFileName, content -> {
+          if (content != null) {
+            try {
+              merge(configuration, parse(content));
+            } catch (ClassNotFoundException e) {
+              throw new IOException(e.getMessage(), e);
+            }
+          }
+
+          return configuration.toByteArray();
+        });
+
+        loaded = copy(configuration);
+        configuration.setDirty(false);
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+
+    private void merge(Configuration configuration, Configuration current) {
+      //Server and API key only make sense together
+      if (Objects.equals(configuration.getServer(), loaded.getServer())
+          && Objects.equals(configuration.getApiKey(), loaded.getApiKey())) {
+        configuration.setServer(current.getServer());
+        configuration.setApiKey(current.getApiKey());
+      }
+
+      Set<String> keys = new HashSet<>(loaded.getSettings().keySet());
+      keys.addAll(current.getSettings().keySet());
+
+      for (String key : keys) {
+        if (Objects.equals(configuration.getSetting(key),
+            loaded.getSetting(key))) {
+          configuration.setSetting(key, current.getSetting(key));
+        }
+      }
+    }
+
+    private static Configuration parse(byte[] content)
+        throws IOException, ClassNotFoundException {
+      if (!isSerializedObject(content)) {
+        return Configuration.fromByteArray(content);
+      }
+
+      try (ObjectInputStream in =
+               new ObjectInputStream(new ByteArrayInputStream(content))) {
+        Configuration configuration = (Configuration) in.readObject();
+
+        //Rewrite files of older versions in the current format
+        configuration.setDirty(true);
+
+        return configuration;
+      }
+    }
+
+    private static Configuration copy(Configuration configuration) {
       try {
-        FileUtil.writeObjectToFile(configuration,
-            configurationFileName);
+        return Configuration.fromByteArray(configuration.toByteArray());
+      } catch (IOException e) {
+        //Cannot happen when reading from memory
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private static boolean isSerializedObject(byte[] content) {
+      return content.length >= 2 && (content[0] & 0xff) == 0xac
+          && (content[1] & 0xff) == 0xed;
+    }
+  }
+
+  static class CacheManager {
+    private String cacheFileName;
+
+    public CacheManager(String cacheFileName) {
+      this.cacheFileName = cacheFileName;
+    }
+
+    public ReferenceDataCache loadCache(Configuration configuration) {
+      ReferenceDataCache cache = readCache();
+
+      bindCache(cache, configuration);
+
+      return cache;
+    }
+
+    public void bindCache(ReferenceDataCache cache,
+        Configuration configuration) {
+      long ttl = TimeUnit.SECONDS.toMillis(configuration.getIntSetting(
+          Configuration.CACHE_TTL, ReferenceDataCache.DEFAULT_TTL));
+      cache.bind(configuration.getServer(), ttl);
+    }
+
+    public void persistCache(ReferenceDataCache cache) {
+      if (!cache.isDirty()) {
+        return;
+      }
+
+      try {
+        FileUtil.writeObjectToFile(cache, cacheFileName);
       } catch (IOException e) {
         e.printStackTrace();
       }
     }
+
+    private ReferenceDataCache readCache() {
+      if (!FileUtil.exists(cacheFileName)) {
+        return new ReferenceDataCache();
+      }
+
+      try {
+        return FileUtil.readObjectFromFile(cacheFileName);
+      } catch (IOException | ClassNotFoundException | ClassCastException e) {
+        //The cache only holds data which can be downloaded again
+        return new ReferenceDataCache();
+      }
+    }
   }
 
   static class RedmineCliFactory {
@@ -0,0 +1,57 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.command.Command;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the commands by name and creates each one when it is first needed.
+ * Only the general help iterates over all of them. Commands may be looked up
+ * from several threads.
+ */
+class CommandRegistry extends AbstractMap<String, Command> {
+  private final Map<String, Supplier<Command>> factories =
+      new LinkedHashMap<>();
+  private final Map<String, Command> commands = new ConcurrentHashMap<>();
+
+  void register(String name, Supplier<Command> factory) {
+    factories.put(name, factory);
+  }
+
+  boolean isCreated(String name) {
+    return commands.containsKey(name);
+  }
+
+  @Override public boolean containsKey(Object name) {
+    return factories.containsKey(name);
+  }
+
+  @Override public Command get(Object name) {
+    Supplier<Command> factory = factories.get(name);
+    if (factory == null) {
+      return null;
+    }
+
+    return commands.computeIfAbsent((String) name, n -> factory.get());
+  }
+
+  @Override public int size() {
+    return factories.size();
+  }
+
+  @Override public Set<Entry<String, Command>> entrySet() {
+    Set<Entry<String, Command>> entries = new LinkedHashSet<>();
+
+    for (String name : factories.keySet()) {
+      entries.add(new SimpleImmutableEntry<>(name, get(name)));
+    }
+
+    return entries;
+  }
+}
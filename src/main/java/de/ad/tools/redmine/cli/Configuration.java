@@ -1,18 +1,51 @@
 package de.ad.tools.redmine.cli;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 public class Configuration implements Serializable {
+  public static final String CACHE_TTL = "cache-ttl";
+  public static final String PAGE_SIZE = "page-size";
+  public static final String CONCURRENCY = "concurrency";
+  public static final String TABLE_WIDTH = "table-width";
+  public static final String HTTP_POOL_SIZE = "http-pool-size";
+  public static final String HTTP_KEEP_ALIVE = "http-keep-alive";
+  public static final String HTTP_CONNECT_TIMEOUT = "http-connect-timeout";
+  public static final String HTTP_READ_TIMEOUT = "http-read-timeout";
+  public static final String HTTP_COMPRESSION = "http-compression";
+
+  static final String INVALID_FORMAT_MESSAGE =
+      "Not a configuration file.";
+  static final String UNSUPPORTED_FORMAT_MESSAGE =
+      "Unsupported configuration format version %d.";
+
+  //"RDMC", followed by the format version
+  private static final int FORMAT_MAGIC = 0x52444d43;
+  private static final int FORMAT_VERSION = 1;
+
+  //Keeps serialized configuration files of older versions readable
+  private static final long serialVersionUID = 7628685462665691712L;
+
   private String server;
   private String apiKey;
+  private TreeMap<String, String> settings = new TreeMap<>();
+
+  private transient boolean dirty;
 
   public String getServer() {
     return server;
   }
 
   public void setServer(String server) {
+    dirty |= !Objects.equals(this.server, server);
     this.server = server;
   }
 
@@ -21,25 +54,151 @@ public class Configuration implements Serializable {
   }
 
   public void setApiKey(String auth) {
+    dirty |= !Objects.equals(this.apiKey, auth);
     this.apiKey = auth;
   }
 
+  public String getSetting(String key) {
+    return getSettingsInternal().get(key);
+  }
+
+  public int getIntSetting(String key, int defaultValue) {
+    String value = getSetting(key);
+
+    if (value == null) {
+      return defaultValue;
+    }
+
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  public void setSetting(String key, String value) {
+    String previous;
+    if (value == null) {
+      previous = getSettingsInternal().remove(key);
+    } else {
+      previous = getSettingsInternal().put(key, value);
+    }
+
+    dirty |= !Objects.equals(previous, value);
+  }
+
+  public Map<String, String> getSettings() {
+    return Collections.unmodifiableMap(getSettingsInternal());
+  }
+
   public boolean isConnected() {
     return server != null && apiKey != null;
   }
 
   public void reset() {
+    dirty |= server != null || apiKey != null
+        || !getSettingsInternal().isEmpty();
+
     server = null;
     apiKey = null;
+    getSettingsInternal().clear();
+  }
+
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  public void setDirty(boolean dirty) {
+    this.dirty = dirty;
+  }
+
+  public byte[] toByteArray() {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+
+    try (DataOutputStream out = new DataOutputStream(bout)) {
+      out.writeInt(FORMAT_MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      writeNullable(out, server);
+      writeNullable(out, apiKey);
+      out.writeInt(getSettingsInternal().size());
+      for (Map.Entry<String, String> setting :
+          getSettingsInternal().entrySet()) {
+        out.writeUTF(setting.getKey());
+        out.writeUTF(setting.getValue());
+      }
+    } catch (IOException e) {
+      //Cannot happen when writing to memory
+      throw new IllegalStateException(e);
+    }
+
+    return bout.toByteArray();
+  }
+
+  public static Configuration fromByteArray(byte[] content)
+      throws IOException {
+    try (DataInputStream in =
+             new DataInputStream(new ByteArrayInputStream(content))) {
+      if (in.readInt() != FORMAT_MAGIC) {
+        throw new IOException(INVALID_FORMAT_MESSAGE);
+      }
+
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException(
+            String.format(UNSUPPORTED_FORMAT_MESSAGE, version));
+      }
+
+      Configuration configuration = new Configuration();
+      configuration.server = readNullable(in);
+      configuration.apiKey = readNullable(in);
+
+      int settingsCount = in.readInt();
+      for (int i = 0; i < settingsCount; i++) {
+        configuration.settings.put(in.readUTF(), in.readUTF());
+      }
+
+      return configuration;
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private TreeMap<String, String> getSettingsInternal() {
+    if (settings == null) {
+      settings = new TreeMap<>();
+    }
+
+    return settings;
   }
 
   @Override
   public boolean equals(Object o) {
-    return EqualsBuilder.reflectionEquals(this, o, true);
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    Configuration that = (Configuration) o;
+
+    return Objects.equals(server, that.server)
+        && Objects.equals(apiKey, that.apiKey)
+        && getSettingsInternal().equals(that.getSettingsInternal());
   }
 
   @Override
   public int hashCode() {
-    return HashCodeBuilder.reflectionHashCode(this, true);
+    return Objects.hash(server, apiKey, getSettingsInternal());
   }
 }
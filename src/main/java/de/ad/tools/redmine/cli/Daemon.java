@@ -0,0 +1,309 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Keeps the configuration, the caches and the Redmine connections of a
+ * directory in memory and runs commands sent by {@link DaemonClient}.
+ * Commands are processed one at a time.
+ */
+public class Daemon {
+  public static final String START_OPTION = "--daemon";
+  public static final String STOP_OPTION = "--daemon-stop";
+  public static final String DAEMON_FILE_NAME = ".redmine-daemon";
+
+  static final String STARTED_MESSAGE = "Daemon listening on port %d.";
+  static final String STOPPED_MESSAGE = "Daemon stopped.";
+  static final String INVALID_TOKEN_MESSAGE = "Invalid daemon token.";
+  static final String INVALID_REQUEST_MESSAGE = "Invalid daemon request.";
+
+  static final int MAX_ARGUMENTS = 1024;
+
+  //Sent once a request is valid, the client confirms to let it run
+  static final int ACCEPTED = 0x06;
+  static final int CONFIRMED = 0x06;
+
+  //Time a client may take to send its request
+  static int requestTimeout = 5000;
+  private static final int MAX_REJECTED_BYTES = 64 * 1024;
+
+  static Daemon instance = new Daemon(
+      new Application.ConfigurationManager(
+          Application.LOCAL_CONFIGURATION_FILE_NAME),
+      new Application.CacheManager(Application.LOCAL_CACHE_FILE_NAME),
+      new Application.RedmineCliFactory(), System.out,
+      new RedmineCli.RedmineManagerFactory());
+
+  private final Application.ConfigurationManager configurationManager;
+  private final Application.CacheManager cacheManager;
+  private final Application.RedmineCliFactory redmineCliFactory;
+  private final PrintStream log;
+  private final RedmineCli.RedmineManagerFactory redmineManagerFactory;
+
+  private final ClientOutputStream clientOut = new ClientOutputStream();
+  private final PrintStream out = new PrintStream(clientOut, true);
+
+  private Configuration configuration;
+  private long configurationModified;
+  private ReferenceDataCache cache;
+  private RedmineCli redmineCli;
+  private String connectedServer;
+  private String connectedApiKey;
+
+  private volatile ServerSocket serverSocket;
+  private volatile boolean stopped;
+
+  Daemon(Application.ConfigurationManager configurationManager,
+      Application.CacheManager cacheManager,
+      Application.RedmineCliFactory redmineCliFactory, PrintStream log,
+      RedmineCli.RedmineManagerFactory redmineManagerFactory) {
+    this.configurationManager = configurationManager;
+    this.cacheManager = cacheManager;
+    this.redmineCliFactory = redmineCliFactory;
+    this.log = log;
+    this.redmineManagerFactory = redmineManagerFactory;
+  }
+
+  void run() {
+    configurationModified = configurationManager.getLastModified();
+    configuration = configurationManager.loadConfiguration();
+    cache = cacheManager.loadCache(configuration);
+
+    RedmineUtil.cache = cache;
+
+    File daemonFile = FileUtil.getFile(DAEMON_FILE_NAME);
+
+    try (ServerSocket serverSocket = new ServerSocket(0, 50,
+        InetAddress.getLoopbackAddress())) {
+      this.serverSocket = serverSocket;
+
+      String token = createToken();
+      writeDaemonFile(daemonFile, serverSocket.getLocalPort(), token);
+
+      log.println(String.format(STARTED_MESSAGE, serverSocket.getLocalPort()));
+
+      while (!stopped) {
+        try (Socket socket = serverSocket.accept()) {
+          serve(socket, token);
+        } catch (IOException | RuntimeException e) {
+          //The client went away or sent garbage, keep serving others
+          if (stopped) {
+            break;
+          }
+        }
+      }
+    } catch (IOException e) {
+      log.println(e.getMessage());
+    } finally {
+      daemonFile.delete();
+    }
+
+    log.println(STOPPED_MESSAGE);
+  }
+
+  void stop() {
+    stopped = true;
+
+    try {
+      if (serverSocket != null) {
+        serverSocket.close();
+      }
+    } catch (IOException e) {
+      //Closing only unblocks accept()
+    }
+  }
+
+  private void serve(Socket socket, String token) throws IOException {
+    socket.setTcpNoDelay(true);
+    socket.setSoTimeout(requestTimeout);
+
+    DataInputStream in = new DataInputStream(socket.getInputStream());
+    OutputStream target = socket.getOutputStream();
+
+    //Nothing is allocated for a client before it proved to know the token
+    String clientToken = in.readUTF();
+    if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+        clientToken.getBytes(StandardCharsets.UTF_8))) {
+      reject(socket, INVALID_TOKEN_MESSAGE);
+      return;
+    }
+
+    int count = in.readInt();
+    if (count <= 0 || count > MAX_ARGUMENTS) {
+      reject(socket, INVALID_REQUEST_MESSAGE);
+      return;
+    }
+
+    String[] args = new String[count];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = in.readUTF();
+    }
+
+    //A client which gave up waiting runs the command itself
+    target.write(ACCEPTED);
+    target.flush();
+    if (in.read() != CONFIRMED) {
+      return;
+    }
+
+    if (args.length == 1 && STOP_OPTION.equals(args[0])) {
+      target.write((STOPPED_MESSAGE + System.lineSeparator()).getBytes());
+      stop();
+      return;
+    }
+
+    handle(args, target);
+  }
+
+  /**
+   * Sends the message and reads what the client still sends, as closing with
+   * unread data would reset the connection before the client read it.
+   */
+  private static void reject(Socket socket, String message)
+      throws IOException {
+    socket.getOutputStream().write(
+        (message + System.lineSeparator()).getBytes());
+    socket.shutdownOutput();
+
+    InputStream in = socket.getInputStream();
+    byte[] buffer = new byte[8192];
+    long drained = 0;
+    int read;
+    while (drained < MAX_REJECTED_BYTES && (read = in.read(buffer)) != -1) {
+      drained += read;
+    }
+  }
+
+  void handle(String[] args, OutputStream target) {
+    clientOut.setTarget(target);
+
+    try {
+      reloadChangedConfiguration();
+
+      //Connection settings and the cache TTL may change with every command
+      cacheManager.bindCache(cache, configuration);
+
+      try {
+        getRedmineCli().handleCommand(args);
+      } catch (Exception e) {
+        out.println(e.getMessage());
+      }
+
+      configurationManager.persistConfiguration(configuration);
+      configurationModified = configurationManager.getLastModified();
+      cacheManager.persistCache(cache);
+    } finally {
+      out.flush();
+      clientOut.setTarget(null);
+    }
+  }
+
+  /**
+   * Picks up changes of processes not using the daemon, e.g. runs with
+   * '--timings'. Commands hold on to the configuration, so they are created
+   * again.
+   */
+  private void reloadChangedConfiguration() {
+    long modified = configurationManager.getLastModified();
+    if (modified == configurationModified) {
+      return;
+    }
+
+    configuration = configurationManager.loadConfiguration();
+    configurationModified = modified;
+    redmineCli = null;
+  }
+
+  private RedmineCli getRedmineCli() {
+    if (redmineCli == null
+        || !Objects.equals(connectedServer, configuration.getServer())
+        || !Objects.equals(connectedApiKey, configuration.getApiKey())) {
+      redmineCli = redmineCliFactory.produce(configuration, out,
+          redmineManagerFactory);
+      connectedServer = configuration.getServer();
+      connectedApiKey = configuration.getApiKey();
+    }
+
+    return redmineCli;
+  }
+
+  private static String createToken() {
+    byte[] bytes = new byte[16];
+    new SecureRandom().nextBytes(bytes);
+
+    StringBuilder token = new StringBuilder();
+    for (byte b : bytes) {
+      token.append(String.format("%02x", b));
+    }
+
+    return token.toString();
+  }
+
+  private static void writeDaemonFile(File daemonFile, int port, String token)
+      throws IOException {
+    File tmpFile = new File(daemonFile.getPath() + ".tmp");
+    Files.write(tmpFile.toPath(), new byte[0]);
+
+    //The token grants access to the configured API key, keep it private
+    tmpFile.setReadable(false, false);
+    tmpFile.setWritable(false, false);
+    tmpFile.setReadable(true, true);
+    tmpFile.setWritable(true, true);
+
+    Files.write(tmpFile.toPath(), Arrays.asList(String.valueOf(port), token),
+        StandardCharsets.UTF_8);
+
+    //Clients must never see a half written file
+    Files.move(tmpFile.toPath(), daemonFile.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Forwards the output of the running command to the current client.
+   */
+  private static class ClientOutputStream extends OutputStream {
+    private OutputStream target;
+
+    void setTarget(OutputStream target) {
+      this.target = target;
+    }
+
+    @Override public void write(int b) throws IOException {
+      if (target != null) {
+        target.write(b);
+      }
+    }
+
+    @Override public void write(byte[] b, int off, int len)
+        throws IOException {
+      if (target != null) {
+        target.write(b, off, len);
+      }
+    }
+
+    @Override public void flush() throws IOException {
+      if (target != null) {
+        target.flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.util.FileUtil;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Sends a command to the {@link Daemon} of the current directory and copies
+ * its output.
+ */
+public final class DaemonClient {
+  static final String NOT_RUNNING_MESSAGE = "No daemon is running.";
+  static final String NOT_RESPONDING_MESSAGE = "The daemon is not responding.";
+
+  //Time to wait for a busy or stuck daemon before running locally
+  static int acceptTimeout = 2000;
+
+  private static final int CONNECT_TIMEOUT = 1000;
+  private static final String BATCH_COMMAND = "batch";
+
+  private DaemonClient() {
+  }
+
+  /**
+   * @return {@code false} if no daemon is running, so that the command has to
+   * be processed locally.
+   */
+  public static boolean forward(String[] args, PrintStream out) {
+    if (readsStandardInput(args)) {
+      return false;
+    }
+
+    File daemonFile = FileUtil.getFile(Daemon.DAEMON_FILE_NAME);
+
+    boolean stop = args.length == 1 && Daemon.STOP_OPTION.equals(args[0]);
+
+    if (!daemonFile.exists()) {
+      if (stop) {
+        out.println(NOT_RUNNING_MESSAGE);
+      }
+      return stop;
+    }
+
+    Socket socket;
+    String token;
+    try {
+      List<String> lines =
+          Files.readAllLines(daemonFile.toPath(), StandardCharsets.UTF_8);
+      token = lines.get(1);
+      socket = connect(Integer.parseInt(lines.get(0)));
+    } catch (IOException | RuntimeException e) {
+      //A daemon which died without cleaning up leaves a stale file behind
+      daemonFile.delete();
+
+      if (stop) {
+        out.println(NOT_RUNNING_MESSAGE);
+      }
+      return stop;
+    }
+
+    try {
+      socket.setTcpNoDelay(true);
+      socket.setSoTimeout(acceptTimeout);
+
+      DataOutputStream request =
+          new DataOutputStream(socket.getOutputStream());
+      request.writeUTF(token);
+      request.writeInt(args.length);
+      for (String arg : args) {
+        request.writeUTF(arg);
+      }
+      request.flush();
+
+      InputStream in = socket.getInputStream();
+      int response;
+      try {
+        response = in.read();
+      } catch (SocketTimeoutException e) {
+        if (stop) {
+          out.println(NOT_RESPONDING_MESSAGE);
+        }
+        return stop;
+      }
+
+      if (response == Daemon.ACCEPTED) {
+        //Once confirmed, the command must not run a second time locally
+        request.write(Daemon.CONFIRMED);
+        request.flush();
+        socket.setSoTimeout(0);
+      } else if (response != -1) {
+        //The daemon rejected the request with a message
+        out.write(response);
+      }
+
+      copy(in, out);
+    } catch (IOException e) {
+      out.println(e.getMessage());
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        //Nothing left to read
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * The daemon cannot read the standard input of the client, so 'batch'
+   * without a file always runs locally.
+   */
+  private static boolean readsStandardInput(String[] args) {
+    if (args.length == 0 || !BATCH_COMMAND.equals(args[0])) {
+      return false;
+    }
+
+    for (int i = 1; i < args.length; i++) {
+      if (!args[i].startsWith("--")) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static Socket connect(int port) throws IOException {
+    Socket socket = new Socket();
+    socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+        port), CONNECT_TIMEOUT);
+
+    return socket;
+  }
+
+  private static void copy(InputStream in, OutputStream out)
+      throws IOException {
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+      out.flush();
+    }
+  }
+}
@@ -1,14 +1,23 @@
 package de.ad.tools.redmine.cli;
 
 import com.taskadapter.redmineapi.RedmineManager;
+import com.taskadapter.redmineapi.TransportConfiguration;
 import de.ad.tools.redmine.cli.command.*;
+import de.ad.tools.redmine.cli.util.HttpClientFactory;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.LazyHttpClient;
+import de.ad.tools.redmine.cli.util.ResponseCache;
+import de.ad.tools.redmine.cli.util.RevalidatingHttpClient;
+import de.ad.tools.redmine.cli.util.SearchIndex;
+import de.ad.tools.redmine.cli.util.Timings;
 
 import java.io.PrintStream;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.http.client.HttpClient;
 
 public class RedmineCli {
   static final String INVALID_ARGUMENT_MESSAGE =
@@ -18,8 +27,14 @@ public class RedmineCli {
 
   private Configuration configuration;
   private transient Map<String, Command> commands;
+  private transient RedmineManager redmineManager;
+  private transient IssuePager issuePager;
   private PrintStream out;
   private RedmineManagerFactory redmineManagerFactory;
+  private transient IssueMirror.Store mirrorStore =
+      new IssueMirror.Store(Application.LOCAL_MIRROR_FILE_NAME);
+  private transient SearchIndex.Store indexStore =
+      new SearchIndex.Store(Application.LOCAL_INDEX_FILE_NAME);
 
   public RedmineCli(Configuration configuration, PrintStream out,
       RedmineManagerFactory redmineManagerFactory) {
@@ -27,52 +42,90 @@ public class RedmineCli {
     this.out = out;
     this.redmineManagerFactory = redmineManagerFactory;
 
+    redmineManagerFactory.configure(configuration);
     initCommands();
   }
 
+  private RedmineCli(RedmineCli parent, PrintStream out) {
+    this.configuration = parent.configuration;
+    this.out = out;
+    this.redmineManagerFactory = parent.redmineManagerFactory;
+    this.redmineManager = parent.getRedmineManager();
+    this.issuePager = parent.getIssuePager();
+    this.mirrorStore = parent.mirrorStore;
+    this.indexStore = parent.indexStore;
+
+    initCommands();
+  }
+
+  /**
+   * @return a CLI printing to the given stream, sharing the connection and
+   * the local stores with this one
+   */
+  public RedmineCli withOutput(PrintStream out) {
+    return new RedmineCli(this, out);
+  }
+
   private void initCommands() {
-    commands = new LinkedHashMap<>();
+    CommandRegistry registry = new CommandRegistry();
+    commands = registry;
+
+    registry.register("help",
+        () -> new HelpCommand(configuration, out, commands));
+    registry.register("connect",
+        () -> new ConnectCommand(configuration, out, redmineManagerFactory));
+    registry.register("projects",
+        () -> new ProjectsCommand(configuration, out, getRedmineManager()));
+    registry.register("project",
+        () -> new ProjectCommand(configuration, out, getRedmineManager()));
+    registry.register("issues",
+        () -> new IssuesCommand(configuration, out, getRedmineManager(),
+            getIssuePager(), mirrorStore));
+    registry.register("issue",
+        () -> new IssueCommand(configuration, out, getRedmineManager(),
+            mirrorStore));
+    registry.register("history",
+        () -> new HistoryCommand(configuration, out, getRedmineManager(),
+            mirrorStore));
+    registry.register("list",
+        () -> new ListCommand(configuration, out, getRedmineManager()));
+    registry.register("refresh",
+        () -> new RefreshCommand(configuration, out, getRedmineManager()));
+    registry.register("sync",
+        () -> new SyncCommand(configuration, out, getRedmineManager(),
+            getIssuePager(), mirrorStore, indexStore));
+    registry.register("search",
+        () -> new SearchCommand(configuration, out, indexStore));
+    registry.register("create-issue",
+        () -> new CreateIssueCommand(configuration, out, getRedmineManager()));
+    registry.register("update-issue",
+        () -> new UpdateIssueCommand(configuration, out, getRedmineManager(),
+            getIssuePager()));
+    registry.register("open",
+        () -> new OpenCommand(configuration, out, getRedmineManager(),
+            new OpenCommand.Browser()));
+    registry.register("batch",
+        () -> new BatchCommand(configuration, out, this, System.in));
+    registry.register("config", () -> new ConfigCommand(configuration, out));
+    registry.register("reset", () -> new ResetCommand(configuration, out));
+  }
 
-    RedmineManager redmineManager = null;
+  private synchronized RedmineManager getRedmineManager() {
+    if (redmineManager == null && configuration.isConnected()) {
+      redmineManager = redmineManagerFactory.createWithApiKey(
+          configuration.getServer(), configuration.getApiKey());
+    }
+
+    return redmineManager;
+  }
 
-    if (configuration.isConnected()) {
-      redmineManager = redmineManagerFactory
-          .createWithApiKey(configuration.getServer(),
-              configuration.getApiKey());
+  private synchronized IssuePager getIssuePager() {
+    if (issuePager == null && configuration.isConnected()) {
+      issuePager = redmineManagerFactory.createIssuePager(
+          configuration.getServer(), configuration.getApiKey());
     }
 
-    Command help = new HelpCommand(configuration, out, commands);
-    Command connect = new ConnectCommand(configuration, out,
-        redmineManagerFactory);
-    Command projects =
-        new ProjectsCommand(configuration, out, redmineManager);
-    Command project =
-        new ProjectCommand(configuration, out, redmineManager);
-    Command issues = new IssuesCommand(configuration, out, redmineManager);
-    Command issue = new IssueCommand(configuration, out, redmineManager);
-    Command history =
-        new HistoryCommand(configuration, out, redmineManager);
-    Command list = new ListCommand(configuration, out, redmineManager);
-    Command createIssueCommand =
-        new CreateIssueCommand(configuration, out, redmineManager);
-    Command updateIssueCommand =
-        new UpdateIssueCommand(configuration, out, redmineManager);
-    Command open = new OpenCommand(configuration, out, redmineManager,
-        new OpenCommand.Browser());
-    Command reset = new ResetCommand(configuration, out);
-
-    commands.put(help.getName(), help);
-    commands.put(connect.getName(), connect);
-    commands.put(projects.getName(), projects);
-    commands.put(project.getName(), project);
-    commands.put(issues.getName(), issues);
-    commands.put(issue.getName(), issue);
-    commands.put(history.getName(), history);
-    commands.put(list.getName(), list);
-    commands.put(createIssueCommand.getName(), createIssueCommand);
-    commands.put(updateIssueCommand.getName(), updateIssueCommand);
-    commands.put(open.getName(), open);
-    commands.put(reset.getName(), reset);
+    return issuePager;
   }
 
   public void handleCommand(String[] args) throws Exception {
@@ -92,9 +145,15 @@ public class RedmineCli {
 
   private void proccessCommand(String commandName, String[] arguments)
       throws Exception {
-    Command command = commands.get(commandName);
+    Command command;
+    try (Timings.Phase phase =
+        Timings.instance.start("command construction")) {
+      command = commands.get(commandName);
+    }
 
-    command.process(arguments);
+    try (Timings.Phase phase = Timings.instance.start("command execution")) {
+      command.process(arguments);
+    }
   }
 
   private void validateArguments(String[] args) throws Exception {
@@ -133,9 +192,51 @@ public class RedmineCli {
    */
   public static class RedmineManagerFactory {
 
+    //Created on the first request and shared by all managers and pagers
+    private final LazyHttpClient httpClient =
+        new LazyHttpClient(this::createHttpClient);
+    private volatile Configuration configuration = new Configuration();
+
+    /**
+     * Transport settings are read once, when the first request creates the
+     * HTTP client.
+     */
+    public void configure(Configuration configuration) {
+      this.configuration = configuration;
+    }
+
     public RedmineManager createWithApiKey(String url, String apiKey) {
       return com.taskadapter.redmineapi.RedmineManagerFactory.createWithApiKey(
-          url, apiKey);
+          url, apiKey, TransportConfiguration.create(httpClient, () -> {
+          }));
+    }
+
+    public IssuePager createIssuePager(String url, String apiKey) {
+      return new IssuePager(url, apiKey, httpClient);
+    }
+
+    private HttpClient createHttpClient() {
+      return new RevalidatingHttpClient(createPooledHttpClient(),
+          new ResponseCache(Application.LOCAL_HTTP_CACHE_DIRECTORY_NAME));
+    }
+
+    private HttpClient createPooledHttpClient() {
+      return HttpClientFactory.create(
+          getSetting(Configuration.HTTP_POOL_SIZE,
+              HttpClientFactory.DEFAULT_POOL_SIZE),
+          getSetting(Configuration.HTTP_KEEP_ALIVE,
+              HttpClientFactory.DEFAULT_KEEP_ALIVE),
+          getSetting(Configuration.HTTP_CONNECT_TIMEOUT,
+              HttpClientFactory.DEFAULT_CONNECT_TIMEOUT),
+          getSetting(Configuration.HTTP_READ_TIMEOUT,
+              HttpClientFactory.DEFAULT_READ_TIMEOUT),
+          configuration.getIntSetting(Configuration.HTTP_COMPRESSION, 1) != 0);
+    }
+
+    private int getSetting(String key, int defaultValue) {
+      int value = configuration.getIntSetting(key, defaultValue);
+
+      return value > 0 ? value : defaultValue;
     }
   }
 }
@@ -0,0 +1,186 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.RedmineCli;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.StringUtil;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchCommand extends Command {
+  static final String INVALID_FILE_MESSAGE = "'%s' is not a readable file.";
+  static final String NESTED_BATCH_MESSAGE =
+      "Command '%s' cannot be used within a batch.";
+
+  private static final String NAME = "batch";
+  private static final String DESCRIPTION =
+      "Run commands from a file or standard input.";
+  private static final String LONG_DESCRIPTION =
+      "Reads one command per line, e.g. 'issue 42', and runs all of them in a "
+          + "single process.\nEmpty lines and lines starting with '#' are "
+          + "skipped. A failing command does not stop the batch.\n"
+          + "With '--parallel', consecutive read-only commands run up to "
+          + "'concurrency' at a time. Their output is printed in the order of "
+          + "the lines.";
+  private static final Argument[] ARGUMENTS = new Argument[] {
+      new TextArgument("file",
+          "File with one command per line. Standard input if omitted.",
+          true) };
+  private static final Option[] OPTIONS = new Option[] {
+      new Option("parallel", "Run read-only commands in parallel.", true) };
+
+  //Commands that neither change the server nor the local files they share
+  static final Set<String> READ_ONLY_COMMANDS = new HashSet<>(Arrays.asList(
+      "issues", "issue", "history", "projects", "project", "list", "search"));
+
+  private final RedmineCli redmineCli;
+  private final InputStream in;
+
+  public BatchCommand(Configuration configuration, PrintStream out,
+      RedmineCli redmineCli, InputStream in) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, OPTIONS,
+        configuration, out);
+
+    this.redmineCli = redmineCli;
+    this.in = in;
+  }
+
+  @Override
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    String file = invocation.getValue((TextArgument) getArguments()[0]);
+    boolean parallel = invocation.getValue(OPTIONS[0]) != null;
+
+    try (BufferedReader reader = openReader(file)) {
+      if (parallel) {
+        processParallel(reader);
+      } else {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          processLine(line.trim());
+        }
+      }
+    }
+  }
+
+  /**
+   * Keeps up to 'concurrency' read-only lines in flight, each printing to its
+   * own buffer. Any other line waits for those before it, so it sees their
+   * effects and its output follows theirs.
+   */
+  private void processParallel(BufferedReader reader) throws Exception {
+    int concurrency = configuration.getIntSetting(Configuration.CONCURRENCY,
+        IssuePager.DEFAULT_CONCURRENCY);
+    if (concurrency <= 0) {
+      concurrency = IssuePager.DEFAULT_CONCURRENCY;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    Deque<Future<String>> window = new ArrayDeque<>();
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String trimmed = line.trim();
+
+        if (isReadOnly(trimmed)) {
+          if (window.size() == concurrency) {
+            printResult(window.poll());
+          }
+          window.add(executor.submit(() -> processBuffered(trimmed)));
+        } else {
+          while (!window.isEmpty()) {
+            printResult(window.poll());
+          }
+          processLine(trimmed);
+        }
+      }
+
+      while (!window.isEmpty()) {
+        printResult(window.poll());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean isReadOnly(String line) {
+    int end = line.indexOf(' ');
+    String name = end < 0 ? line : line.substring(0, end);
+
+    return READ_ONLY_COMMANDS.contains(name);
+  }
+
+  private String processBuffered(String line)
+      throws UnsupportedEncodingException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    PrintStream lineOut = new PrintStream(buffer, true, "UTF-8");
+
+    try {
+      redmineCli.withOutput(lineOut)
+          .handleCommand(StringUtil.splitArguments(line));
+    } catch (Exception e) {
+      lineOut.println(e.getMessage());
+    }
+
+    return buffer.toString("UTF-8");
+  }
+
+  private void printResult(Future<String> result) throws Exception {
+    try {
+      print(result.get());
+    } catch (ExecutionException e) {
+      println("%s", e.getCause().getMessage());
+    }
+  }
+
+  private BufferedReader openReader(String file) throws Exception {
+    if (file == null) {
+      return new BufferedReader(new InputStreamReader(in));
+    }
+
+    try {
+      return Files.newBufferedReader(Paths.get(file));
+    } catch (NoSuchFileException e) {
+      throw new Exception(String.format(INVALID_FILE_MESSAGE, file));
+    } catch (IOException e) {
+      throw new Exception(String.format(INVALID_FILE_MESSAGE, file), e);
+    }
+  }
+
+  private void processLine(String line) {
+    if (line.isEmpty() || line.startsWith("#")) {
+      return;
+    }
+
+    try {
+      String[] args = StringUtil.splitArguments(line);
+
+      if (NAME.equals(args[0])) {
+        throw new Exception(String.format(NESTED_BATCH_MESSAGE, NAME));
+      }
+
+      redmineCli.handleCommand(args);
+    } catch (Exception e) {
+      println("%s", e.getMessage());
+    }
+  }
+}
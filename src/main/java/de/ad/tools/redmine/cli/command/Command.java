@@ -2,16 +2,15 @@ package de.ad.tools.redmine.cli.command;
 
 import de.ad.tools.redmine.cli.Configuration;
 import de.ad.tools.redmine.cli.util.PrintUtil;
+import de.ad.tools.redmine.cli.util.TableWriter;
+import de.ad.tools.redmine.cli.util.Timings;
 
 import java.io.PrintStream;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 
 public class Command {
   static final String TOO_FEW_ARGUMENTS_MESSAGE =
@@ -26,6 +25,7 @@ public class Command {
   private final String longDescription;
   private final Argument[] arguments;
   private final Option[] options;
+  private final Map<String, Option> optionsByName;
 
   protected final Configuration configuration;
   private final PrintStream out;
@@ -38,6 +38,7 @@ public class Command {
     this.longDescription = longDescription;
     this.arguments = arguments;
     this.options = new Option[0];
+    this.optionsByName = new HashMap<>();
     this.configuration = configuration;
     this.out = out;
   }
@@ -50,19 +51,82 @@ public class Command {
     this.longDescription = longDescription;
     this.arguments = arguments;
     this.options = options;
+    this.optionsByName = new HashMap<>();
+    for (Option option : options) {
+      optionsByName.put(option.getName(), option);
+    }
     this.configuration = configuration;
     this.out = out;
   }
 
-  public void process(String[] arguments) throws Exception {
-    List<String> suppliedArguments = filterArguments(arguments);
-    List<String> suppliedOptions = filterOptions(arguments);
+  /**
+   * Parses the given arguments into a new invocation and executes it. The
+   * command itself keeps no state of an invocation, so it may process
+   * several at once.
+   */
+  public final void process(String[] arguments) throws Exception {
+    execute(parse(arguments));
+  }
+
+  /**
+   * Reads the supplied values in a single pass. Options are given as
+   * '--name=value' or '--name value' and may be repeated, flags as '--name'.
+   * Values may be enclosed in double quotes.
+   */
+  Invocation parse(String[] supplied) {
+    Invocation invocation = new Invocation(arguments);
+    String[] suppliedArguments = new String[arguments.length];
+    int argumentCount = 0;
+    String invalidOption = null;
+
+    for (int i = 0; i < supplied.length; i++) {
+      String token = supplied[i];
+
+      if (!token.startsWith("--")) {
+        if (argumentCount < suppliedArguments.length) {
+          suppliedArguments[argumentCount] = token;
+        }
+        argumentCount++;
+        continue;
+      }
+
+      int separator = token.indexOf('=');
+      String name = separator < 0 ?
+          token.substring(2) : token.substring(2, separator);
+      Option option = optionsByName.get(name);
+
+      //Flags are given without a value, all other options with one
+      String value = null;
+      if (option != null && option.isFlag()) {
+        value = separator < 0 ? Option.FLAG_VALUE : null;
+      } else if (option != null && separator >= 0) {
+        value = unquote(token, separator + 1);
+      } else if (option != null && i + 1 < supplied.length
+          && !supplied[i + 1].startsWith("--")) {
+        value = unquote(supplied[++i], 0);
+      }
+
+      if (value != null) {
+        invocation.addOption(name, value);
+      } else if (invalidOption == null) {
+        invalidOption = token;
+      }
+    }
+
+    validateArguments(argumentCount);
+    if (invalidOption != null) {
+      throw new IllegalArgumentException(
+          String.format(INVALID_OPTION_MESSAGE, invalidOption));
+    }
+
+    for (int i = 0; i < argumentCount; i++) {
+      invocation.arguments[i] = arguments[i].parseValue(suppliedArguments[i]);
+    }
 
-    validateArguments(suppliedArguments);
-    validateOptions(suppliedOptions);
+    return invocation;
+  }
 
-    assignArguments(suppliedArguments);
-    assignOptions(suppliedOptions);
+  protected void execute(Invocation invocation) throws Exception {
   }
 
   public final String getName() {
@@ -86,7 +150,13 @@ public class Command {
   }
 
   protected final void println(String s, Object... args) {
-    out.println(String.format(s, args));
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      out.println(String.format(s, args));
+    }
+  }
+
+  protected final void print(String s) {
+    out.print(s);
   }
 
   protected final void println() {
@@ -94,85 +164,77 @@ public class Command {
   }
 
   protected final void printTable(String[][] table) {
-    PrintUtil.printTable(out, table);
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      PrintUtil.printTable(out, table);
+    }
   }
 
   protected final void printTable(String[] header, String[][] table) {
-    PrintUtil.printTable(out, header, table);
-  }
-
-  protected final void printHeading(String heading) {
-    PrintUtil.printHeading(out, heading);
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      PrintUtil.printTable(out, header, table);
+    }
   }
 
-  private List<String> filterArguments(String[] arguments) {
-    return Arrays.stream(arguments)
-        .filter(a -> !a.startsWith("--"))
-        .collect(toList());
+  protected final TableWriter createTableWriter(String[] header,
+      int lookAhead, int maxWidth) {
+    return TableWriter.withMaxWidth(out, header, lookAhead, maxWidth);
   }
 
-  private List<String> filterOptions(String[] arguments) {
-    return Arrays.stream(arguments)
-        .filter(o -> o.startsWith("--"))
-        .collect(toList());
+  protected final void printHeading(String heading) {
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      PrintUtil.printHeading(out, heading);
+    }
   }
 
-  private void validateArguments(List<String> suppliedArguments)
-      throws Exception {
+  private void validateArguments(int suppliedArgumentsCount) {
     int requiredArgumentsCount = getRequiredArgumentsCount();
     int argumentCount = getArguments().length;
 
-    if (requiredArgumentsCount > suppliedArguments.size()) {
+    if (requiredArgumentsCount > suppliedArgumentsCount) {
       throw new IllegalArgumentException(
           String.format(
               TOO_FEW_ARGUMENTS_MESSAGE,
               getName(),
-              requiredArgumentsCount, suppliedArguments.size()));
-    } else if (argumentCount < suppliedArguments.size()) {
+              requiredArgumentsCount, suppliedArgumentsCount));
+    } else if (argumentCount < suppliedArgumentsCount) {
       throw new IllegalArgumentException(
           String.format(
               TOO_MANY_ARGUMENTS_MESSAGE,
               getName(),
-              argumentCount, suppliedArguments.size()));
+              argumentCount, suppliedArgumentsCount));
     }
   }
 
-  private void validateOptions(List<String> suppliedOptions) throws Exception {
-    List<String> availableOptions =
-        Arrays.stream(options).map(Option::getName).collect(toList());
-
-    for (String suppliedOption : suppliedOptions)
-      if (!Option.isOption(suppliedOption) || !availableOptions.contains(
-          Option.getName(suppliedOption))) {
-        throw new IllegalArgumentException(
-            String.format(INVALID_OPTION_MESSAGE, suppliedOption));
-      }
-  }
-
-  private void assignArguments(List<String> arguments) {
-    Argument[] commandArguments = getArguments();
-    for (int i = 0; i < arguments.size(); i++) {
-      commandArguments[i].setValueOrThrow(arguments.get(i));
+  /**
+   * @return the value starting at the given index without enclosing double
+   * quotes, or {@code null} if it is empty
+   */
+  private static String unquote(String token, int start) {
+    int end = token.length();
+    if (end - start >= 2 && token.charAt(start) == '"'
+        && token.charAt(end - 1) == '"') {
+      start++;
+      end--;
     }
-  }
 
-  private void assignOptions(List<String> suppliedOptions) {
-    Map<String, Option> options =
-        Arrays.stream(getOptions()).collect(toMap(Option::getName, o -> o));
-
-    suppliedOptions.forEach(
-        o -> options.get(Option.getName(o)).setValue(Option.getValue(o)));
+    return start < end ? token.substring(start, end) : null;
   }
 
   private int getRequiredArgumentsCount() {
-    return (int) Arrays.stream(arguments).filter(a -> !a.isOptional()).count();
+    int count = 0;
+    for (Argument argument : arguments) {
+      if (!argument.isOptional()) {
+        count++;
+      }
+    }
+
+    return count;
   }
 
   public static abstract class Argument<T> {
     private final String name;
     private final String description;
     private final boolean isOptional;
-    private T value;
 
     public Argument(String name, String description, boolean isOptional) {
       this.name = name;
@@ -192,15 +254,11 @@ public class Command {
       return isOptional;
     }
 
-    public T getValue() {
-      return value;
-    }
-
-    protected void setValue(T value) {
-      this.value = value;
-    }
-
-    public abstract void setValueOrThrow(String value);
+    /**
+     * @throws IllegalArgumentException if the value is not of the type of
+     * this argument
+     */
+    public abstract T parseValue(String value);
   }
 
   public static final class TextArgument extends Argument<String> {
@@ -208,8 +266,8 @@ public class Command {
       super(name, description, isOptional);
     }
 
-    @Override public void setValueOrThrow(String value) {
-      setValue(value);
+    @Override public String parseValue(String value) {
+      return value;
     }
   }
 
@@ -221,11 +279,9 @@ public class Command {
       super(name, description, isOptional);
     }
 
-    @Override public void setValueOrThrow(String value) {
+    @Override public Integer parseValue(String value) {
       try {
-        Integer integerValue = Integer.valueOf(value);
-
-        setValue(integerValue);
+        return Integer.valueOf(value);
       } catch (NumberFormatException e) {
         throw new IllegalArgumentException(
             String.format(INVALID_TYPE_MESSAGE, value));
@@ -242,11 +298,9 @@ public class Command {
       super(name, description, isOptional);
     }
 
-    @Override public void setValueOrThrow(String value) {
+    @Override public Boolean parseValue(String value) {
       if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
-        Boolean booleanValue = Boolean.parseBoolean(value);
-
-        setValue(booleanValue);
+        return Boolean.parseBoolean(value);
       } else {
         throw new IllegalArgumentException(
             String.format(INVALID_TYPE_MESSAGE, value));
@@ -255,16 +309,28 @@ public class Command {
   }
 
   public static final class Option {
-    private static final Pattern OPTION_PATTERN = Pattern.compile(
-        "^--(?<name>[a-z]+)=(?<value>[A-Za-z0-9 ]+|\"[A-Za-z0-9 ]+\")$");
+    static final String FLAG_VALUE = "true";
 
     private final String name;
     private final String description;
-    private String value;
+    private final boolean flag;
 
     public Option(String name, String description) {
+      this(name, description, false);
+    }
+
+    /**
+     * @param flag whether the option is given without a value, e.g.
+     * '--offline'. A given flag has the value "true".
+     */
+    public Option(String name, String description, boolean flag) {
       this.name = name;
       this.description = description;
+      this.flag = flag;
+    }
+
+    public boolean isFlag() {
+      return flag;
     }
 
     public String getName() {
@@ -274,33 +340,59 @@ public class Command {
     public String getDescription() {
       return description;
     }
+  }
 
-    public String getValue() {
-      return value;
+  /**
+   * The values supplied to one call of {@link #process(String[])}.
+   */
+  public static final class Invocation {
+    private final Argument[] definitions;
+    private final Object[] arguments;
+    private final Map<String, List<String>> options = new HashMap<>();
+
+    private Invocation(Argument[] definitions) {
+      this.definitions = definitions;
+      this.arguments = new Object[definitions.length];
     }
 
-    public void setValue(String value) {
-      this.value = value;
-    }
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Argument<T> argument) {
+      for (int i = 0; i < definitions.length; i++) {
+        if (definitions[i] == argument) {
+          return (T) arguments[i];
+        }
+      }
 
-    public static boolean isOption(String optionStatement) {
-      return OPTION_PATTERN.matcher(optionStatement).matches();
+      return null;
     }
 
-    public static String getName(String optionStatement) {
-      Matcher matcher = OPTION_PATTERN.matcher(optionStatement);
+    /**
+     * @return the supplied value, "true" for a given flag or {@code null} if
+     * the option was not given. The last one wins if given repeatedly.
+     */
+    public String getValue(Option option) {
+      return getOptionValue(option.getName());
+    }
 
-      matcher.find();
+    public String getOptionValue(String name) {
+      List<String> values = options.get(name);
 
-      return matcher.group("name");
+      return values != null ? values.get(values.size() - 1) : null;
     }
 
-    public static String getValue(String optionStatement) {
-      Matcher matcher = OPTION_PATTERN.matcher(optionStatement);
+    /**
+     * @return all values of the option in the order given
+     */
+    public List<String> getValues(Option option) {
+      return getOptionValues(option.getName());
+    }
 
-      matcher.find();
+    public List<String> getOptionValues(String name) {
+      return options.getOrDefault(name, Collections.emptyList());
+    }
 
-      return matcher.group("value");
+    private void addOption(String name, String value) {
+      options.computeIfAbsent(name, n -> new ArrayList<>(1)).add(value);
     }
   }
 }
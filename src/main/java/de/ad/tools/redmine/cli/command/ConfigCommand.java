@@ -0,0 +1,116 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class ConfigCommand extends Command {
+  static final String INVALID_SETTING_MESSAGE =
+      "'%s' is not a valid setting.";
+  static final String SUCCESS_MESSAGE =
+      "Successfully set '%s' to '%s'.";
+  static final String DEFAULT_VALUE = "(default)";
+
+  private static final String NAME = "config";
+  private static final String DESCRIPTION = "Display or change settings.";
+  private static final Argument[] ARGUMENTS = new Argument[] {
+      new TextArgument("key", "The setting to display or change.", true),
+      new TextArgument("value", "The new value of the setting.", true) };
+
+  static final Argument[] SETTINGS = new Argument[] {
+      new NumberArgument(Configuration.CACHE_TTL,
+          "Seconds cached statuses, trackers, priorities and projects stay valid.",
+          true),
+      new NumberArgument(Configuration.PAGE_SIZE,
+          "Number of issues fetched per request.", true),
+      new NumberArgument(Configuration.CONCURRENCY,
+          "Number of pages fetched in parallel.", true),
+      new NumberArgument(Configuration.TABLE_WIDTH,
+          "Maximum width of streamed tables, e.g. the terminal width.",
+          true),
+      new NumberArgument(Configuration.HTTP_POOL_SIZE,
+          "Maximum number of open connections to the server.", true),
+      new NumberArgument(Configuration.HTTP_KEEP_ALIVE,
+          "Seconds an idle connection is kept open.", true),
+      new NumberArgument(Configuration.HTTP_CONNECT_TIMEOUT,
+          "Seconds to wait for a connection to the server.", true),
+      new NumberArgument(Configuration.HTTP_READ_TIMEOUT,
+          "Seconds to wait for a response from the server.", true),
+      new NumberArgument(Configuration.HTTP_COMPRESSION,
+          "1 to request compressed responses (default), 0 otherwise.",
+          true) };
+
+  private static final String LONG_DESCRIPTION = createLongDescription();
+
+  public ConfigCommand(Configuration configuration, PrintStream out) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, configuration, out);
+  }
+
+  @Override
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    String key = invocation.getValue((TextArgument) getArguments()[0]);
+    if (key == null) {
+      printSettings();
+      return;
+    }
+
+    Argument setting = findSetting(key).orElseThrow(
+        () -> new Exception(String.format(INVALID_SETTING_MESSAGE, key)));
+
+    String value = invocation.getValue((TextArgument) getArguments()[1]);
+    if (value == null) {
+      printSetting(key);
+    } else {
+      //Throws for values of the wrong type
+      setting.parseValue(value);
+
+      configuration.setSetting(key, value);
+
+      println(SUCCESS_MESSAGE, key, value);
+    }
+  }
+
+  private void printSettings() {
+    String[] header = new String[] { "Setting", "Value" };
+
+    String[][] settingsTable = new String[SETTINGS.length][2];
+    int i = 0;
+    for (Argument setting : SETTINGS) {
+      settingsTable[i++] =
+          new String[] { setting.getName(), getValue(setting.getName()) };
+    }
+
+    printTable(header, settingsTable);
+  }
+
+  private void printSetting(String key) {
+    println(getValue(key));
+  }
+
+  private String getValue(String key) {
+    String value = configuration.getSetting(key);
+
+    return value != null ? value : DEFAULT_VALUE;
+  }
+
+  private static Optional<Argument> findSetting(String key) {
+    return Arrays.stream(SETTINGS)
+        .filter(s -> s.getName().equals(key))
+        .findFirst();
+  }
+
+  private static String createLongDescription() {
+    StringBuilder description = new StringBuilder("Supported settings:");
+
+    for (Argument setting : SETTINGS) {
+      description.append(String.format("\n - %s: %s", setting.getName(),
+          setting.getDescription()));
+    }
+
+    return description.toString();
+  }
+}
@@ -32,16 +32,16 @@ public class ConnectCommand extends Command {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
     if (configuration.isConnected()) {
       println(ALREADY_CONNECTED_MESSAGE);
       return;
     }
 
-    String url = ((TextArgument)getArguments()[0]).getValue();
-    String apiKey = ((TextArgument)getArguments()[1]).getValue();
+    String url = invocation.getValue((TextArgument) getArguments()[0]);
+    String apiKey = invocation.getValue((TextArgument) getArguments()[1]);
 
     try {
       String login = redmineManagerFactory.createWithApiKey(url, apiKey)
@@ -1,7 +1,9 @@
 package de.ad.tools.redmine.cli.command;
 
 import com.taskadapter.redmineapi.IssueManager;
+import com.taskadapter.redmineapi.NotFoundException;
 import com.taskadapter.redmineapi.ProjectManager;
+import com.taskadapter.redmineapi.RedmineException;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.bean.Issue;
 import com.taskadapter.redmineapi.bean.IssueFactory;
@@ -12,18 +14,42 @@ import com.taskadapter.redmineapi.bean.Project;
 import com.taskadapter.redmineapi.bean.ProjectFactory;
 import com.taskadapter.redmineapi.bean.Tracker;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssuePager;
 import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.StringUtil;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.PrintStream;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.json.JSONException;
+import org.json.JSONObject;
 
-import static de.ad.tools.redmine.cli.util.DateUtil.getTimeDifferenceAsText;
+import static java.util.stream.Collectors.toMap;
 
 public class CreateIssueCommand extends RedmineCommand {
   static final String SUCCESS_MESSAGE = "Issue #%d succesfully created.";
+  static final String LINE_SUCCESS_MESSAGE = "Line %d: issue #%d created.";
+  static final String LINE_FAILURE_MESSAGE = "Line %d: %s";
+  static final String BULK_SUCCESS_MESSAGE =
+      "Successfully created %d issue(s).";
+  static final String BULK_FAILURE_MESSAGE =
+      "Failed to create %d of %d issue(s).";
 
   static final String INVALID_PRIORITY_MESSAGE =
       "'%s' is not a valid priority.";
@@ -33,47 +59,75 @@ public class CreateIssueCommand extends RedmineCommand {
       "'%s' is not a valid status.";
   static final String INVALID_TRACKER_MESSAGE =
       "'%s' is not a valid tracker.";
+  static final String INVALID_PROJECT_MESSAGE =
+      "'%s' is not a valid project.";
+  static final String INVALID_FILE_MESSAGE = "'%s' is not a readable file.";
+  static final String INVALID_FIELD_MESSAGE = "'%s' is not a valid field.";
+  static final String MISSING_FIELD_MESSAGE = "Field '%s' is missing.";
+  static final String INVALID_RECORD_MESSAGE = "Invalid record: %s";
 
   private static final String NAME = "create-issue";
   private static final String DESCRIPTION = "Create a new issue.";
+  private static final String LONG_DESCRIPTION =
+      "With --from, one issue is created per record of a CSV file with a "
+          + "header line, or of a file with one JSON object per line.\n"
+          + "Fields are named like the options, plus 'project' and 'subject'. "
+          + "The given project key is used for records without a project, "
+          + "the other options for records without the field.\n"
+          + "Up to 'concurrency' issues are created in parallel.";
   private static final Argument[] ARGUMENTS =
       new Argument[] { new TextArgument("projectKey",
           "The key of the project to add this issue to.",
-          false), new TextArgument("subject", "The subject of the issue.",
-          false) };
+          true), new TextArgument("subject", "The subject of the issue.",
+          true) };
   private static final Option[] OPTIONS = new Option[] {
       new Option("description", "The description of the issue to create."),
       new Option("priority", "The priority of the issue to create."),
       new Option("assignee", "The assignee of the issue to create."),
       new Option("status", "The status of the issue to create."),
-      new Option("tracker", "The tracker of the issue to create.") };
+      new Option("tracker", "The tracker of the issue to create."),
+      new Option("from", "A .csv or .ndjson file of issues to create.") };
 
-  private static final Map<String, Handler> handlers = new HashMap<>();
+  private static final String FROM_OPTION = "from";
+  private static final String PROJECT_FIELD = "project";
+  private static final String SUBJECT_FIELD = "subject";
+
+  private static final Map<String, Handler> handlers = Stream.of(
+      new DescriptionHandler(), new PriorityHandler(), new AssigneeHandler(),
+      new StatusHandler(), new TrackerHandler())
+      .collect(toMap(Handler::getName, h -> h));
 
   public CreateIssueCommand(Configuration configuration, PrintStream out,
       RedmineManager redmineManager) {
-    super(NAME, DESCRIPTION, "", ARGUMENTS, OPTIONS, configuration, out,
-        redmineManager);
-
-    Handler description = new DescriptionHandler();
-    Handler priority = new PriorityHandler();
-    Handler assignee = new AssigneeHandler();
-    Handler status = new StatusHandler();
-    Handler tracker = new TrackerHandler();
-
-    handlers.put(description.getName(), description);
-    handlers.put(priority.getName(), priority);
-    handlers.put(assignee.getName(), assignee);
-    handlers.put(status.getName(), status);
-    handlers.put(tracker.getName(), tracker);
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, OPTIONS,
+        configuration, out, redmineManager);
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
-    String projectKey = ((TextArgument)getArguments()[0]).getValue();
-    String subject = ((TextArgument)getArguments()[1]).getValue();
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+    String projectKey = invocation.getValue((TextArgument) getArguments()[0]);
+    String subject = invocation.getValue((TextArgument) getArguments()[1]);
+    String from = invocation.getOptionValue(FROM_OPTION);
+
+    if (from != null) {
+      if (subject != null) {
+        throw new IllegalArgumentException(String.format(
+            TOO_MANY_ARGUMENTS_MESSAGE, getName(), 1, 2));
+      }
+
+      processFile(from, projectKey, getFieldDefaults(invocation));
+    } else if (subject == null) {
+      throw new IllegalArgumentException(String.format(
+          TOO_FEW_ARGUMENTS_MESSAGE, getName(), 2,
+          projectKey == null ? 0 : 1));
+    } else {
+      processIssue(invocation, projectKey, subject);
+    }
+  }
 
+  private void processIssue(Invocation invocation, String projectKey,
+      String subject) throws Exception {
     ProjectManager projectManager = redmineManager.getProjectManager();
     IssueManager issueManager = redmineManager.getIssueManager();
 
@@ -82,24 +136,403 @@ public class CreateIssueCommand extends RedmineCommand {
     Issue issueToCreate =
         IssueFactory.create(project.getId(), subject);
 
+    for (Map.Entry<String, String> field :
+        getFieldDefaults(invocation).entrySet()) {
+      handlers.get(field.getKey())
+          .resolve(redmineManager, field.getValue()).apply(issueToCreate);
+    }
+
+    Issue newIssue = issueManager.createIssue(issueToCreate);
+
+    println(SUCCESS_MESSAGE, newIssue.getId());
+  }
+
+  private Map<String, String> getFieldDefaults(Invocation invocation) {
+    Map<String, String> fields = new LinkedHashMap<>();
     for (Option option : getOptions()) {
-      if (option.getValue() == null) {
-        continue;
+      String value = invocation.getValue(option);
+      if (value != null && !FROM_OPTION.equals(option.getName())) {
+        fields.put(option.getName(), value);
       }
+    }
+
+    return fields;
+  }
 
-      handlers.get(option.getName())
-          .handle(redmineManager, issueToCreate, option.getValue());
+  /**
+   * Reads one record at a time and keeps up to 'concurrency' creates in
+   * flight. Names are resolved once per distinct value, results are printed
+   * in the order of the file.
+   */
+  private void processFile(String file, String defaultProjectKey,
+      Map<String, String> fieldDefaults) throws Exception {
+    int concurrency = configuration.getIntSetting(Configuration.CONCURRENCY,
+        IssuePager.DEFAULT_CONCURRENCY);
+    if (concurrency <= 0) {
+      concurrency = IssuePager.DEFAULT_CONCURRENCY;
     }
 
-    Issue newIssue = issueManager.createIssue(issueToCreate);
+    IssueManager issueManager = redmineManager.getIssueManager();
+    RecordIndex index = new RecordIndex(defaultProjectKey, fieldDefaults);
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+    int total = 0;
+    int failed = 0;
+    try (RecordReader reader = openRecordReader(file)) {
+      Deque<PendingIssue> window = new ArrayDeque<>();
+      boolean more = true;
+
+      while (more || !window.isEmpty()) {
+        while (more && window.size() < concurrency) {
+          PendingIssue pending;
+          try {
+            Map<String, String> record = reader.next();
+            if (record == null) {
+              more = false;
+              break;
+            }
+
+            Issue issueToCreate = index.createIssue(record);
+            pending = new PendingIssue(reader.getLineNumber(),
+                executor.submit(() -> issueManager.createIssue(issueToCreate)));
+          } catch (IOException e) {
+            throw e;
+          } catch (Exception e) {
+            //A broken record only fails its own line
+            pending = new PendingIssue(reader.getLineNumber(), e);
+          }
+
+          window.add(pending);
+          total++;
+        }
+
+        if (!window.isEmpty() && !window.poll().printResult()) {
+          failed++;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
 
-    println(SUCCESS_MESSAGE, newIssue.getId());
+    if (failed > 0) {
+      throw new Exception(String.format(BULK_FAILURE_MESSAGE, failed, total));
+    }
+
+    println(BULK_SUCCESS_MESSAGE, total);
+  }
+
+  private RecordReader openRecordReader(String file) throws Exception {
+    try {
+      BufferedReader reader =
+          Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8);
+
+      return file.toLowerCase().endsWith(".csv") ?
+          new CsvRecordReader(reader) : new JsonRecordReader(reader);
+    } catch (NoSuchFileException e) {
+      throw new Exception(String.format(INVALID_FILE_MESSAGE, file));
+    } catch (IOException e) {
+      throw new Exception(String.format(INVALID_FILE_MESSAGE, file), e);
+    }
+  }
+
+  private interface Update {
+    void apply(Issue issue) throws Exception;
+  }
+
+  /**
+   * Resolves projects and field values of the records. Each distinct value
+   * is looked up only once, including values which turned out invalid.
+   * Lookups failing for other reasons, e.g. a timeout, are not remembered.
+   */
+  private class RecordIndex {
+    private final String defaultProjectKey;
+    private final Map<String, String> fieldDefaults;
+    private final Map<String, Project> projects = new HashMap<>();
+    private final Map<String, Update> updates = new HashMap<>();
+
+    RecordIndex(String defaultProjectKey, Map<String, String> fieldDefaults) {
+      this.defaultProjectKey = defaultProjectKey;
+      this.fieldDefaults = fieldDefaults;
+    }
+
+    Issue createIssue(Map<String, String> record) throws Exception {
+      String subject = record.get(SUBJECT_FIELD);
+      if (subject == null) {
+        throw new Exception(String.format(MISSING_FIELD_MESSAGE,
+            SUBJECT_FIELD));
+      }
+
+      Issue issue = IssueFactory.create(getProject(record).getId(), subject);
+
+      Map<String, String> fields = new LinkedHashMap<>(fieldDefaults);
+      fields.putAll(record);
+      for (Map.Entry<String, String> field : fields.entrySet()) {
+        String name = field.getKey();
+        if (PROJECT_FIELD.equals(name) || SUBJECT_FIELD.equals(name)) {
+          continue;
+        }
+
+        getUpdate(name, field.getValue()).apply(issue);
+      }
+
+      return issue;
+    }
+
+    private Project getProject(Map<String, String> record) throws Exception {
+      String key = record.getOrDefault(PROJECT_FIELD, defaultProjectKey);
+      if (key == null) {
+        throw new Exception(String.format(MISSING_FIELD_MESSAGE,
+            PROJECT_FIELD));
+      }
+
+      if (!projects.containsKey(key)) {
+        try {
+          projects.put(key,
+              redmineManager.getProjectManager().getProjectByKey(key));
+        } catch (NotFoundException e) {
+          projects.put(key, null);
+        }
+      }
+
+      Project project = projects.get(key);
+      if (project == null) {
+        throw new Exception(String.format(INVALID_PROJECT_MESSAGE, key));
+      }
+
+      return project;
+    }
+
+    private Update getUpdate(String name, String value) throws Exception {
+      String key = name + "=" + value;
+
+      Update update = updates.get(key);
+      if (update == null) {
+        Handler handler = handlers.get(name);
+        if (handler == null) {
+          throw new Exception(String.format(INVALID_FIELD_MESSAGE, name));
+        }
+
+        try {
+          update = handler.resolve(redmineManager, value);
+        } catch (RedmineException e) {
+          if (!(e instanceof NotFoundException)) {
+            //E.g. a timeout, only fails this record and is tried again
+            throw e;
+          }
+          update = issue -> {
+            throw e;
+          };
+        } catch (Exception e) {
+          //An invalid value
+          update = issue -> {
+            throw e;
+          };
+        }
+        updates.put(key, update);
+      }
+
+      return update;
+    }
+  }
+
+  private class PendingIssue {
+    private final int lineNumber;
+    private final Future<Issue> result;
+    private final Exception error;
+
+    PendingIssue(int lineNumber, Future<Issue> result) {
+      this.lineNumber = lineNumber;
+      this.result = result;
+      this.error = null;
+    }
+
+    PendingIssue(int lineNumber, Exception error) {
+      this.lineNumber = lineNumber;
+      this.result = null;
+      this.error = error;
+    }
+
+    boolean printResult() throws InterruptedException {
+      Throwable failure = error;
+
+      if (failure == null) {
+        try {
+          println(LINE_SUCCESS_MESSAGE, lineNumber, result.get().getId());
+          return true;
+        } catch (ExecutionException e) {
+          failure = e.getCause();
+        }
+      }
+
+      println(LINE_FAILURE_MESSAGE, lineNumber, failure.getMessage());
+      return false;
+    }
+  }
+
+  private static abstract class RecordReader implements Closeable {
+    private final BufferedReader reader;
+    private int lineNumber;
+    private int recordLineNumber;
+
+    RecordReader(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    /**
+     * @return the line the last record starts on
+     */
+    int getLineNumber() {
+      return recordLineNumber;
+    }
+
+    /**
+     * @return the next record or {@code null} at the end of the file
+     */
+    abstract Map<String, String> next() throws IOException;
+
+    /**
+     * @return the next line which is not blank or {@code null} at the end of
+     * the file
+     */
+    protected String readLine() throws IOException {
+      String line;
+      do {
+        line = reader.readLine();
+        if (line == null) {
+          return null;
+        }
+        lineNumber++;
+      } while (line.trim().isEmpty());
+      recordLineNumber = lineNumber;
+
+      return line;
+    }
+
+    /**
+     * @return the next line of a record spanning several lines, even if it
+     * is blank, or {@code null} at the end of the file
+     */
+    protected String readNextLine() throws IOException {
+      String line = reader.readLine();
+      if (line != null) {
+        lineNumber++;
+      }
+
+      return line;
+    }
+
+    @Override public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  private static class JsonRecordReader extends RecordReader {
+
+    JsonRecordReader(BufferedReader reader) {
+      super(reader);
+    }
+
+    @Override Map<String, String> next() throws IOException {
+      String line = readLine();
+      if (line == null) {
+        return null;
+      }
+
+      Map<String, String> record = new LinkedHashMap<>();
+      try {
+        JSONObject json = new JSONObject(line);
+        Iterator<?> keys = json.keys();
+        while (keys.hasNext()) {
+          String key = (String) keys.next();
+          if (!json.isNull(key)) {
+            record.put(key, json.get(key).toString());
+          }
+        }
+      } catch (JSONException e) {
+        throw new IllegalArgumentException(
+            String.format(INVALID_RECORD_MESSAGE, e.getMessage()), e);
+      }
+
+      return record;
+    }
+  }
+
+  private static class CsvRecordReader extends RecordReader {
+    private String[] header;
+
+    CsvRecordReader(BufferedReader reader) {
+      super(reader);
+    }
+
+    @Override Map<String, String> next() throws IOException {
+      if (header == null) {
+        String line = readLine();
+        if (line == null) {
+          return null;
+        }
+        header = StringUtil.splitCsvLine(line);
+      }
+
+      String line = readRecord();
+      if (line == null) {
+        return null;
+      }
+
+      String[] fields = StringUtil.splitCsvLine(line);
+      if (fields.length != header.length) {
+        throw new IllegalArgumentException(String.format(
+            INVALID_RECORD_MESSAGE, "expected " + header.length
+                + " fields, found " + fields.length));
+      }
+
+      //Empty fields keep the default of the server
+      Map<String, String> record = new LinkedHashMap<>();
+      for (int i = 0; i < fields.length; i++) {
+        if (!fields[i].isEmpty()) {
+          record.put(header[i].trim(), fields[i]);
+        }
+      }
+
+      return record;
+    }
+
+    /**
+     * Quoted fields may contain line breaks, e.g. a description exported
+     * from a spreadsheet, so lines are joined while a quote is open.
+     */
+    private String readRecord() throws IOException {
+      String line = readLine();
+      if (line == null) {
+        return null;
+      }
+
+      StringBuilder record = new StringBuilder(line);
+      int quotes = countQuotes(line);
+      while (quotes % 2 != 0 && (line = readNextLine()) != null) {
+        record.append('\n').append(line);
+        quotes += countQuotes(line);
+      }
+
+      return record.toString();
+    }
+
+    //Escaped quotes are doubled, so an odd count means an open quote
+    private static int countQuotes(String line) {
+      int quotes = 0;
+      for (int i = 0; i < line.length(); i++) {
+        if (line.charAt(i) == '"') {
+          quotes++;
+        }
+      }
+
+      return quotes;
+    }
   }
 
   private static abstract class Handler {
     public abstract String getName();
 
-    public abstract void handle(RedmineManager redmineManager, Issue issue,
+    public abstract Update resolve(RedmineManager redmineManager,
         String value) throws Exception;
   }
 
@@ -110,9 +543,9 @@ public class CreateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      issue.setDescription(value);
+      return issue -> issue.setDescription(value);
     }
   }
 
@@ -123,14 +556,14 @@ public class CreateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<IssuePriority> newPriority =  RedmineUtil.resolvePriorityByName(
-          redmineManager, value);
+      IssuePriority newPriority =
+          RedmineUtil.resolvePriorityByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_PRIORITY_MESSAGE, value)));
 
-      newPriority.ifPresent(p -> issue.setPriorityId(p.getId()));
-      newPriority.orElseThrow(
-          () -> new Exception(String.format(INVALID_PRIORITY_MESSAGE, value)));
+      return issue -> issue.setPriorityId(newPriority.getId());
     }
   }
 
@@ -141,15 +574,24 @@ public class CreateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<Membership> newAssignee = RedmineUtil.resolveMembershipByName(
-          redmineManager,
-          issue.getProject().getId(), value);
-
-      newAssignee.ifPresent(m -> issue.setAssignee(m.getUser()));
-      newAssignee.orElseThrow(
-          () -> new Exception(String.format(INVALID_ASSIGNEE_MESSAGE, value)));
+      //Members differ by project, so they are looked up once per project
+      Map<Integer, Optional<Membership>> assignees = new HashMap<>();
+
+      return issue -> {
+        Integer projectId = issue.getProject().getId();
+
+        Optional<Membership> newAssignee = assignees.get(projectId);
+        if (newAssignee == null) {
+          newAssignee = RedmineUtil.resolveMembershipByName(redmineManager,
+              projectId, value);
+          assignees.put(projectId, newAssignee);
+        }
+
+        issue.setAssignee(newAssignee.orElseThrow(() -> new Exception(
+            String.format(INVALID_ASSIGNEE_MESSAGE, value))).getUser());
+      };
     }
   }
 
@@ -160,14 +602,14 @@ public class CreateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<IssueStatus> newStatus =
-          RedmineUtil.resolveStatusByName(redmineManager, value);
+      IssueStatus newStatus =
+          RedmineUtil.resolveStatusByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_STATUS_MESSAGE, value)));
 
-      newStatus.ifPresent(s -> issue.setStatusId(s.getId()));
-      newStatus.orElseThrow(
-          () -> new Exception(String.format(INVALID_STATUS_MESSAGE, value)));
+      return issue -> issue.setStatusId(newStatus.getId());
     }
   }
 
@@ -178,14 +620,14 @@ public class CreateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<Tracker> newTracker = RedmineUtil.resolveTrackerByName(
-          redmineManager, value);
+      Tracker newTracker =
+          RedmineUtil.resolveTrackerByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_TRACKER_MESSAGE, value)));
 
-      newTracker.ifPresent(issue::setTracker);
-      newTracker.orElseThrow(() ->
-          new Exception(String.format(INVALID_TRACKER_MESSAGE, value)));
+      return issue -> issue.setTracker(newTracker);
     }
   }
 }
@@ -25,11 +25,12 @@ public class HelpCommand extends Command {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
-    if (arguments.length == 1) {
-      printCommandHelp(((TextArgument)getArguments()[0]).getValue());
+    String command = invocation.getValue((TextArgument) getArguments()[0]);
+    if (command != null) {
+      printCommandHelp(command);
     } else {
       printGeneralHelp();
     }
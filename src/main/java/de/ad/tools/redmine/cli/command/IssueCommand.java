@@ -4,8 +4,10 @@ import com.taskadapter.redmineapi.IssueManager;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.bean.Issue;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
 
 import java.io.PrintStream;
+import java.util.Optional;
 
 import static de.ad.tools.redmine.cli.util.DateUtil.getTimeDifferenceAsText;
 
@@ -17,20 +19,36 @@ public class IssueCommand extends RedmineCommand {
       new Argument[] {
           new NumberArgument("id", "The ID of the issue to display.", false) };
 
+  private static final Option[] OPTIONS =
+      MirrorSupport.withMirrorOptions();
+
+  private final IssueMirror.Store mirrorStore;
+
   public IssueCommand(Configuration configuration, PrintStream out,
-      RedmineManager redmineManager) {
-    super(NAME, DESCRIPTION, "", ARGUMENTS, configuration, out,
+      RedmineManager redmineManager, IssueMirror.Store mirrorStore) {
+    super(NAME, DESCRIPTION, "", ARGUMENTS, OPTIONS, configuration, out,
         redmineManager);
+
+    this.mirrorStore = mirrorStore;
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
-    IssueManager issueManager = redmineManager.getIssueManager();
+    Integer id = invocation.getValue((NumberArgument) getArguments()[0]);
 
-    Integer id = ((NumberArgument)getArguments()[0]).getValue();
-    Issue issue = issueManager.getIssueById(id);
+    MirrorSupport mirrorSupport =
+        new MirrorSupport(mirrorStore, configuration, invocation);
+    Optional<Issue> mirroredIssue = mirrorSupport.findIssue(id);
+
+    Issue issue;
+    if (mirroredIssue.isPresent()) {
+      issue = mirroredIssue.get();
+    } else {
+      IssueManager issueManager = redmineManager.getIssueManager();
+      issue = issueManager.getIssueById(id);
+    }
 
     printHeader(issue);
     printDetails(issue);
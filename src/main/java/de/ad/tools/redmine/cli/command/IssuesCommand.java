@@ -1,24 +1,28 @@
 package de.ad.tools.redmine.cli.command;
 
-import com.taskadapter.redmineapi.IssueManager;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.bean.Issue;
-import com.taskadapter.redmineapi.bean.IssuePriority;
-import com.taskadapter.redmineapi.bean.IssueStatus;
-import com.taskadapter.redmineapi.bean.Membership;
-import com.taskadapter.redmineapi.bean.Project;
-import com.taskadapter.redmineapi.bean.Tracker;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.IssuePager;
 import de.ad.tools.redmine.cli.util.RedmineUtil;
 import de.ad.tools.redmine.cli.util.StringUtil;
+import de.ad.tools.redmine.cli.util.TableWriter;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static de.ad.tools.redmine.cli.util.DateUtil.getTimeDifferenceAsText;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 public class IssuesCommand extends RedmineCommand {
 
@@ -32,94 +36,257 @@ public class IssuesCommand extends RedmineCommand {
       "'%s' is not a valid status.";
   static final String INVALID_TRACKER_MESSAGE =
       "'%s' is not a valid tracker.";
+  static final String MULTIPLE_PROJECTS_MESSAGE =
+      "Only one project can be given. Found %d.";
 
   private static final String NAME = "issues";
   private static final String DESCRIPTION = "Display issues.";
+  private static final String LONG_DESCRIPTION =
+      "Priority, assignee, status and tracker accept several values, "
+          + "separated by commas or by repeating the option, e.g. "
+          + "--status=New,\"In Progress\".\nIssues matching any of them are "
+          + "displayed.";
   private static final Argument[] ARGUMENTS = new Argument[0];
-  private static final Option[] OPTIONS = new Option[] {
+  private static final Option[] OPTIONS = MirrorSupport.withMirrorOptions(
       new Option("project", "Only display issues for the specified project."),
       new Option("priority", "Only display issues with specified priority."),
       new Option("assignee", "Only display issues for the specified assignee."),
       new Option("status", "Only display issues with the specified status."),
       new Option("tracker", "Only display issues for the specified tracker.")
-  };
+  );
 
-  private static final Map<String, Handler> handlers = new HashMap<>();
+  static final String[] HEADER = new String[] { "ID", "Tracker", "Status",
+      "Priority", "Assignee", "Updated", "Subject" };
+
+  private static final Map<String, Handler> handlers = Stream.of(
+      new ProjectHandler(), new PriorityHandler(), new AssigneeHandler(),
+      new StatusHandler(), new TrackerHandler())
+      .collect(toMap(Handler::getName, h -> h));
+
+  private final IssuePager issuePager;
+  private final IssueMirror.Store mirrorStore;
 
   public IssuesCommand(Configuration configuration, PrintStream out,
-      RedmineManager redmineManager) {
-    super(NAME, DESCRIPTION, "", ARGUMENTS, OPTIONS, configuration, out,
-        redmineManager);
-
-    Handler project = new ProjectHandler();
-    Handler priority = new PriorityHandler();
-    Handler assignee = new AssigneeHandler();
-    Handler status = new StatusHandler();
-    Handler tracker = new TrackerHandler();
-
-    handlers.put(project.getName(), project);
-    handlers.put(priority.getName(), priority);
-    handlers.put(assignee.getName(), assignee);
-    handlers.put(status.getName(), status);
-    handlers.put(tracker.getName(), tracker);
+      RedmineManager redmineManager, IssuePager issuePager,
+      IssueMirror.Store mirrorStore) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, OPTIONS,
+        configuration, out, redmineManager);
+
+    this.issuePager = issuePager;
+    this.mirrorStore = mirrorStore;
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    List<String> projects = getValues(invocation, "project");
+    if (projects.size() > 1) {
+      throw new Exception(
+          String.format(MULTIPLE_PROJECTS_MESSAGE, projects.size()));
+    }
+
+    MirrorSupport mirrorSupport =
+        new MirrorSupport(mirrorStore, configuration, invocation);
+    if (mirrorSupport.canAnswer(projects.isEmpty() ? null : projects.get(0))) {
+      printMirroredIssues(invocation, mirrorSupport.getMirror());
+      return;
+    }
+
+    Map<String, String> parameters = buildParameterMapFromOptions(invocation);
+    int pageSize = configuration.getIntSetting(Configuration.PAGE_SIZE,
+        IssuePager.DEFAULT_PAGE_SIZE);
+    int concurrency = configuration.getIntSetting(Configuration.CONCURRENCY,
+        IssuePager.DEFAULT_CONCURRENCY);
+    int tableWidth =
+        configuration.getIntSetting(Configuration.TABLE_WIDTH, 0);
+
+    //Column sizes are taken from the first page, later pages stream through
+    IssueTablePrinter printer = new IssueTablePrinter(
+        pageSize > 0 ? pageSize : IssuePager.DEFAULT_PAGE_SIZE, tableWidth);
+    try {
+      issuePager.forEachPage(parameters, pageSize, concurrency, printer);
+    } catch (Exception e) {
+      //Keep the rows fetched so far visible above the error
+      printer.flushIfNotEmpty();
+      throw e;
+    }
+    printer.flush();
+  }
+
+  private void printMirroredIssues(Invocation invocation, IssueMirror mirror)
+      throws Exception {
+    Predicate<Issue> filter = buildFilterFromOptions(invocation, mirror);
+
+    List<Issue> issues = mirror.getIssues().stream()
+        .filter(filter)
+        .collect(toList());
+
+    IssueTablePrinter printer = new IssueTablePrinter(issues.size(),
+        configuration.getIntSetting(Configuration.TABLE_WIDTH, 0));
+    printer.handle(new IssuePager.Page(issues, 0, issues.size()));
+    printer.flush();
+  }
+
+  /**
+   * Filters mirrored issues by name like the server filters by ID.
+   */
+  private Predicate<Issue> buildFilterFromOptions(Invocation invocation,
+      IssueMirror mirror) throws Exception {
+    Predicate<Issue> filter = issue -> true;
+
+    List<String> projects = getValues(invocation, "project");
+    if (!projects.isEmpty()) {
+      filter = filter.and(issue -> issue.getProject() != null
+          && projects.contains(issue.getProject().getName()));
+    }
+
+    List<String> priorities = getValues(invocation, "priority");
+    if (!priorities.isEmpty()) {
+      filter = filter.and(issue ->
+          priorities.contains(issue.getPriorityText()));
+    }
 
-    Map<String, String> parameters = buildParameterMapFromOptions();
+    List<String> assignees = getValues(invocation, "assignee");
+    if (!assignees.isEmpty()) {
+      Set<Integer> assigneeIds = new HashSet<>();
+      for (String assignee : assignees) {
+        if ("me".equalsIgnoreCase(assignee)) {
+          assigneeIds.add(mirror.getCurrentUserId());
+        } else if (assignee.matches("[0-9]+")) {
+          assigneeIds.add(Integer.valueOf(assignee));
+        } else {
+          throw new Exception(
+              String.format(INVALID_ASSIGNEE_MESSAGE, assignee));
+        }
+      }
 
-    IssueManager issueManager = redmineManager.getIssueManager();
-    List<Issue> issues = issueManager.getIssues(parameters);
+      filter = filter.and(issue -> issue.getAssignee() != null
+          && assigneeIds.contains(issue.getAssignee().getId()));
+    }
 
-    final String[][] issueTable = new String[issues.size()][6];
-    String[] header =
-        new String[] { "ID", "Tracker", "Status", "Priority",
-            "Assignee", "Updated",
-            "Subject" };
+    List<String> statuses = getValues(invocation, "status");
+    if (!statuses.isEmpty()) {
+      filter = filter.and(issue -> statuses.contains(issue.getStatusName()));
+    } else {
+      //The server only lists open issues unless a status is given
+      filter = filter.and(issue -> !mirror.isClosed(issue));
+    }
 
-    int i = 0;
-    for (Issue issue : issues) {
-      issueTable[i++] = buildRow(issue);
+    List<String> trackers = getValues(invocation, "tracker");
+    if (!trackers.isEmpty()) {
+      filter = filter.and(issue -> issue.getTracker() != null
+          && trackers.contains(issue.getTracker().getName()));
     }
 
-    printTable(header, issueTable);
+    return filter;
   }
 
-  private Map<String, String> buildParameterMapFromOptions() throws Exception {
+  private Map<String, String> buildParameterMapFromOptions(
+      Invocation invocation) throws Exception {
     //Parameter spec: http://www.redmine.org/projects/redmine/wiki/Rest_Issues
     Map<String, String> parameters = new HashMap<>();
 
     for (Option option : getOptions()) {
-      if (option.getValue() == null) {
+      if (MirrorSupport.isMirrorOption(option)) {
         continue;
       }
 
-      handlers.get(option.getName())
-          .handle(redmineManager, parameters, option.getValue());
+      List<String> values = getValues(invocation, option.getName());
+      if (!values.isEmpty()) {
+        handlers.get(option.getName())
+            .handle(redmineManager, parameters, values);
+      }
     }
     return parameters;
   }
 
-  private String[] buildRow(Issue issue) {
-    return new String[] { "#" + issue.getId(),
-        issue.getTracker().getName(),
-        issue.getStatusName(),
-        issue.getPriorityText(),
-        issue.getAssignee() != null ?
-            issue.getAssignee().getFullName() :
-            "(not assigned)",
-        getTimeDifferenceAsText(issue.getUpdatedOn()) +
+  /**
+   * @return the distinct values of an option given repeatedly or separated
+   * by commas
+   */
+  private static List<String> getValues(Invocation invocation, String name) {
+    List<String> values = new ArrayList<>();
+
+    for (String value : invocation.getOptionValues(name)) {
+      for (String part : value.split(",")) {
+        String trimmed = part.trim();
+        if (!trimmed.isEmpty() && !values.contains(trimmed)) {
+          values.add(trimmed);
+        }
+      }
+    }
+
+    return values;
+  }
+
+  private static String[] buildRow(Issue issue) {
+    return buildRow(issue.getId(), issue.getTracker().getName(),
+        issue.getStatusName(), issue.getPriorityText(),
+        issue.getAssignee() != null ? issue.getAssignee().getFullName() : null,
+        issue.getUpdatedOn(), issue.getSubject());
+  }
+
+  static String[] buildRow(int id, String tracker, String status,
+      String priority, String assignee, Date updatedOn, String subject) {
+    return new String[] { "#" + id,
+        tracker,
+        status,
+        priority,
+        assignee != null ? assignee : "(not assigned)",
+        getTimeDifferenceAsText(updatedOn) +
             " ago",
-        StringUtil.ellipsize(issue.getSubject(), 24) };
+        StringUtil.ellipsize(subject, 24) };
+  }
+
+  private class IssueTablePrinter implements IssuePager.PageHandler {
+    private final TableWriter table;
+    private boolean empty = true;
+
+    IssueTablePrinter(int lookAhead, int maxWidth) {
+      table = createTableWriter(HEADER, lookAhead, maxWidth);
+    }
+
+    @Override public void handle(IssuePager.Page page) {
+      for (Issue issue : page.getIssues()) {
+        table.writeRow(buildRow(issue));
+        empty = false;
+      }
+    }
+
+    void flush() {
+      table.flush();
+    }
+
+    void flushIfNotEmpty() {
+      if (!empty) {
+        table.flush();
+      }
+    }
   }
 
+  /**
+   * Resolves the values of an option to IDs. Several IDs are sent as one
+   * filter matching any of them, e.g. 'status_id=1|2'.
+   */
   private static abstract class Handler {
     public abstract String getName();
 
-    public abstract void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value) throws Exception;
+    public abstract String getParameterName();
+
+    public abstract String resolveId(RedmineManager redmineManager,
+        String value) throws Exception;
+
+    public void handle(RedmineManager redmineManager,
+        Map<String, String> parameters, List<String> values)
+        throws Exception {
+      List<String> ids = new ArrayList<>();
+      for (String value : values) {
+        ids.add(resolveId(redmineManager, value));
+      }
+
+      parameters.put(getParameterName(), String.join("|", ids));
+    }
   }
 
   private static class ProjectHandler extends Handler {
@@ -128,15 +295,16 @@ public class IssuesCommand extends RedmineCommand {
       return "project";
     }
 
-    @Override public void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value) throws Exception {
-      Optional<Project> project = RedmineUtil.resolveProjectByName(
-          redmineManager, value);
+    @Override public String getParameterName() {
+      return "project_id";
+    }
 
-      project.ifPresent(p -> parameters.put("project_id", String.valueOf(
-          p.getId())));
-      project.orElseThrow(
-          () -> new Exception(String.format(INVALID_PROJECT_MESSAGE, value)));
+    @Override public String resolveId(RedmineManager redmineManager,
+        String value) throws Exception {
+      return RedmineUtil.resolveProjectByName(redmineManager, value)
+          .map(p -> String.valueOf(p.getId()))
+          .orElseThrow(() -> new Exception(
+              String.format(INVALID_PROJECT_MESSAGE, value)));
     }
   }
 
@@ -146,15 +314,16 @@ public class IssuesCommand extends RedmineCommand {
       return "priority";
     }
 
-    @Override public void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value) throws Exception {
-      Optional<IssuePriority> priority =
-          RedmineUtil.resolvePriorityByName(redmineManager, value);
+    @Override public String getParameterName() {
+      return "priority_id";
+    }
 
-      priority.ifPresent(p -> parameters.put("priority_id", String.valueOf(
-          p.getId())));
-      priority.orElseThrow(
-          () -> new Exception(String.format(INVALID_PRIORITY_MESSAGE, value)));
+    @Override public String resolveId(RedmineManager redmineManager,
+        String value) throws Exception {
+      return RedmineUtil.resolvePriorityByName(redmineManager, value)
+          .map(p -> String.valueOf(p.getId()))
+          .orElseThrow(() -> new Exception(
+              String.format(INVALID_PRIORITY_MESSAGE, value)));
     }
   }
 
@@ -164,12 +333,14 @@ public class IssuesCommand extends RedmineCommand {
       return "assignee";
     }
 
-    @Override
-    public void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value)
-        throws Exception {
+    @Override public String getParameterName() {
+      return "assigned_to_id";
+    }
+
+    @Override public String resolveId(RedmineManager redmineManager,
+        String value) throws Exception {
       if ("me".equalsIgnoreCase(value) || value.matches("[0-9]+")) {
-        parameters.put("assigned_to_id", value);
+        return value;
       } else {
         throw new Exception(String.format(INVALID_ASSIGNEE_MESSAGE, value));
       }
@@ -182,17 +353,16 @@ public class IssuesCommand extends RedmineCommand {
       return "status";
     }
 
-    @Override
-    public void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value)
-        throws Exception {
-      Optional<IssueStatus> status =
-          RedmineUtil.resolveStatusByName(redmineManager, value);
+    @Override public String getParameterName() {
+      return "status_id";
+    }
 
-      status.ifPresent(s -> parameters.put("status_id", String.valueOf(
-          s.getId())));
-      status.orElseThrow(
-          () -> new Exception(String.format(INVALID_STATUS_MESSAGE, value)));
+    @Override public String resolveId(RedmineManager redmineManager,
+        String value) throws Exception {
+      return RedmineUtil.resolveStatusByName(redmineManager, value)
+          .map(s -> String.valueOf(s.getId()))
+          .orElseThrow(() -> new Exception(
+              String.format(INVALID_STATUS_MESSAGE, value)));
     }
   }
 
@@ -202,17 +372,16 @@ public class IssuesCommand extends RedmineCommand {
       return "tracker";
     }
 
-    @Override
-    public void handle(RedmineManager redmineManager,
-        Map<String, String> parameters, String value)
-        throws Exception {
-      Optional<Tracker> tracker =
-          RedmineUtil.resolveTrackerByName(redmineManager, value);
+    @Override public String getParameterName() {
+      return "tracker_id";
+    }
 
-      tracker.ifPresent(t -> parameters.put("tracker_id", String.valueOf(
-          t.getId())));
-      tracker.orElseThrow(() ->
-          new Exception(String.format(INVALID_TRACKER_MESSAGE, value)));
+    @Override public String resolveId(RedmineManager redmineManager,
+        String value) throws Exception {
+      return RedmineUtil.resolveTrackerByName(redmineManager, value)
+          .map(t -> String.valueOf(t.getId()))
+          .orElseThrow(() -> new Exception(
+              String.format(INVALID_TRACKER_MESSAGE, value)));
     }
   }
 }
@@ -33,10 +33,10 @@ public class ListCommand extends RedmineCommand {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
-    String entity = ((TextArgument)getArguments()[0]).getValue();
+    String entity = invocation.getValue((TextArgument) getArguments()[0]);
 
     switch (entity) {
       case "status":
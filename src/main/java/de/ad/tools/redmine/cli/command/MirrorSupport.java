@@ -0,0 +1,119 @@
+package de.ad.tools.redmine.cli.command;
+
+import com.taskadapter.redmineapi.bean.Issue;
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.command.Command.Option;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether an invocation of a command answers from the local issue
+ * mirror, based on its '--offline' and '--max-staleness' options.
+ */
+class MirrorSupport {
+  static final String NOT_MIRRORED_MESSAGE =
+      "Issue #%d is not in the local mirror. Call 'sync' first.";
+  static final String INVALID_STALENESS_MESSAGE =
+      "'%s' is not a valid number of seconds.";
+
+  static final String OFFLINE_OPTION = "offline";
+  static final String MAX_STALENESS_OPTION = "max-staleness";
+
+  private final IssueMirror.Store mirrorStore;
+  private final Configuration configuration;
+
+  private final boolean offline;
+  private final Long maxStaleness;
+  private IssueMirror mirror;
+
+  MirrorSupport(IssueMirror.Store mirrorStore, Configuration configuration,
+      Command.Invocation invocation) {
+    this.mirrorStore = mirrorStore;
+    this.configuration = configuration;
+
+    this.offline = invocation.getOptionValue(OFFLINE_OPTION) != null;
+    this.maxStaleness = parseMaxStaleness(
+        invocation.getOptionValue(MAX_STALENESS_OPTION));
+  }
+
+  static Option[] withMirrorOptions(Option... options) {
+    Option[] result = Arrays.copyOf(options, options.length + 2);
+    result[options.length] = new Option(OFFLINE_OPTION,
+        "Read from the local issue mirror only. See 'help sync'.", true);
+    result[options.length + 1] = new Option(MAX_STALENESS_OPTION,
+        "Read from the local issue mirror if synchronized within the given "
+            + "seconds.");
+
+    return result;
+  }
+
+  static boolean isMirrorOption(Option option) {
+    return OFFLINE_OPTION.equals(option.getName())
+        || MAX_STALENESS_OPTION.equals(option.getName());
+  }
+
+  private static Long parseMaxStaleness(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    try {
+      return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          String.format(INVALID_STALENESS_MESSAGE, value));
+    }
+  }
+
+  boolean isOffline() {
+    return offline;
+  }
+
+  /**
+   * @return whether issues of the given project may be read from the mirror
+   */
+  boolean canAnswer(String projectName) {
+    if (offline) {
+      return true;
+    }
+    if (maxStaleness == null || projectName == null) {
+      return false;
+    }
+
+    IssueMirror mirror = getMirror();
+    return mirror.getProjectByName(projectName)
+        .map(p -> mirror.isFresh(p.getId(), maxStaleness))
+        .orElse(false);
+  }
+
+  /**
+   * @return the mirrored issue or nothing if it needs to be read from the
+   * server
+   */
+  Optional<Issue> findIssue(int id) throws Exception {
+    if (!offline && maxStaleness == null) {
+      return Optional.empty();
+    }
+
+    Optional<Issue> issue = getMirror().getIssue(id);
+
+    if (offline) {
+      return Optional.of(issue.orElseThrow(
+          () -> new Exception(String.format(NOT_MIRRORED_MESSAGE, id))));
+    }
+
+    return issue.filter(i -> i.getProject() != null
+        && getMirror().isFresh(i.getProject().getId(), maxStaleness));
+  }
+
+  IssueMirror getMirror() {
+    if (mirror == null) {
+      mirror = mirrorStore.load(configuration.getServer());
+    }
+
+    return mirror;
+  }
+}
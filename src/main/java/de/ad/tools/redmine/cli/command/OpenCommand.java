@@ -32,10 +32,10 @@ public class OpenCommand extends RedmineCommand {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
-    Integer id = ((NumberArgument)getArguments()[0]).getValue();
+    Integer id = invocation.getValue((NumberArgument) getArguments()[0]);
 
     assertBrowserIsSupported(id);
 
@@ -57,33 +57,46 @@ public class OpenCommand extends RedmineCommand {
    */
   public static class Browser {
 
-    private final boolean isSupported;
-    private final Desktop desktop;
+    private boolean isInitialized;
+    private boolean isSupported;
+    private Desktop desktop;
 
+    //AWT is only loaded once a browser is actually needed
     public Browser() {
-      isSupported = Desktop.isDesktopSupported();
-
-      //Avoid java.awt.HeadlessException when running in CI environment
-      if (isSupported) {
-        desktop = Desktop.getDesktop();
-      } else {
-        desktop = null;
-      }
     }
 
     public Browser(boolean isSupported, Desktop desktop) {
+      this.isInitialized = true;
       this.isSupported = isSupported;
       this.desktop = desktop;
     }
 
     public boolean isSupported() {
+      initialize();
+
       return isSupported;
     }
 
     public void browse(URI uri) throws IOException {
+      initialize();
+
       if (desktop != null) {
         desktop.browse(uri);
       }
     }
+
+    private void initialize() {
+      if (isInitialized) {
+        return;
+      }
+
+      isInitialized = true;
+      isSupported = Desktop.isDesktopSupported();
+
+      //Avoid java.awt.HeadlessException when running in CI environment
+      if (isSupported) {
+        desktop = Desktop.getDesktop();
+      }
+    }
   }
 }
@@ -26,12 +26,12 @@ public class ProjectCommand extends RedmineCommand {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
     ProjectManager projectManager = redmineManager.getProjectManager();
 
-    String key = ((TextArgument)getArguments()[0]).getValue();
+    String key = invocation.getValue((TextArgument) getArguments()[0]);
     Project project = projectManager.getProjectByKey(key);
 
     println(project.getName());
@@ -21,8 +21,8 @@ public class ProjectsCommand extends RedmineCommand {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
     ProjectManager projectManager = redmineManager.getProjectManager();
 
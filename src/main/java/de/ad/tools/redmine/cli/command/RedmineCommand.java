@@ -30,8 +30,8 @@ class RedmineCommand extends Command {
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
 
     if (!configuration.isConnected()) {
       throw new Exception(
@@ -0,0 +1,35 @@
+package de.ad.tools.redmine.cli.command;
+
+import com.taskadapter.redmineapi.RedmineManager;
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+
+import java.io.PrintStream;
+
+public class RefreshCommand extends RedmineCommand {
+  static final String SUCCESS_MESSAGE =
+      "Successfully refreshed statuses, trackers, priorities and projects.";
+
+  private static final String NAME = "refresh";
+  private static final String DESCRIPTION = "Refresh cached server data.";
+  private static final String LONG_DESCRIPTION =
+      "Statuses, trackers, priorities and projects are cached locally.\n"
+          + "See 'help config' to change how long they stay valid.";
+  private static final Argument[] ARGUMENTS = new Argument[0];
+
+  public RefreshCommand(Configuration configuration, PrintStream out,
+      RedmineManager redmineManager) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, configuration, out,
+        redmineManager);
+  }
+
+  @Override
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    RedmineUtil.cache.invalidate();
+    RedmineUtil.refreshReferenceData(redmineManager);
+
+    println(SUCCESS_MESSAGE);
+  }
+}
@@ -18,7 +18,7 @@ public class ResetCommand extends Command {
   }
 
   @Override
-  public void process(String[] arguments) {
+  protected void execute(Invocation invocation) {
     configuration.reset();
 
     println(RESET_SUCCESS_MESSAGE);
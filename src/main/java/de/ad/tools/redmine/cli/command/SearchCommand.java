@@ -0,0 +1,86 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.SearchIndex;
+import de.ad.tools.redmine.cli.util.TableWriter;
+
+import java.io.PrintStream;
+import java.util.List;
+
+public class SearchCommand extends Command {
+  static final String NOT_INDEXED_MESSAGE =
+      "No issues are indexed yet. Call 'sync <project>' first.";
+  static final String NO_MATCH_MESSAGE = "No issues match '%s'.";
+  static final String INVALID_LIMIT_MESSAGE =
+      "'%s' is not a valid number of results.";
+
+  static final int DEFAULT_LIMIT = 25;
+
+  private static final String NAME = "search";
+  private static final String DESCRIPTION = "Search mirrored issues.";
+  private static final String LONG_DESCRIPTION =
+      "Finds issues whose subject, description or notes contain all given "
+          + "terms, the best match first.\nOnly issues of projects added with "
+          + "'sync' are searched.";
+  private static final Argument[] ARGUMENTS = new Argument[] {
+      new TextArgument("terms", "The terms to search for.", false) };
+  private static final Option[] OPTIONS = new Option[] {
+      new Option("limit", "Display at most the given number of issues.") };
+
+  private final SearchIndex.Store indexStore;
+
+  public SearchCommand(Configuration configuration, PrintStream out,
+      SearchIndex.Store indexStore) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, OPTIONS,
+        configuration, out);
+
+    this.indexStore = indexStore;
+  }
+
+  @Override
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    String terms = invocation.getValue((TextArgument) getArguments()[0]);
+    int limit = getLimit(invocation);
+
+    SearchIndex index = indexStore.load(configuration.getServer());
+    if (index.size() == 0) {
+      throw new Exception(NOT_INDEXED_MESSAGE);
+    }
+
+    List<SearchIndex.Document> hits = index.search(terms, limit);
+    if (hits.isEmpty()) {
+      println(NO_MATCH_MESSAGE, terms);
+      return;
+    }
+
+    TableWriter table = createTableWriter(IssuesCommand.HEADER, hits.size(),
+        configuration.getIntSetting(Configuration.TABLE_WIDTH, 0));
+    for (SearchIndex.Document hit : hits) {
+      table.writeRow(IssuesCommand.buildRow(hit.getId(), hit.getTracker(),
+          hit.getStatus(), hit.getPriority(), hit.getAssignee(),
+          hit.getUpdatedOn(), hit.getSubject()));
+    }
+    table.flush();
+  }
+
+  private int getLimit(Invocation invocation) {
+    String value = invocation.getValue(getOptions()[0]);
+    if (value == null) {
+      return DEFAULT_LIMIT;
+    }
+
+    try {
+      int limit = Integer.parseInt(value);
+      if (limit > 0) {
+        return limit;
+      }
+    } catch (NumberFormatException e) {
+      //Reported below
+    }
+
+    throw new IllegalArgumentException(
+        String.format(INVALID_LIMIT_MESSAGE, value));
+  }
+}
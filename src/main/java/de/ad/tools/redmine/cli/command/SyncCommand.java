@@ -0,0 +1,203 @@
+package de.ad.tools.redmine.cli.command;
+
+import com.taskadapter.redmineapi.RedmineManager;
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.bean.IssueStatus;
+import com.taskadapter.redmineapi.bean.Project;
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.SearchIndex;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+public class SyncCommand extends RedmineCommand {
+  static final String INVALID_PROJECT_MESSAGE =
+      "'%s' is not a valid project.";
+  static final String NO_PROJECT_FOLLOWED_MESSAGE =
+      "No project is synchronized yet. Call 'sync <project>' first.";
+  static final String SYNC_SUCCESS_MESSAGE =
+      "Synchronized %d issue(s) of project '%s'.";
+
+  private static final String NAME = "sync";
+  private static final String DESCRIPTION =
+      "Synchronize the local issue mirror.";
+  private static final String LONG_DESCRIPTION =
+      "Adds the given project to the mirror and fetches the issues changed "
+          + "since the last run of all mirrored projects.\nUse '--offline' or "
+          + "'--max-staleness' with 'issues', 'issue' and 'history' to read "
+          + "from the mirror.";
+  private static final Argument[] ARGUMENTS = new Argument[] {
+      new TextArgument("project", "The name of a project to add.", true) };
+
+  private final IssuePager issuePager;
+  private final IssueMirror.Store mirrorStore;
+  private final SearchIndex.Store indexStore;
+
+  public SyncCommand(Configuration configuration, PrintStream out,
+      RedmineManager redmineManager, IssuePager issuePager,
+      IssueMirror.Store mirrorStore, SearchIndex.Store indexStore) {
+    super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, new Option[0],
+        configuration, out, redmineManager);
+
+    this.issuePager = issuePager;
+    this.mirrorStore = mirrorStore;
+    this.indexStore = indexStore;
+  }
+
+  @Override
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    String projectName = invocation.getValue((TextArgument) getArguments()[0]);
+    IssueMirror mirror = mirrorStore.load(configuration.getServer());
+
+    if (projectName != null) {
+      Optional<Project> project =
+          RedmineUtil.resolveProjectByName(redmineManager, projectName);
+
+      mirror.follow(project.orElseThrow(() -> new Exception(
+          String.format(INVALID_PROJECT_MESSAGE, projectName))).getId(),
+          projectName);
+    }
+
+    if (mirror.getProjects().isEmpty()) {
+      throw new Exception(NO_PROJECT_FOLLOWED_MESSAGE);
+    }
+
+    //Needed to answer 'issues --offline' like the server would
+    List<IssueStatus> statuses =
+        redmineManager.getIssueManager().getStatuses();
+    mirror.setClosedStatusIds(statuses.stream()
+        .filter(IssueStatus::isClosed).map(IssueStatus::getId)
+        .collect(toSet()));
+    mirror.setCurrentUserId(
+        redmineManager.getUserManager().getCurrentUser().getId());
+
+    SearchIndex index = indexStore.load(configuration.getServer());
+    if (index.size() != mirror.size()) {
+      //Missing or lost track of the mirror
+      index.clear();
+      index.update(mirror.getIssues());
+    }
+
+    try {
+      for (IssueMirror.Project project : mirror.getProjects()) {
+        int count = syncProject(mirror, index, project);
+
+        println(SYNC_SUCCESS_MESSAGE, count, project.getName());
+      }
+    } finally {
+      //Keep what was synchronized so far. The index goes first, as issues
+      //are fetched again if the mirror cannot be saved.
+      indexStore.save(index);
+      mirrorStore.save(mirror);
+    }
+  }
+
+  private int syncProject(IssueMirror mirror, SearchIndex index,
+      IssueMirror.Project project) throws Exception {
+    long syncStart = System.currentTimeMillis();
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("project_id", String.valueOf(project.getId()));
+    parameters.put("status_id", "*");
+    if (project.getWatermark() != null) {
+      parameters.put("updated_on",
+          ">=" + formatTimestamp(project.getWatermark()));
+    }
+
+    List<Integer> changedIds = new ArrayList<>();
+    Date[] watermark = new Date[] { project.getWatermark() };
+    issuePager.forEachPage(parameters,
+        configuration.getIntSetting(Configuration.PAGE_SIZE,
+            IssuePager.DEFAULT_PAGE_SIZE), getConcurrency(), page -> {
+          for (Issue issue : page.getIssues()) {
+            changedIds.add(issue.getId());
+
+            Date updatedOn = issue.getUpdatedOn();
+            if (updatedOn != null && (watermark[0] == null
+                || updatedOn.after(watermark[0]))) {
+              watermark[0] = updatedOn;
+            }
+          }
+        });
+
+    //The issue list lacks the journals 'history' needs
+    mirror.update(project.getId(), fetchIssues(changedIds), watermark[0],
+        syncStart);
+    index.update(changedIds.stream()
+        .map(id -> mirror.getIssue(id).get())
+        .collect(toList()));
+
+    return changedIds.size();
+  }
+
+  private Map<Integer, String> fetchIssues(List<Integer> ids)
+      throws Exception {
+    Map<Integer, String> issues = new LinkedHashMap<>();
+    if (ids.isEmpty()) {
+      return issues;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(getConcurrency(), ids.size()));
+    try {
+      Map<Integer, Future<String>> results = new LinkedHashMap<>();
+      for (Integer id : ids) {
+        results.put(id, executor.submit(() -> issuePager.getIssueJson(id)));
+      }
+
+      for (Map.Entry<Integer, Future<String>> result : results.entrySet()) {
+        issues.put(result.getKey(), await(result.getValue()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return issues;
+  }
+
+  private int getConcurrency() {
+    int concurrency = configuration.getIntSetting(Configuration.CONCURRENCY,
+        IssuePager.DEFAULT_CONCURRENCY);
+
+    return concurrency > 0 ? concurrency : IssuePager.DEFAULT_CONCURRENCY;
+  }
+
+  private static String await(Future<String> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
+
+  private static String formatTimestamp(Date date) {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+    return format.format(date);
+  }
+}
@@ -1,19 +1,34 @@
 package de.ad.tools.redmine.cli.command;
 
 import com.taskadapter.redmineapi.IssueManager;
+import com.taskadapter.redmineapi.RedmineException;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.bean.Issue;
 import com.taskadapter.redmineapi.bean.IssuePriority;
 import com.taskadapter.redmineapi.bean.IssueStatus;
 import com.taskadapter.redmineapi.bean.Membership;
+import com.taskadapter.redmineapi.bean.Project;
 import com.taskadapter.redmineapi.bean.Tracker;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssuePager;
 import de.ad.tools.redmine.cli.util.RedmineUtil;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toMap;
 
 public class UpdateIssueCommand extends RedmineCommand {
 
@@ -27,18 +42,41 @@ public class UpdateIssueCommand extends RedmineCommand {
       "'%s' is not a valid tracker.";
   static final String ISSUE_UPDATE_SUCCESS_MESSAGE =
       "Sucessfully updated issue #%d.";
+  static final String ISSUE_UPDATE_FAILURE_MESSAGE =
+      "Failed to update issue #%d: %s";
+  static final String BULK_UPDATE_SUCCESS_MESSAGE =
+      "Successfully updated %d issue(s).";
+  static final String BULK_UPDATE_FAILURE_MESSAGE =
+      "Failed to update %d of %d issue(s).";
   static final String NO_OPTION_SET_MESSAGE =
       "At least one option needs to be set. See 'help %s' for more information.";
+  static final String INVALID_IDS_MESSAGE =
+      "'%s' is not a valid list of issue IDs.";
+  static final String TOO_MANY_ISSUES_MESSAGE =
+      "Cannot update more than %d issues at once.";
+  static final String NO_ISSUES_SELECTED_MESSAGE =
+      "Either issue IDs or a project need to be given.";
+  static final String IDS_AND_PROJECT_MESSAGE =
+      "Issue IDs and a project cannot be given at the same time.";
+  static final String INVALID_PROJECT_MESSAGE =
+      "'%s' is not a valid project.";
+
+  static final int MAX_ISSUES = 10000;
 
   private static final String NAME = "update-issue";
   private static final String DESCRIPTION = "Update a given issue.";
-  private static final String LONG_DESCRIPTION = "";
+  private static final String LONG_DESCRIPTION =
+      "Several issues can be updated at once, either by a list of IDs and "
+          + "ranges, e.g. '1,5,100-250', or by selecting the open issues of a "
+          + "project.\nUp to 'concurrency' issues are updated in parallel.";
 
   private static final Argument[] ARGUMENTS =
       new Argument[] {
-          new NumberArgument("id", "The ID of the issue you want to update.",
-              false) };
+          new TextArgument("ids",
+              "The ID(s) of the issues you want to update, e.g. 42 or 1,5,7-9.",
+              true) };
   private static final Option[] OPTIONS = new Option[] {
+      new Option("project", "Update the open issues of the project instead."),
       new Option("description", "The description of the issue to update."),
       new Option("subject", "The subject of the issue to update."),
       new Option("priority", "The priority of the issue to update."),
@@ -46,66 +84,215 @@ public class UpdateIssueCommand extends RedmineCommand {
       new Option("status", "The status of the issue to update."),
       new Option("tracker", "The tracker of the issue to update.") };
 
-  private static final Map<String, Handler> handlers = new HashMap<>();
+  private static final String PROJECT_OPTION = "project";
+  private static final Pattern ID_RANGE_PATTERN =
+      Pattern.compile("^(?<from>[0-9]{1,10})(-(?<to>[0-9]{1,10}))?$");
+
+  private static final Map<String, Handler> handlers = Stream.of(
+      new DescriptionHandler(), new SubjectHandler(), new PriorityHandler(),
+      new AssigneeHandler(), new StatusHandler(), new TrackerHandler())
+      .collect(toMap(Handler::getName, h -> h));
+
+  private final IssuePager issuePager;
 
   public UpdateIssueCommand(Configuration configuration, PrintStream out,
-      RedmineManager redmineManager) {
+      RedmineManager redmineManager, IssuePager issuePager) {
     super(NAME, DESCRIPTION, LONG_DESCRIPTION, ARGUMENTS, OPTIONS,
         configuration, out, redmineManager);
 
-    Handler description = new DescriptionHandler();
-    Handler subject = new SubjectHandler();
-    Handler priority = new PriorityHandler();
-    Handler assignee = new AssigneeHandler();
-    Handler status = new StatusHandler();
-    Handler tracker = new TrackerHandler();
-
-    handlers.put(description.getName(), description);
-    handlers.put(subject.getName(), subject);
-    handlers.put(priority.getName(), priority);
-    handlers.put(assignee.getName(), assignee);
-    handlers.put(status.getName(), status);
-    handlers.put(tracker.getName(), tracker);
+    this.issuePager = issuePager;
   }
 
   @Override
-  public void process(String[] arguments) throws Exception {
-    super.process(arguments);
+  protected void execute(Invocation invocation) throws Exception {
+    super.execute(invocation);
+
+    String ids = invocation.getValue((TextArgument) getArguments()[0]);
+    String project = invocation.getOptionValue(PROJECT_OPTION);
+
+    if (ids == null && project == null) {
+      throw new Exception(NO_ISSUES_SELECTED_MESSAGE);
+    } else if (ids != null && project != null) {
+      throw new Exception(IDS_AND_PROJECT_MESSAGE);
+    }
 
-    Integer id = ((NumberArgument) getArguments()[0]).getValue();
+    //Option values are resolved once and then applied to every issue
+    List<Update> updates = resolveUpdates(invocation);
 
-    processIssue(id);
+    //Issues listed by the filter are updated without fetching them again
+    Map<Integer, Issue> issues = ids != null ?
+        parseIds(ids) : findOpenIssues(project);
+
+    if (issues.size() == 1) {
+      Map.Entry<Integer, Issue> issue = issues.entrySet().iterator().next();
+
+      processIssue(issue.getKey(), issue.getValue(), updates);
+      println(ISSUE_UPDATE_SUCCESS_MESSAGE, issue.getKey());
+    } else {
+      processIssues(issues, updates);
+    }
   }
 
-  private void processIssue(Integer id) throws Exception {
-    IssueManager issueManager = redmineManager.getIssueManager();
-    Issue issue = issueManager.getIssueById(id);
+  private List<Update> resolveUpdates(Invocation invocation)
+      throws Exception {
+    List<Update> updates = new ArrayList<>();
 
-    boolean atLeastOneOptionSet = false;
     for (Option option : getOptions()) {
-      if (option.getValue() == null) {
+      String value = invocation.getValue(option);
+      if (value == null || PROJECT_OPTION.equals(option.getName())) {
         continue;
       }
 
-      atLeastOneOptionSet = true;
-
-      handlers.get(option.getName())
-          .handle(redmineManager, issue, option.getValue());
+      updates.add(handlers.get(option.getName())
+          .resolve(redmineManager, value));
     }
 
-    if (!atLeastOneOptionSet) {
+    if (updates.isEmpty()) {
       throw new Exception(String.format(NO_OPTION_SET_MESSAGE, getName()));
     }
 
+    return updates;
+  }
+
+  private Map<Integer, Issue> parseIds(String value) throws Exception {
+    //Values are null, as these issues still need to be fetched
+    Map<Integer, Issue> issues = new LinkedHashMap<>();
+
+    for (String part : value.split(",")) {
+      Matcher matcher = ID_RANGE_PATTERN.matcher(part.trim());
+      if (!matcher.matches()) {
+        throw new IllegalArgumentException(
+            String.format(INVALID_IDS_MESSAGE, value));
+      }
+
+      long from = Long.parseLong(matcher.group("from"));
+      long to = matcher.group("to") != null ?
+          Long.parseLong(matcher.group("to")) : from;
+      if (from > to || to > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException(
+            String.format(INVALID_IDS_MESSAGE, value));
+      }
+      if (to - from >= MAX_ISSUES) {
+        throw new Exception(String.format(TOO_MANY_ISSUES_MESSAGE,
+            MAX_ISSUES));
+      }
+
+      for (long id = from; id <= to; id++) {
+        issues.put((int) id, null);
+
+        if (issues.size() > MAX_ISSUES) {
+          throw new Exception(String.format(TOO_MANY_ISSUES_MESSAGE,
+              MAX_ISSUES));
+        }
+      }
+    }
+
+    return issues;
+  }
+
+  private Map<Integer, Issue> findOpenIssues(String projectName)
+      throws Exception {
+    Optional<Project> project =
+        RedmineUtil.resolveProjectByName(redmineManager, projectName);
+    if (!project.isPresent()) {
+      throw new Exception(
+          String.format(INVALID_PROJECT_MESSAGE, projectName));
+    }
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("project_id", String.valueOf(project.get().getId()));
+
+    Map<Integer, Issue> issues = new LinkedHashMap<>();
+    issuePager.forEachPage(parameters,
+        configuration.getIntSetting(Configuration.PAGE_SIZE,
+            IssuePager.DEFAULT_PAGE_SIZE), getConcurrency(), page -> {
+          //Fails on the first page instead of downloading all the others
+          if (page.getTotalCount() > MAX_ISSUES) {
+            throw new Exception(String.format(TOO_MANY_ISSUES_MESSAGE,
+                MAX_ISSUES));
+          }
+
+          for (Issue issue : page.getIssues()) {
+            issues.put(issue.getId(), issue);
+          }
+        });
+
+    return issues;
+  }
+
+  /**
+   * Updates up to 'concurrency' issues at a time and reports the result of
+   * each one in the given order.
+   */
+  private void processIssues(Map<Integer, Issue> issues, List<Update> updates)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(getConcurrency(), Math.max(issues.size(), 1)));
+
+    int failed = 0;
+    try {
+      Map<Integer, Future<?>> results = new LinkedHashMap<>();
+      issues.forEach((id, issue) -> results.put(id, executor.submit(() -> {
+        processIssue(id, issue, updates);
+        return null;
+      })));
+
+      for (Map.Entry<Integer, Future<?>> result : results.entrySet()) {
+        try {
+          result.getValue().get();
+          println(ISSUE_UPDATE_SUCCESS_MESSAGE, result.getKey());
+        } catch (ExecutionException e) {
+          failed++;
+          println(ISSUE_UPDATE_FAILURE_MESSAGE, result.getKey(),
+              getMessage(e.getCause()));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (failed > 0) {
+      throw new Exception(String.format(BULK_UPDATE_FAILURE_MESSAGE, failed,
+          issues.size()));
+    }
+
+    println(BULK_UPDATE_SUCCESS_MESSAGE, issues.size());
+  }
+
+  //Some exceptions, e.g. NullPointerException, come without a message
+  private static String getMessage(Throwable e) {
+    return e.getMessage() != null ? e.getMessage() : e.toString();
+  }
+
+  private void processIssue(Integer id, Issue issue, List<Update> updates)
+      throws Exception {
+    IssueManager issueManager = redmineManager.getIssueManager();
+    if (issue == null) {
+      issue = issueManager.getIssueById(id);
+    }
+
+    for (Update update : updates) {
+      update.apply(issue);
+    }
+
     issueManager.update(issue);
+  }
+
+  private int getConcurrency() {
+    int concurrency = configuration.getIntSetting(Configuration.CONCURRENCY,
+        IssuePager.DEFAULT_CONCURRENCY);
 
-    println(ISSUE_UPDATE_SUCCESS_MESSAGE, issue.getId());
+    return concurrency > 0 ? concurrency : IssuePager.DEFAULT_CONCURRENCY;
+  }
+
+  private interface Update {
+    void apply(Issue issue) throws Exception;
   }
 
   private static abstract class Handler {
     public abstract String getName();
 
-    public abstract void handle(RedmineManager redmineManager, Issue issue,
+    public abstract Update resolve(RedmineManager redmineManager,
         String value) throws Exception;
   }
 
@@ -116,9 +303,9 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      issue.setDescription(value);
+      return issue -> issue.setDescription(value);
     }
   }
 
@@ -129,9 +316,9 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      issue.setSubject(value);
+      return issue -> issue.setSubject(value);
     }
   }
 
@@ -142,14 +329,14 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<IssuePriority> newPriority =
-          RedmineUtil.resolvePriorityByName(redmineManager, value);
+      IssuePriority newPriority =
+          RedmineUtil.resolvePriorityByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_PRIORITY_MESSAGE, value)));
 
-      newPriority.ifPresent(p -> issue.setPriorityId(p.getId()));
-      newPriority.orElseThrow(
-          () -> new Exception(String.format(INVALID_PRIORITY_MESSAGE, value)));
+      return issue -> issue.setPriorityId(newPriority.getId());
     }
   }
 
@@ -160,15 +347,46 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<Membership> newAssignee =
-          RedmineUtil.resolveMembershipByName(redmineManager,
-              issue.getProject().getId(), value);
+      //Members differ by project, so they are looked up once per project,
+      //even by issues updated in parallel
+      Map<Integer, Optional<Membership>> assignees =
+          new ConcurrentHashMap<>();
+
+      return issue -> {
+        Integer projectId = issue.getProject().getId();
+
+        Optional<Membership> newAssignee;
+        try {
+          newAssignee = assignees.computeIfAbsent(projectId, id -> {
+            try {
+              return RedmineUtil.resolveMembershipByName(redmineManager, id,
+                  value);
+            } catch (RedmineException e) {
+              throw new ResolveException(e);
+            }
+          });
+        } catch (ResolveException e) {
+          throw e.getCause();
+        }
+
+        issue.setAssignee(newAssignee.orElseThrow(() -> new Exception(
+            String.format(INVALID_ASSIGNEE_MESSAGE, value))).getUser());
+      };
+    }
+  }
+
+  //Carries a failed lookup out of computeIfAbsent
+  private static class ResolveException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ResolveException(RedmineException cause) {
+      super(cause);
+    }
 
-      newAssignee.ifPresent(m -> issue.setAssignee(m.getUser()));
-      newAssignee.orElseThrow(
-          () -> new Exception(String.format(INVALID_ASSIGNEE_MESSAGE, value)));
+    @Override public synchronized RedmineException getCause() {
+      return (RedmineException) super.getCause();
     }
   }
 
@@ -179,14 +397,14 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<IssueStatus> newStatus =
-          RedmineUtil.resolveStatusByName(redmineManager, value);
+      IssueStatus newStatus =
+          RedmineUtil.resolveStatusByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_STATUS_MESSAGE, value)));
 
-      newStatus.ifPresent(s -> issue.setStatusId(s.getId()));
-      newStatus.orElseThrow(
-          () -> new Exception(String.format(INVALID_STATUS_MESSAGE, value)));
+      return issue -> issue.setStatusId(newStatus.getId());
     }
   }
 
@@ -197,14 +415,14 @@ public class UpdateIssueCommand extends RedmineCommand {
     }
 
     @Override
-    public void handle(RedmineManager redmineManager, Issue issue, String value)
+    public Update resolve(RedmineManager redmineManager, String value)
         throws Exception {
-      Optional<Tracker> newTracker =
-          RedmineUtil.resolveTrackerByName(redmineManager, value);
+      Tracker newTracker =
+          RedmineUtil.resolveTrackerByName(redmineManager, value)
+              .orElseThrow(() -> new Exception(
+                  String.format(INVALID_TRACKER_MESSAGE, value)));
 
-      newTracker.ifPresent(issue::setTracker);
-      newTracker.orElseThrow(() ->
-          new Exception(String.format(INVALID_TRACKER_MESSAGE, value)));
+      return issue -> issue.setTracker(newTracker);
     }
   }
 }
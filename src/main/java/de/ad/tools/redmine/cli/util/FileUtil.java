@@ -1,8 +1,14 @@
 package de.ad.tools.redmine.cli.util;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class FileUtil {
+  static final String LOCK_FILE_NAME = ".redmine.lock";
 
   public static FileUtilImpl impl = new FileUtilImpl(new File("."));
 
@@ -18,14 +24,45 @@ public final class FileUtil {
     return impl.readObjectFromFile(filename);
   }
 
+  public static File getFile(String filename) {
+    return impl.getFile(filename);
+  }
+
+  public static byte[] readFile(String filename) throws IOException {
+    return impl.readFile(filename);
+  }
+
+  public static void writeFile(String filename, byte[] content)
+      throws IOException {
+    impl.writeFile(filename, content);
+  }
+
   public static void writeObjectToFile(Object object, String filename)
       throws IOException {
     impl.writeObjectToFile(object, filename);
   }
 
+  public static void updateFile(String filename, Update update)
+      throws IOException {
+    impl.updateFile(filename, update);
+  }
+
+  public interface Update {
+    /**
+     * @param content the current content or {@code null} if there is no file
+     * @return the new content or {@code null} to leave the file as it is
+     */
+    byte[] apply(byte[] content) throws IOException;
+  }
+
   public static class FileUtilImpl {
     private File baseDir;
 
+    private final ReentrantReadWriteLock threadLock =
+        new ReentrantReadWriteLock();
+    private FileChannel sharedChannel;
+    private int sharedCount;
+
     public FileUtilImpl(File baseDir) {
       this.baseDir = baseDir;
     }
@@ -34,23 +71,198 @@ public final class FileUtil {
       return new File(baseDir, filename).exists();
     }
 
+    public File getFile(String filename) {
+      return new File(baseDir, filename);
+    }
+
     public <T> T readObjectFromFile(String filename) throws IOException,
         ClassNotFoundException {
-      File input = new File(baseDir, filename);
-      FileInputStream fin = new FileInputStream(input);
-      ObjectInputStream ois = new ObjectInputStream(fin);
-      T object = (T) ois.readObject();
-      ois.close();
+      byte[] content = readFile(filename);
 
-      return object;
+      try (ObjectInputStream ois =
+               new ObjectInputStream(new ByteArrayInputStream(content))) {
+        return (T) ois.readObject();
+      }
     }
 
     public void writeObjectToFile(Object object, String filename)
         throws IOException {
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      try (ObjectOutputStream oos = new ObjectOutputStream(bout)) {
+        oos.writeObject(object);
+      }
+
+      writeFile(filename, bout.toByteArray());
+    }
+
+    public byte[] readFile(String filename) throws IOException {
+      try (Closeable lock = lock(true)) {
+        return Files.readAllBytes(new File(baseDir, filename).toPath());
+      }
+    }
+
+    public void writeFile(String filename, byte[] content)
+        throws IOException {
+      try (Closeable lock = lock(false)) {
+        replaceFile(filename, content);
+      }
+    }
+
+    /**
+     * Reads, updates and writes a file while holding an exclusive lock, so
+     * no other process can write in between.
+     */
+    public void updateFile(String filename, Update update)
+        throws IOException {
+      try (Closeable lock = lock(false)) {
+        File file = new File(baseDir, filename);
+        byte[] content =
+            file.exists() ? Files.readAllBytes(file.toPath()) : null;
+
+        byte[] updated = update.apply(content);
+        if (updated != null) {
+          replaceFile(filename, updated);
+        }
+      }
+    }
+
+    /**
+     * Locks a single lock file in the base directory, as the files themselves
+     * are replaced on every write and one lock file per file would pile up.
+     * Readers share the lock, writers hold it exclusively, both among the
+     * threads of this process and among processes. A thread may read while it
+     * writes, but not the other way round.
+     */
+    private Closeable lock(boolean shared) throws IOException {
+      return shared ? lockShared() : lockExclusive();
+    }
+
+    private Closeable lockExclusive() throws IOException {
+      threadLock.writeLock().lock();
+      if (threadLock.getWriteHoldCount() > 1) {
+        return threadLock.writeLock()::unlock;
+      }
+
+      FileChannel channel = null;
+      try {
+        channel = new RandomAccessFile(getFile(LOCK_FILE_NAME), "rw")
+            .getChannel();
+        channel.lock();
+      } catch (IOException | RuntimeException e) {
+        if (channel != null) {
+          channel.close();
+        }
+        threadLock.writeLock().unlock();
+        throw e;
+      }
+
+      FileChannel locked = channel;
+      return () -> {
+        try {
+          //Closing the channel releases the lock as well
+          locked.close();
+        } finally {
+          threadLock.writeLock().unlock();
+        }
+      };
+    }
+
+    private Closeable lockShared() throws IOException {
+      threadLock.readLock().lock();
+      //Reading within an update is covered by its exclusive lock
+      if (threadLock.isWriteLockedByCurrentThread()) {
+        return threadLock.readLock()::unlock;
+      }
+
+      try {
+        acquireSharedFileLock();
+      } catch (IOException | RuntimeException e) {
+        threadLock.readLock().unlock();
+        throw e;
+      }
+
+      return () -> {
+        try {
+          releaseSharedFileLock();
+        } finally {
+          threadLock.readLock().unlock();
+        }
+      };
+    }
+
+    /**
+     * File locks are held by the whole process and must not overlap, so all
+     * reading threads share one, taken by the first and released by the last.
+     */
+    private synchronized void acquireSharedFileLock() throws IOException {
+      if (sharedCount++ > 0) {
+        return;
+      }
+
+      try {
+        sharedChannel = openLockFileForReading();
+        if (sharedChannel != null) {
+          sharedChannel.lock(0, Long.MAX_VALUE, true);
+        }
+      } catch (IOException | RuntimeException e) {
+        sharedCount--;
+        if (sharedChannel != null) {
+          sharedChannel.close();
+          sharedChannel = null;
+        }
+        throw e;
+      }
+    }
+
+    private synchronized void releaseSharedFileLock() throws IOException {
+      if (--sharedCount > 0 || sharedChannel == null) {
+        return;
+      }
+
+      try {
+        sharedChannel.close();
+      } finally {
+        sharedChannel = null;
+      }
+    }
+
+    /**
+     * @return the lock file or {@code null} if it cannot be created, e.g. in
+     * a read-only directory. Nobody writes there, so reads go unlocked.
+     */
+    private FileChannel openLockFileForReading() {
+      File lockFile = getFile(LOCK_FILE_NAME);
+      try {
+        lockFile.createNewFile();
+
+        return new RandomAccessFile(lockFile, "r").getChannel();
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    /**
+     * Writes to a temporary file which replaces the target once it is synced
+     * to disk, so a crash never leaves a truncated file behind.
+     */
+    private void replaceFile(String filename, byte[] content)
+        throws IOException {
       File output = new File(baseDir, filename);
-      FileOutputStream fout = new FileOutputStream(output);
-      ObjectOutputStream oos = new ObjectOutputStream(fout);
-      oos.writeObject(object);
+      File tmp = new File(baseDir, filename + ".tmp");
+
+      try (FileOutputStream fout = new FileOutputStream(tmp)) {
+        fout.write(content);
+        fout.getFD().sync();
+      }
+
+      try {
+        Files.move(tmp.toPath(), output.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp.toPath(), output.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
     }
   }
 }
@@ -0,0 +1,90 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.RedmineManagerFactory;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Creates the pooled HTTP client shared by all managers and pagers of a
+ * process.
+ */
+public final class HttpClientFactory {
+  public static final int DEFAULT_POOL_SIZE = 8;
+  public static final int DEFAULT_KEEP_ALIVE = 30;
+  public static final int DEFAULT_CONNECT_TIMEOUT = 10;
+  public static final int DEFAULT_READ_TIMEOUT = 60;
+
+  private HttpClientFactory() {
+  }
+
+  /**
+   * @param poolSize the maximum number of open connections
+   * @param keepAlive seconds an idle connection is kept open, unless the
+   * server asks for less
+   * @param connectTimeout seconds to wait for a connection, including one
+   * from the pool
+   * @param readTimeout seconds to wait for data
+   * @param compression whether to accept gzip compressed responses
+   */
+  public static HttpClient create(int poolSize, int keepAlive,
+      int connectTimeout, int readTimeout, boolean compression) {
+    DefaultHttpClient client = RedmineManagerFactory.getNewHttpClient(
+        RedmineManagerFactory.createConnectionManager(poolSize,
+            SSLSocketFactory.getSystemSocketFactory()));
+
+    HttpParams params = client.getParams();
+    HttpConnectionParams.setConnectionTimeout(params,
+        (int) TimeUnit.SECONDS.toMillis(connectTimeout));
+    HttpConnectionParams.setSoTimeout(params,
+        (int) TimeUnit.SECONDS.toMillis(readTimeout));
+    HttpConnectionParams.setTcpNoDelay(params, true);
+    params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT,
+        TimeUnit.SECONDS.toMillis(connectTimeout));
+
+    client.setKeepAliveStrategy(createKeepAliveStrategy(
+        TimeUnit.SECONDS.toMillis(keepAlive)));
+
+    if (compression) {
+      //The Redmine API asks for gzip itself. Decoding here already hands
+      //the plain body to the response cache.
+      client.addResponseInterceptor(new ResponseContentEncoding());
+    } else {
+      client.addRequestInterceptor(new RemoveAcceptEncoding());
+    }
+
+    return client;
+  }
+
+  static ConnectionKeepAliveStrategy createKeepAliveStrategy(
+      long keepAlive) {
+    ConnectionKeepAliveStrategy server =
+        new DefaultConnectionKeepAliveStrategy();
+
+    return (response, context) -> {
+      long requested = server.getKeepAliveDuration(response, context);
+
+      return requested > 0 ? Math.min(requested, keepAlive) : keepAlive;
+    };
+  }
+
+  /**
+   * Drops the 'Accept-Encoding: gzip' every request of the Redmine API
+   * carries, so the server answers uncompressed.
+   */
+  static class RemoveAcceptEncoding implements HttpRequestInterceptor {
+    @Override public void process(HttpRequest request, HttpContext context) {
+      request.removeHeaders("Accept-Encoding");
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.internal.RedmineJSONParser;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Local copy of the issues of followed projects, kept up to date by 'sync'.
+ * Issues are stored as the JSON the server returned, including journals.
+ */
+public class IssueMirror implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final String server;
+  private final LinkedHashMap<Integer, Project> projects =
+      new LinkedHashMap<>();
+  private final HashMap<Integer, String> issues = new HashMap<>();
+  private final HashSet<Integer> closedStatusIds = new HashSet<>();
+  private Integer currentUserId;
+
+  private transient ReferenceDataCache.Clock clock =
+      System::currentTimeMillis;
+
+  public IssueMirror(String server) {
+    this.server = server;
+  }
+
+  public String getServer() {
+    return server;
+  }
+
+  public void follow(int projectId, String name) {
+    projects.putIfAbsent(projectId, new Project(projectId, name));
+  }
+
+  public Collection<Project> getProjects() {
+    return Collections.unmodifiableCollection(projects.values());
+  }
+
+  public Optional<Project> getProjectByName(String name) {
+    return projects.values().stream()
+        .filter(p -> p.getName().equals(name))
+        .findFirst();
+  }
+
+  /**
+   * @param watermark the latest 'updated_on' of all issues seen so far
+   * @param syncStart the local time at which the issues were requested
+   */
+  public void update(int projectId, Map<Integer, String> changedIssues,
+      Date watermark, long syncStart) {
+    Project project = projects.get(projectId);
+
+    issues.putAll(changedIssues);
+    if (watermark != null) {
+      project.watermark = watermark;
+    }
+    project.lastSync = syncStart;
+  }
+
+  /**
+   * @return whether the project was synchronized within the last
+   * {@code maxAge} milliseconds
+   */
+  public boolean isFresh(int projectId, long maxAge) {
+    Project project = projects.get(projectId);
+
+    return project != null && project.lastSync > 0
+        && getClock().now() - project.lastSync <= maxAge;
+  }
+
+  public boolean isFresh(long maxAge) {
+    return !projects.isEmpty() && projects.keySet().stream()
+        .allMatch(id -> isFresh(id, maxAge));
+  }
+
+  public int size() {
+    return issues.size();
+  }
+
+  public Optional<Issue> getIssue(int id) {
+    String json = issues.get(id);
+
+    return json != null ? Optional.of(parse(json)) : Optional.empty();
+  }
+
+  /**
+   * @return all issues, the most recent one first like the server orders
+   * them
+   */
+  public List<Issue> getIssues() {
+    List<Issue> result = new ArrayList<>(issues.size());
+    issues.values().forEach(json -> result.add(parse(json)));
+
+    result.sort(Comparator.comparing(Issue::getId).reversed());
+
+    return result;
+  }
+
+  public boolean isClosed(Issue issue) {
+    return closedStatusIds.contains(issue.getStatusId());
+  }
+
+  public void setClosedStatusIds(Set<Integer> ids) {
+    closedStatusIds.clear();
+    closedStatusIds.addAll(ids);
+  }
+
+  public Integer getCurrentUserId() {
+    return currentUserId;
+  }
+
+  public void setCurrentUserId(Integer currentUserId) {
+    this.currentUserId = currentUserId;
+  }
+
+  void setClock(ReferenceDataCache.Clock clock) {
+    this.clock = clock;
+  }
+
+  private ReferenceDataCache.Clock getClock() {
+    //Transient fields are not restored when reading the mirror from disk
+    if (clock == null) {
+      clock = System::currentTimeMillis;
+    }
+
+    return clock;
+  }
+
+  private static Issue parse(String json) {
+    try {
+      return RedmineJSONParser.parseIssue(new JSONObject(json));
+    } catch (JSONException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static final class Project implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final String name;
+    private Date watermark;
+    private long lastSync;
+
+    private Project(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Date getWatermark() {
+      return watermark;
+    }
+
+    public long getLastSync() {
+      return lastSync;
+    }
+  }
+
+  /**
+   * Wraps static calls to FileUtil for a better testability. The mirror is
+   * only read by commands which need it, as it may grow large.
+   */
+  public static class Store {
+    private final String fileName;
+
+    public Store(String fileName) {
+      this.fileName = fileName;
+    }
+
+    /**
+     * @return the mirror of the given server or an empty one
+     */
+    public IssueMirror load(String server) {
+      if (FileUtil.exists(fileName)) {
+        try {
+          IssueMirror mirror = FileUtil.readObjectFromFile(fileName);
+
+          if (Objects.equals(mirror.getServer(), server)) {
+            return mirror;
+          }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+          //The mirror only holds data which can be downloaded again
+        }
+      }
+
+      return new IssueMirror(server);
+    }
+
+    public void save(IssueMirror mirror) throws IOException {
+      FileUtil.writeObjectToFile(mirror, fileName);
+    }
+  }
+}
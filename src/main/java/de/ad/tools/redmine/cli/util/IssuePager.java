@@ -0,0 +1,237 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.RedmineException;
+import com.taskadapter.redmineapi.RedmineFormatException;
+import com.taskadapter.redmineapi.RedmineTransportException;
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.internal.RedmineJSONParser;
+import com.taskadapter.redmineapi.internal.Transport;
+import com.taskadapter.redmineapi.internal.URIConfigurator;
+import com.taskadapter.redmineapi.internal.comm.BasicHttpResponse;
+import com.taskadapter.redmineapi.internal.json.JsonInput;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.HttpClient;
+import org.apache.http.message.BasicNameValuePair;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Fetches issues one page at a time. The issue manager of the Redmine API
+ * always downloads every page before returning anything.
+ */
+public class IssuePager {
+  //Redmine caps the page size at 100 unless configured otherwise
+  public static final int DEFAULT_PAGE_SIZE = 100;
+  public static final int DEFAULT_CONCURRENCY = 4;
+
+  private final URIConfigurator uriConfigurator;
+  private final Transport transport;
+
+  public IssuePager(String url, String apiKey, HttpClient httpClient) {
+    this.uriConfigurator = new URIConfigurator(url, apiKey);
+    this.transport = new Transport(uriConfigurator, httpClient);
+  }
+
+  public Page getPage(Map<String, String> parameters, int offset, int limit)
+      throws RedmineException {
+    List<NameValuePair> query = new ArrayList<>();
+    parameters.forEach((k, v) -> query.add(new BasicNameValuePair(k, v)));
+    query.add(new BasicNameValuePair("offset", String.valueOf(offset)));
+    query.add(new BasicNameValuePair("limit", String.valueOf(limit)));
+
+    URI uri = uriConfigurator.createURI("issues.json",
+        query.toArray(new NameValuePair[query.size()]));
+
+    try (Timings.Phase phase = Timings.instance.start("load issues")) {
+      return transport.download(uri.toString(),
+          response -> parsePage(response, offset));
+    }
+  }
+
+  /**
+   * @return the issue including its journals as returned by the server
+   */
+  public String getIssueJson(int id) throws RedmineException {
+    URI uri = uriConfigurator.createURI("issues/" + id + ".json",
+        new BasicNameValuePair("include", "journals"));
+
+    try (Timings.Phase phase = Timings.instance.start("load issue")) {
+      return transport.download(uri.toString(), response -> {
+        try {
+          return RedmineJSONParser.getResponseSingleObject(read(response),
+              "issue").toString();
+        } catch (JSONException e) {
+          throw new RedmineFormatException(e);
+        } catch (IOException e) {
+          throw new RedmineTransportException(e);
+        }
+      });
+    }
+  }
+
+  public void forEachPage(Map<String, String> parameters, int pageSize,
+      PageHandler handler) throws Exception {
+    forEachPage(parameters, pageSize, 1, handler);
+  }
+
+  /**
+   * Fetches the first page and, once the total count is known, requests up to
+   * {@code concurrency} of the remaining pages at a time. Pages are handed to
+   * the handler in server order on the calling thread.
+   */
+  public void forEachPage(Map<String, String> parameters, int pageSize,
+      int concurrency, PageHandler handler) throws Exception {
+    int limit = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+
+    Page first = getPage(parameters, 0, limit);
+    handler.handle(first);
+
+    int offset = first.getIssues().size();
+    if (offset == 0 || offset >= first.getTotalCount()) {
+      return;
+    }
+
+    //The server might cap the limit, so keep the page size it actually used
+    int step = offset;
+    int totalCount = first.getTotalCount();
+
+    if (concurrency <= 1) {
+      fetchSequentially(parameters, offset, step, totalCount, handler);
+    } else {
+      fetchConcurrently(parameters, offset, step, totalCount, concurrency,
+          handler);
+    }
+  }
+
+  private void fetchSequentially(Map<String, String> parameters, int offset,
+      int limit, int totalCount, PageHandler handler) throws Exception {
+    Page page;
+    do {
+      page = getPage(parameters, offset, limit);
+
+      handler.handle(page);
+
+      offset += page.getIssues().size();
+    } while (!page.getIssues().isEmpty() && offset < totalCount);
+  }
+
+  private void fetchConcurrently(Map<String, String> parameters, int offset,
+      int limit, int totalCount, int concurrency, PageHandler handler)
+      throws Exception {
+    int pages = (totalCount - offset + limit - 1) / limit;
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(concurrency, pages));
+
+    try {
+      //At most 'concurrency' pages are in flight or waiting to be handled
+      Deque<Future<Page>> window = new ArrayDeque<>();
+      int next = offset;
+
+      while (next < totalCount || !window.isEmpty()) {
+        while (next < totalCount && window.size() < concurrency) {
+          int pageOffset = next;
+          window.add(executor.submit(
+              () -> getPage(parameters, pageOffset, limit)));
+          next += limit;
+        }
+
+        Page page = await(window.poll());
+        if (page.getIssues().isEmpty()) {
+          break;
+        }
+
+        handler.handle(page);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Page await(Future<Page> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
+
+  private static Page parsePage(BasicHttpResponse response, int offset)
+      throws RedmineException {
+    try {
+      JSONObject json = RedmineJSONParser.getResponse(read(response));
+
+      List<Issue> issues = JsonInput.getListOrEmpty(json, "issues",
+          RedmineJSONParser.ISSUE_PARSER);
+      int totalCount = JsonInput.getInt(json, "total_count", issues.size());
+
+      return new Page(issues, offset, totalCount);
+    } catch (JSONException e) {
+      throw new RedmineFormatException(e);
+    } catch (IOException e) {
+      throw new RedmineTransportException(e);
+    }
+  }
+
+  private static String read(BasicHttpResponse response) throws IOException {
+    String charset = response.getCharset();
+    StringBuilder content = new StringBuilder();
+
+    try (Reader reader = charset != null ?
+        new InputStreamReader(response.getStream(), charset) :
+        new InputStreamReader(response.getStream(), StandardCharsets.UTF_8)) {
+      char[] buffer = new char[8192];
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        content.append(buffer, 0, read);
+      }
+    }
+
+    return content.toString();
+  }
+
+  public interface PageHandler {
+    void handle(Page page) throws Exception;
+  }
+
+  public static final class Page {
+    private final List<Issue> issues;
+    private final int offset;
+    private final int totalCount;
+
+    public Page(List<Issue> issues, int offset, int totalCount) {
+      this.issues = issues;
+      this.offset = offset;
+      this.totalCount = totalCount;
+    }
+
+    public List<Issue> getIssues() {
+      return issues;
+    }
+
+    public int getOffset() {
+      return offset;
+    }
+
+    public int getTotalCount() {
+      return totalCount;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Creates the underlying client, including its connection manager and SSL
+ * setup, on the first request.
+ */
+public class LazyHttpClient implements HttpClient {
+  private final Supplier<HttpClient> factory;
+  private volatile HttpClient delegate;
+
+  public LazyHttpClient(Supplier<HttpClient> factory) {
+    this.factory = factory;
+  }
+
+  public boolean isInitialized() {
+    return delegate != null;
+  }
+
+  public void shutdown() {
+    if (delegate != null) {
+      delegate.getConnectionManager().shutdown();
+    }
+  }
+
+  private HttpClient getDelegate() {
+    HttpClient client = delegate;
+    if (client == null) {
+      synchronized (this) {
+        client = delegate;
+        if (client == null) {
+          client = factory.get();
+          delegate = client;
+        }
+      }
+    }
+
+    return client;
+  }
+
+  @Override public HttpParams getParams() {
+    return getDelegate().getParams();
+  }
+
+  @Override public ClientConnectionManager getConnectionManager() {
+    return getDelegate().getConnectionManager();
+  }
+
+  @Override public HttpResponse execute(HttpUriRequest request)
+      throws IOException {
+    long start = Timings.instance.requestStarted();
+
+    return timed(request, getDelegate().execute(request), start);
+  }
+
+  @Override public HttpResponse execute(HttpUriRequest request,
+      HttpContext context) throws IOException {
+    long start = Timings.instance.requestStarted();
+
+    return timed(request, getDelegate().execute(request, context), start);
+  }
+
+  @Override public HttpResponse execute(HttpHost target, HttpRequest request)
+      throws IOException {
+    return getDelegate().execute(target, request);
+  }
+
+  @Override public HttpResponse execute(HttpHost target, HttpRequest request,
+      HttpContext context) throws IOException {
+    return getDelegate().execute(target, request, context);
+  }
+
+  @Override public <T> T execute(HttpUriRequest request,
+      ResponseHandler<? extends T> responseHandler) throws IOException {
+    return getDelegate().execute(request, responseHandler);
+  }
+
+  @Override public <T> T execute(HttpUriRequest request,
+      ResponseHandler<? extends T> responseHandler, HttpContext context)
+      throws IOException {
+    return getDelegate().execute(request, responseHandler, context);
+  }
+
+  @Override public <T> T execute(HttpHost target, HttpRequest request,
+      ResponseHandler<? extends T> responseHandler) throws IOException {
+    return getDelegate().execute(target, request, responseHandler);
+  }
+
+  @Override public <T> T execute(HttpHost target, HttpRequest request,
+      ResponseHandler<? extends T> responseHandler, HttpContext context)
+      throws IOException {
+    return getDelegate().execute(target, request, responseHandler, context);
+  }
+
+  /**
+   * Records the request with '--timings' once its body was read.
+   */
+  private static HttpResponse timed(HttpUriRequest request,
+      HttpResponse response, long start) {
+    Timings timings = Timings.instance;
+    if (!timings.isEnabled() || response == null) {
+      return response;
+    }
+
+    String method = request.getMethod();
+    String path = request.getURI().getPath();
+    int status;
+    if (RevalidatingHttpClient.isRevalidated(response)) {
+      status = HttpStatus.SC_NOT_MODIFIED;
+    } else {
+      status = response.getStatusLine() != null ?
+          response.getStatusLine().getStatusCode() : 0;
+    }
+
+    if (response.getEntity() == null) {
+      timings.http(method, path, status, 0, start);
+    } else {
+      response.setEntity(new HttpEntityWrapper(response.getEntity()) {
+        @Override public InputStream getContent() throws IOException {
+          return new CountingInputStream(super.getContent(),
+              bytes -> timings.http(method, path, status, bytes, start));
+        }
+      });
+    }
+
+    return response;
+  }
+
+  /**
+   * Reports the number of bytes read once the end of the stream is reached
+   * or it is closed.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+    private final LongConsumer onEnd;
+    private long count;
+    private boolean ended;
+
+    CountingInputStream(InputStream in, LongConsumer onEnd) {
+      super(in);
+      this.onEnd = onEnd;
+    }
+
+    @Override public int read() throws IOException {
+      int b = super.read();
+      if (b == -1) {
+        end();
+      } else {
+        count++;
+      }
+
+      return b;
+    }
+
+    @Override public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read == -1) {
+        end();
+      } else {
+        count += read;
+      }
+
+      return read;
+    }
+
+    @Override public void close() throws IOException {
+      end();
+      super.close();
+    }
+
+    private void end() {
+      if (!ended) {
+        ended = true;
+        onEnd.accept(count);
+      }
+    }
+  }
+}
@@ -9,18 +9,23 @@ public final class PrintUtil {
   }
 
   public static void printTable(PrintStream out, String[][] table) {
-    int[] columnSizes = computeColumnSizes(table);
+    int[] columnSizes = new int[table.length == 0 ? 0 : table[0].length];
+    widenColumnSizes(columnSizes, table);
 
-    String rowFormat = generateRowFormat(columnSizes);
-
-    printRows(out, table, rowFormat);
+    printRows(out, table, columnSizes);
   }
 
   public static void printTable(PrintStream out, String[] header,
       String[][] table) {
-    String[][] tableWithHeader = addHeader(header, table);
+    String[][] headerRows =
+        new String[][] { toUpperCase(header), createDividers(header) };
+
+    int[] columnSizes = new int[header.length];
+    widenColumnSizes(columnSizes, headerRows);
+    widenColumnSizes(columnSizes, table);
 
-    printTable(out, tableWithHeader);
+    printRows(out, headerRows, columnSizes);
+    printRows(out, table, columnSizes);
   }
 
   public static void printHeading(PrintStream out, String heading) {
@@ -32,19 +37,6 @@ public final class PrintUtil {
     println(out, new String(divider));
   }
 
-  private static String[][] addHeader(String[] header, String[][] table) {
-    String[][] tableWithHeader = new String[table.length + 2][];
-
-    tableWithHeader[0] = toUpperCase(header);
-    tableWithHeader[1] = createDividers(header);
-
-    for (int i = 0; i < table.length; i++) {
-      tableWithHeader[i + 2] = table[i];
-    }
-
-    return tableWithHeader;
-  }
-
   private static String[] toUpperCase(String[] header) {
     for (int i = 0; i < header.length; i++) {
       header[i] = header[i].toUpperCase();
@@ -67,38 +59,34 @@ public final class PrintUtil {
   }
 
   private static void printRows(PrintStream out, String[][] table,
-      String rowFormat) {
-    for (String[] row : table) {
-      println(out, rowFormat, row);
-    }
-  }
+      int[] columnSizes) {
+    StringBuilder line = new StringBuilder();
 
-  private static String generateRowFormat(int[] columnSizes) {
-    StringBuilder formatBuilder = new StringBuilder();
+    for (String[] row : table) {
+      line.setLength(0);
 
-    for (int columnSize : columnSizes) {
-      String format = String.format("%%-%ds", columnSize + 2);
-      formatBuilder.append(format);
-    }
+      for (int column = 0; column < row.length; column++) {
+        String value = String.valueOf(row[column]);
+        line.append(value);
 
-    return formatBuilder.toString();
-  }
+        for (int i = value.length(); i < columnSizes[column] + 2; i++) {
+          line.append(' ');
+        }
+      }
 
-  private static int[] computeColumnSizes(String[][] table) {
-    if (table.length == 0) {
-      return new int[0];
+      out.println(line.toString());
     }
+  }
 
-    int[] columnSizes = new int[table[0].length];
+  private static void widenColumnSizes(int[] columnSizes, String[][] table) {
     for (String[] row : table) {
       for (int column = 0; column < row.length; column++) {
-        int columnSize = row[column] == null ? 0 : row[column].length();
+        int columnSize = String.valueOf(row[column]).length();
         if (columnSizes[column] < columnSize) {
           columnSizes[column] = columnSize;
         }
       }
     }
-    return columnSizes;
   }
 
   private static void println(PrintStream out, String s, Object... args) {
@@ -3,21 +3,43 @@ package de.ad.tools.redmine.cli.util;
 import com.taskadapter.redmineapi.RedmineException;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.bean.IssuePriority;
+import com.taskadapter.redmineapi.bean.IssuePriorityFactory;
 import com.taskadapter.redmineapi.bean.IssueStatus;
+import com.taskadapter.redmineapi.bean.IssueStatusFactory;
 import com.taskadapter.redmineapi.bean.Membership;
 import com.taskadapter.redmineapi.bean.Project;
+import com.taskadapter.redmineapi.bean.ProjectFactory;
 import com.taskadapter.redmineapi.bean.Tracker;
+import com.taskadapter.redmineapi.bean.TrackerFactory;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+
+import static de.ad.tools.redmine.cli.util.ReferenceDataCache.PRIORITIES;
+import static de.ad.tools.redmine.cli.util.ReferenceDataCache.PROJECTS;
+import static de.ad.tools.redmine.cli.util.ReferenceDataCache.STATUSES;
+import static de.ad.tools.redmine.cli.util.ReferenceDataCache.TRACKERS;
 
 public final class RedmineUtil {
-  
+
+  public static ReferenceDataCache cache = new ReferenceDataCache();
+
   private RedmineUtil(){}
-  
+
   public static Optional<IssuePriority> resolvePriorityByName(
       RedmineManager redmineManager, String name) throws RedmineException {
-    List<IssuePriority> priorities =
-        redmineManager.getIssueManager().getIssuePriorities();
+    Optional<Integer> id = cache.lookup(PRIORITIES, name);
+    if (id.isPresent()) {
+      return id.map(i -> {
+        IssuePriority priority = IssuePriorityFactory.create(i);
+        priority.setName(name);
+        return priority;
+      });
+    }
+
+    List<IssuePriority> priorities = loadPriorities(redmineManager);
 
     return priorities.stream()
         .filter(p -> name.equals(p.getName()))
@@ -27,9 +49,11 @@ public final class RedmineUtil {
   public static Optional<Membership> resolveMembershipByName(
       RedmineManager redmineManager, Integer projectId, String name)
       throws RedmineException {
-    List<Membership> memberships =
-        redmineManager.getMembershipManager()
-            .getMemberships(projectId);
+    List<Membership> memberships;
+    try (Timings.Phase phase = Timings.instance.start("load memberships")) {
+      memberships =
+          redmineManager.getMembershipManager().getMemberships(projectId);
+    }
 
     return memberships.stream()
         .filter(m -> name.equals(m.getUser().getFullName()))
@@ -38,8 +62,12 @@ public final class RedmineUtil {
 
   public static Optional<IssueStatus> resolveStatusByName(
       RedmineManager redmineManager, String name) throws RedmineException {
-    List<IssueStatus> statuses =
-        redmineManager.getIssueManager().getStatuses();
+    Optional<Integer> id = cache.lookup(STATUSES, name);
+    if (id.isPresent()) {
+      return id.map(i -> IssueStatusFactory.create(i, name));
+    }
+
+    List<IssueStatus> statuses = loadStatuses(redmineManager);
 
     return
         statuses.stream().filter(s -> name.equals(s.getName())).findFirst();
@@ -47,7 +75,12 @@ public final class RedmineUtil {
 
   public static Optional<Tracker> resolveTrackerByName(
       RedmineManager redmineManager, String name) throws RedmineException {
-    List<Tracker> trackers = redmineManager.getIssueManager().getTrackers();
+    Optional<Integer> id = cache.lookup(TRACKERS, name);
+    if (id.isPresent()) {
+      return id.map(i -> TrackerFactory.create(i, name));
+    }
+
+    List<Tracker> trackers = loadTrackers(redmineManager);
 
     return trackers.stream()
         .filter(t -> name.equals(t.getName())).findFirst();
@@ -56,8 +89,85 @@ public final class RedmineUtil {
   public static Optional<Project> resolveProjectByName(
       RedmineManager redmineManager,
       String name) throws RedmineException {
-    List<Project> projects = redmineManager.getProjectManager().getProjects();
+    Optional<Integer> id = cache.lookup(PROJECTS, name);
+    if (id.isPresent()) {
+      return id.map(i -> {
+        Project project = ProjectFactory.create(i);
+        project.setName(name);
+        return project;
+      });
+    }
+
+    List<Project> projects = loadProjects(redmineManager);
 
     return projects.stream().filter(p -> name.equals(p.getName())).findFirst();
   }
+
+  public static void refreshReferenceData(RedmineManager redmineManager)
+      throws RedmineException {
+    loadStatuses(redmineManager);
+    loadTrackers(redmineManager);
+    loadPriorities(redmineManager);
+    loadProjects(redmineManager);
+  }
+
+  private static List<IssuePriority> loadPriorities(
+      RedmineManager redmineManager) throws RedmineException {
+    List<IssuePriority> priorities;
+    try (Timings.Phase phase = Timings.instance.start("load priorities")) {
+      priorities = redmineManager.getIssueManager().getIssuePriorities();
+    }
+
+    cache.update(PRIORITIES,
+        index(priorities, IssuePriority::getName, IssuePriority::getId));
+
+    return priorities;
+  }
+
+  private static List<IssueStatus> loadStatuses(
+      RedmineManager redmineManager) throws RedmineException {
+    List<IssueStatus> statuses;
+    try (Timings.Phase phase = Timings.instance.start("load statuses")) {
+      statuses = redmineManager.getIssueManager().getStatuses();
+    }
+
+    cache.update(STATUSES,
+        index(statuses, IssueStatus::getName, IssueStatus::getId));
+
+    return statuses;
+  }
+
+  private static List<Tracker> loadTrackers(RedmineManager redmineManager)
+      throws RedmineException {
+    List<Tracker> trackers;
+    try (Timings.Phase phase = Timings.instance.start("load trackers")) {
+      trackers = redmineManager.getIssueManager().getTrackers();
+    }
+
+    cache.update(TRACKERS, index(trackers, Tracker::getName, Tracker::getId));
+
+    return trackers;
+  }
+
+  private static List<Project> loadProjects(RedmineManager redmineManager)
+      throws RedmineException {
+    List<Project> projects;
+    try (Timings.Phase phase = Timings.instance.start("load projects")) {
+      projects = redmineManager.getProjectManager().getProjects();
+    }
+
+    cache.update(PROJECTS, index(projects, Project::getName, Project::getId));
+
+    return projects;
+  }
+
+  private static <T> Map<String, Integer> index(List<T> entities,
+      Function<T, String> name, Function<T, Integer> id) {
+    Map<String, Integer> index = new HashMap<>();
+
+    //Keep the first match, just like the linear search did
+    entities.forEach(e -> index.putIfAbsent(name.apply(e), id.apply(e)));
+
+    return index;
+  }
 }
@@ -0,0 +1,117 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name to ID indexes of rarely changing server entities (statuses, trackers,
+ * priorities, projects), stored per server URL.
+ */
+public class ReferenceDataCache implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  public static final String STATUSES = "statuses";
+  public static final String TRACKERS = "trackers";
+  public static final String PRIORITIES = "priorities";
+  public static final String PROJECTS = "projects";
+
+  public static final int DEFAULT_TTL = (int) TimeUnit.DAYS.toSeconds(1);
+
+  private final HashMap<String, HashMap<String, Index>> servers =
+      new HashMap<>();
+
+  private transient String server;
+  private transient long ttl;
+  private transient Clock clock = System::currentTimeMillis;
+  private transient boolean dirty;
+
+  public synchronized void bind(String server, long ttl) {
+    this.server = server;
+    this.ttl = ttl;
+  }
+
+  public synchronized boolean isBound() {
+    return server != null && ttl > 0;
+  }
+
+  public synchronized Optional<Integer> lookup(String type, String name) {
+    Index index = getFreshIndex(type);
+
+    if (index == null) {
+      return Optional.empty();
+    }
+
+    return Optional.ofNullable(index.ids.get(name));
+  }
+
+  public synchronized boolean isFresh(String type) {
+    return getFreshIndex(type) != null;
+  }
+
+  public synchronized void update(String type, Map<String, Integer> ids) {
+    if (!isBound()) {
+      return;
+    }
+
+    servers.computeIfAbsent(server, s -> new HashMap<>())
+        .put(type, new Index(getClock().now(), new HashMap<>(ids)));
+    dirty = true;
+  }
+
+  public synchronized void invalidate() {
+    if (servers.remove(server) != null) {
+      dirty = true;
+    }
+  }
+
+  public synchronized boolean isDirty() {
+    return dirty;
+  }
+
+  synchronized void setClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  private Index getFreshIndex(String type) {
+    if (!isBound()) {
+      return null;
+    }
+
+    Map<String, Index> indexes = servers.get(server);
+    Index index = indexes != null ? indexes.get(type) : null;
+
+    if (index == null || getClock().now() - index.timestamp >= ttl) {
+      return null;
+    }
+
+    return index;
+  }
+
+  private Clock getClock() {
+    //Transient fields are not restored when reading the cache from disk
+    if (clock == null) {
+      clock = System::currentTimeMillis;
+    }
+
+    return clock;
+  }
+
+  interface Clock {
+    long now();
+  }
+
+  private static class Index implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long timestamp;
+    private final HashMap<String, Integer> ids;
+
+    private Index(long timestamp, HashMap<String, Integer> ids) {
+      this.timestamp = timestamp;
+      this.ids = ids;
+    }
+  }
+}
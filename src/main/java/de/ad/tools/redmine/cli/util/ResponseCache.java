@@ -0,0 +1,96 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+/**
+ * Response bodies of GET requests on disk, one file per URL and API key,
+ * together with the validators to revalidate them.
+ * <p>
+ * Wraps static calls to FileUtil for a better testability.
+ */
+public class ResponseCache {
+  private final String directoryName;
+
+  public ResponseCache(String directoryName) {
+    this.directoryName = directoryName;
+  }
+
+  public Optional<Entry> get(String key) {
+    String fileName = getFileName(key);
+    if (!FileUtil.exists(fileName)) {
+      return Optional.empty();
+    }
+
+    try {
+      Entry entry = FileUtil.readObjectFromFile(fileName);
+
+      return Optional.of(entry);
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      //Downloaded again and replaced
+      return Optional.empty();
+    }
+  }
+
+  public void put(String key, Entry entry) throws IOException {
+    FileUtil.getFile(directoryName).mkdirs();
+    FileUtil.writeObjectToFile(entry, getFileName(key));
+  }
+
+  /**
+   * The key itself contains the API key, so only its digest is used as the
+   * file name.
+   */
+  private String getFileName(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(key.getBytes(StandardCharsets.UTF_8));
+
+      StringBuilder fileName = new StringBuilder(directoryName).append('/');
+      for (byte b : digest) {
+        fileName.append(String.format("%02x", b));
+      }
+
+      return fileName.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static final class Entry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String etag;
+    private final String lastModified;
+    private final String contentType;
+    private final byte[] body;
+
+    public Entry(String etag, String lastModified, String contentType,
+        byte[] body) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public byte[] getBody() {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Sends GET requests with the validators of a cached response and reuses
+ * its body on '304 Not Modified'. Cached bodies are never used without
+ * asking the server.
+ * <p>
+ * Only reference data is cached: projects, memberships, statuses, trackers
+ * and priorities. Issues are queried with ever changing filters and offsets
+ * or by one of countless ids, so their responses would pile up on disk
+ * without ever being reused.
+ */
+public class RevalidatingHttpClient implements HttpClient {
+  //Set on responses built from the cache, see LazyHttpClient
+  static final String REVALIDATED_HEADER = "X-Revalidated";
+
+  static final int MAX_BODY_SIZE = 8 * 1024 * 1024;
+
+  private static final String API_KEY_HEADER = "X-Redmine-API-Key";
+
+  //Suffix of the path, the server may be deployed below a context path
+  private static final Pattern CACHEABLE_PATH = Pattern.compile(
+      ".*/(projects(/[^/]+(/memberships)?)?|issue_statuses|trackers"
+          + "|enumerations/issue_priorities)\\.json");
+
+  private final HttpClient delegate;
+  private final ResponseCache cache;
+
+  public RevalidatingHttpClient(HttpClient delegate, ResponseCache cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  static boolean isRevalidated(HttpResponse response) {
+    return response.containsHeader(REVALIDATED_HEADER);
+  }
+
+  @Override public HttpParams getParams() {
+    return delegate.getParams();
+  }
+
+  @Override public ClientConnectionManager getConnectionManager() {
+    return delegate.getConnectionManager();
+  }
+
+  @Override public HttpResponse execute(HttpUriRequest request)
+      throws IOException {
+    return execute(request, (HttpContext) null);
+  }
+
+  @Override public HttpResponse execute(HttpUriRequest request,
+      HttpContext context) throws IOException {
+    if (!isCacheable(request)) {
+      return delegate.execute(request, context);
+    }
+
+    String key = getKey(request);
+    Optional<ResponseCache.Entry> cached = cache.get(key);
+    cached.ifPresent(entry -> {
+      if (entry.getEtag() != null) {
+        request.setHeader("If-None-Match", entry.getEtag());
+      }
+      if (entry.getLastModified() != null) {
+        request.setHeader("If-Modified-Since", entry.getLastModified());
+      }
+    });
+
+    HttpResponse response = delegate.execute(request, context);
+    int status = response.getStatusLine().getStatusCode();
+
+    if (status == HttpStatus.SC_NOT_MODIFIED && cached.isPresent()) {
+      EntityUtils.consume(response.getEntity());
+
+      return createResponse(cached.get());
+    }
+
+    if (status == HttpStatus.SC_OK && response.getEntity() != null
+        && hasValidator(response)) {
+      return store(key, response);
+    }
+
+    return response;
+  }
+
+  @Override public HttpResponse execute(HttpHost target, HttpRequest request)
+      throws IOException {
+    return delegate.execute(target, request);
+  }
+
+  @Override public HttpResponse execute(HttpHost target, HttpRequest request,
+      HttpContext context) throws IOException {
+    return delegate.execute(target, request, context);
+  }
+
+  @Override public <T> T execute(HttpUriRequest request,
+      ResponseHandler<? extends T> responseHandler) throws IOException {
+    return delegate.execute(request, responseHandler);
+  }
+
+  @Override public <T> T execute(HttpUriRequest request,
+      ResponseHandler<? extends T> responseHandler, HttpContext context)
+      throws IOException {
+    return delegate.execute(request, responseHandler, context);
+  }
+
+  @Override public <T> T execute(HttpHost target, HttpRequest request,
+      ResponseHandler<? extends T> responseHandler) throws IOException {
+    return delegate.execute(target, request, responseHandler);
+  }
+
+  @Override public <T> T execute(HttpHost target, HttpRequest request,
+      ResponseHandler<? extends T> responseHandler, HttpContext context)
+      throws IOException {
+    return delegate.execute(target, request, responseHandler, context);
+  }
+
+  private HttpResponse store(String key, HttpResponse response)
+      throws IOException {
+    HttpEntity entity = response.getEntity();
+    if (entity.getContentLength() > MAX_BODY_SIZE) {
+      return response;
+    }
+
+    //The length of decompressed bodies is unknown, so read one byte more
+    //than fits to tell
+    InputStream content = entity.getContent();
+    byte[] body = read(content, MAX_BODY_SIZE + 1);
+    if (body.length > MAX_BODY_SIZE) {
+      InputStreamEntity unbuffered = new InputStreamEntity(
+          new SequenceInputStream(new ByteArrayInputStream(body), content),
+          -1);
+      unbuffered.setContentType(entity.getContentType());
+      unbuffered.setContentEncoding(entity.getContentEncoding());
+      response.setEntity(unbuffered);
+
+      return response;
+    }
+    content.close();
+
+    ByteArrayEntity buffered = new ByteArrayEntity(body);
+    buffered.setContentType(entity.getContentType());
+    response.setEntity(buffered);
+
+    try {
+      cache.put(key, new ResponseCache.Entry(
+          getHeader(response, "ETag"), getHeader(response, "Last-Modified"),
+          getHeader(response, "Content-Type"), body));
+    } catch (IOException e) {
+      //The response is still valid
+    }
+
+    return response;
+  }
+
+  /**
+   * @return up to {@code limit} bytes, fewer only at the end of the stream
+   */
+  private static byte[] read(InputStream in, int limit) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while (out.size() < limit && (read = in.read(buffer, 0,
+        Math.min(buffer.length, limit - out.size()))) != -1) {
+      out.write(buffer, 0, read);
+    }
+
+    return out.toByteArray();
+  }
+
+  private static boolean isCacheable(HttpUriRequest request) {
+    return "GET".equals(request.getMethod())
+        && CACHEABLE_PATH.matcher(request.getURI().getPath()).matches();
+  }
+
+  private static String getKey(HttpUriRequest request) {
+    String apiKey = getHeader(request.getFirstHeader(API_KEY_HEADER));
+
+    return request.getURI() + (apiKey != null ? "\n" + apiKey : "");
+  }
+
+  private static boolean hasValidator(HttpResponse response) {
+    return response.containsHeader("ETag")
+        || response.containsHeader("Last-Modified");
+  }
+
+  private static HttpResponse createResponse(ResponseCache.Entry entry) {
+    HttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+
+    ByteArrayEntity entity = new ByteArrayEntity(entry.getBody());
+    if (entry.getContentType() != null) {
+      entity.setContentType(entry.getContentType());
+      response.setHeader("Content-Type", entry.getContentType());
+    }
+    response.setEntity(entity);
+    response.setHeader(REVALIDATED_HEADER, "true");
+
+    return response;
+  }
+
+  private static String getHeader(HttpResponse response, String name) {
+    return getHeader(response.getFirstHeader(name));
+  }
+
+  private static String getHeader(Header header) {
+    return header != null ? header.getValue() : null;
+  }
+}
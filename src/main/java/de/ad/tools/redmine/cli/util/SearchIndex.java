@@ -0,0 +1,264 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.bean.Journal;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index over subjects, descriptions and journal notes of mirrored
+ * issues. It also holds what is needed to list a hit, so searching does not
+ * read the mirror itself.
+ */
+public class SearchIndex implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  //A term in the subject counts as much as three in the text
+  static final int SUBJECT_WEIGHT = 3;
+
+  private final String server;
+  //Term to weighted term frequency by issue ID
+  private final HashMap<String, HashMap<Integer, Integer>> postings =
+      new HashMap<>();
+  private final HashMap<Integer, Document> documents = new HashMap<>();
+
+  public SearchIndex(String server) {
+    this.server = server;
+  }
+
+  public String getServer() {
+    return server;
+  }
+
+  public int size() {
+    return documents.size();
+  }
+
+  /**
+   * Replaces the entries of the given issues.
+   */
+  public void update(Collection<Issue> issues) {
+    for (Issue issue : issues) {
+      remove(issue.getId());
+      add(issue);
+    }
+  }
+
+  public void clear() {
+    postings.clear();
+    documents.clear();
+  }
+
+  /**
+   * Finds issues containing all terms of the query, the best match first.
+   * Scores sum the weighted frequency of each term, scaled by how rare the
+   * term is.
+   */
+  public List<Document> search(String query, int limit) {
+    Set<String> terms = tokenize(query);
+    if (terms.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Map<Integer, Double> scores = null;
+    for (String term : terms) {
+      Map<Integer, Integer> frequencies = postings.get(term);
+      if (frequencies == null) {
+        return new ArrayList<>();
+      }
+
+      double idf = Math.log(1 + (double) documents.size() / frequencies.size());
+      Map<Integer, Double> termScores = new HashMap<>();
+      for (Map.Entry<Integer, Integer> posting : frequencies.entrySet()) {
+        Integer id = posting.getKey();
+        if (scores == null) {
+          termScores.put(id, posting.getValue() * idf);
+        } else if (scores.containsKey(id)) {
+          termScores.put(id, scores.get(id) + posting.getValue() * idf);
+        }
+      }
+      scores = termScores;
+    }
+
+    List<Map.Entry<Integer, Double>> hits = new ArrayList<>(scores.entrySet());
+    hits.sort((a, b) -> {
+      int result = Double.compare(b.getValue(), a.getValue());
+      return result != 0 ? result : Integer.compare(b.getKey(), a.getKey());
+    });
+
+    List<Document> result = new ArrayList<>();
+    for (int i = 0; i < hits.size() && i < limit; i++) {
+      result.add(documents.get(hits.get(i).getKey()));
+    }
+
+    return result;
+  }
+
+  static Set<String> tokenize(String text) {
+    Set<String> terms = new LinkedHashSet<>();
+    forEachTerm(text, terms::add);
+
+    return terms;
+  }
+
+  /**
+   * Splits the text into lower case runs of letters and digits.
+   */
+  private static void forEachTerm(String text, Consumer<String> action) {
+    if (text == null) {
+      return;
+    }
+
+    StringBuilder term = new StringBuilder();
+    int i = 0;
+    while (i <= text.length()) {
+      int c = i < text.length() ? text.codePointAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+        term.appendCodePoint(Character.toLowerCase(c));
+      } else if (term.length() > 0) {
+        action.accept(term.toString());
+        term.setLength(0);
+      }
+
+      i += Character.charCount(c);
+    }
+  }
+
+  private void add(Issue issue) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    forEachTerm(issue.getSubject(),
+        term -> frequencies.merge(term, SUBJECT_WEIGHT, Integer::sum));
+    forEachTerm(issue.getDescription(),
+        term -> frequencies.merge(term, 1, Integer::sum));
+    if (issue.getJournals() != null) {
+      for (Journal journal : issue.getJournals()) {
+        forEachTerm(journal.getNotes(),
+            term -> frequencies.merge(term, 1, Integer::sum));
+      }
+    }
+
+    frequencies.forEach((term, frequency) ->
+        postings.computeIfAbsent(term, t -> new HashMap<>())
+            .put(issue.getId(), frequency));
+
+    documents.put(issue.getId(),
+        new Document(issue, new ArrayList<>(frequencies.keySet())));
+  }
+
+  private void remove(Integer id) {
+    Document document = documents.remove(id);
+    if (document == null) {
+      return;
+    }
+
+    for (String term : document.terms) {
+      Map<Integer, Integer> frequencies = postings.get(term);
+      frequencies.remove(id);
+      if (frequencies.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+
+  /**
+   * What is listed for a hit, see {@code IssuesCommand}.
+   */
+  public static final class Document implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final String tracker;
+    private final String status;
+    private final String priority;
+    private final String assignee;
+    private final Date updatedOn;
+    private final String subject;
+    //Needed to remove the postings once the issue changes
+    private final ArrayList<String> terms;
+
+    private Document(Issue issue, ArrayList<String> terms) {
+      this.id = issue.getId();
+      this.tracker =
+          issue.getTracker() != null ? issue.getTracker().getName() : null;
+      this.status = issue.getStatusName();
+      this.priority = issue.getPriorityText();
+      this.assignee = issue.getAssignee() != null ?
+          issue.getAssignee().getFullName() : null;
+      this.updatedOn = issue.getUpdatedOn();
+      this.subject = issue.getSubject();
+      this.terms = terms;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getTracker() {
+      return tracker;
+    }
+
+    public String getStatus() {
+      return status;
+    }
+
+    public String getPriority() {
+      return priority;
+    }
+
+    public String getAssignee() {
+      return assignee;
+    }
+
+    public Date getUpdatedOn() {
+      return updatedOn;
+    }
+
+    public String getSubject() {
+      return subject;
+    }
+  }
+
+  /**
+   * Wraps static calls to FileUtil for a better testability.
+   */
+  public static class Store {
+    private final String fileName;
+
+    public Store(String fileName) {
+      this.fileName = fileName;
+    }
+
+    /**
+     * @return the index of the given server or an empty one
+     */
+    public SearchIndex load(String server) {
+      if (FileUtil.exists(fileName)) {
+        try {
+          SearchIndex index = FileUtil.readObjectFromFile(fileName);
+
+          if (Objects.equals(index.getServer(), server)) {
+            return index;
+          }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+          //The index can be rebuilt from the mirror
+        }
+      }
+
+      return new SearchIndex(server);
+    }
+
+    public void save(SearchIndex index) throws IOException {
+      FileUtil.writeObjectToFile(index, fileName);
+    }
+  }
+}
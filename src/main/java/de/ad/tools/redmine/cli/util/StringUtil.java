@@ -1,8 +1,14 @@
 package de.ad.tools.redmine.cli.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public final class StringUtil {
   public static final String ELLIPSIS = "…";
 
+  static final String UNTERMINATED_QUOTE_MESSAGE =
+      "Unterminated quote in '%s'.";
+
   private StringUtil() {
   }
 
@@ -13,4 +19,90 @@ public final class StringUtil {
       return string.substring(0, maxLength - 1) + ELLIPSIS;
     }
   }
+
+  /**
+   * Splits a command line into arguments like a shell would: whitespace
+   * separates arguments, single and double quotes group them and are removed.
+   */
+  public static String[] splitArguments(String commandLine) {
+    List<String> arguments = new ArrayList<>();
+    StringBuilder argument = new StringBuilder();
+    boolean inArgument = false;
+    char quote = 0;
+
+    for (int i = 0; i < commandLine.length(); i++) {
+      char c = commandLine.charAt(i);
+
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else {
+          argument.append(c);
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+        inArgument = true;
+      } else if (Character.isWhitespace(c)) {
+        if (inArgument) {
+          arguments.add(argument.toString());
+          argument.setLength(0);
+          inArgument = false;
+        }
+      } else {
+        argument.append(c);
+        inArgument = true;
+      }
+    }
+
+    if (quote != 0) {
+      throw new IllegalArgumentException(
+          String.format(UNTERMINATED_QUOTE_MESSAGE, commandLine));
+    }
+    if (inArgument) {
+      arguments.add(argument.toString());
+    }
+
+    return arguments.toArray(new String[arguments.size()]);
+  }
+
+  /**
+   * Splits a CSV record into its fields. Fields may be enclosed in double
+   * quotes, which are doubled within the field to escape them. Quoted fields
+   * keep any line breaks.
+   */
+  public static String[] splitCsvLine(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+
+    if (quoted) {
+      throw new IllegalArgumentException(
+          String.format(UNTERMINATED_QUOTE_MESSAGE, line));
+    }
+    fields.add(field.toString());
+
+    return fields.toArray(new String[fields.size()]);
+  }
 }
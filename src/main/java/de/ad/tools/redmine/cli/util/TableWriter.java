@@ -0,0 +1,227 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints a table row by row. Column sizes are taken from the header and the
+ * first rows (the look-ahead window), or declared up front. Lines are
+ * assembled in a single reusable buffer and encoded by the stream, so they
+ * use its charset.
+ */
+public class TableWriter {
+  private static final int COLUMN_GAP = 2;
+  private static final int MIN_COLUMN_SIZE = 3;
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private final PrintStream out;
+  private final String[] header;
+  private final int[] columnSizes;
+  private final int lookAhead;
+  private final int maxWidth;
+  private final boolean fixed;
+
+  private final List<String[]> pending = new ArrayList<>();
+  private char[] line = new char[128];
+  private boolean started;
+
+  private TableWriter(PrintStream out, String[] header, int[] columnSizes,
+      int lookAhead, int maxWidth, boolean fixed) {
+    this.out = out;
+    this.header = header;
+    this.columnSizes = columnSizes;
+    this.lookAhead = lookAhead;
+    this.maxWidth = maxWidth;
+    this.fixed = fixed;
+  }
+
+  /**
+   * Column sizes are computed from the first {@code rows} rows. Later rows
+   * that do not fit widen their column.
+   */
+  public static TableWriter withLookAhead(PrintStream out, String[] header,
+      int rows) {
+    return withMaxWidth(out, header, rows, 0);
+  }
+
+  /**
+   * Like {@link #withLookAhead}, but the widest columns are shrunk until a
+   * line fits into {@code maxWidth} characters. Values that do not fit are
+   * ellipsized. A {@code maxWidth} of zero or less means no limit.
+   */
+  public static TableWriter withMaxWidth(PrintStream out, String[] header,
+      int rows, int maxWidth) {
+    return new TableWriter(out, header, new int[header.length],
+        Math.max(rows, 1), maxWidth, maxWidth > 0);
+  }
+
+  /**
+   * Uses the given column sizes. Values that do not fit are ellipsized.
+   */
+  public static TableWriter withColumnSizes(PrintStream out, String[] header,
+      int... columnSizes) {
+    if (columnSizes.length != header.length) {
+      throw new IllegalArgumentException(
+          "Expected one column size per header column.");
+    }
+    for (int columnSize : columnSizes) {
+      if (columnSize < 1) {
+        throw new IllegalArgumentException(
+            "Column sizes must be positive.");
+      }
+    }
+
+    return new TableWriter(out, header, columnSizes.clone(), 0, 0, true);
+  }
+
+  public void writeRow(String... row) {
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      if (started) {
+        printRow(row);
+        return;
+      }
+
+      pending.add(row);
+      if (pending.size() >= lookAhead) {
+        start();
+      }
+    }
+  }
+
+  /**
+   * Prints the header and any buffered rows, even if the look-ahead window
+   * is not full yet. Must be called once all rows have been written.
+   */
+  public void flush() {
+    try (Timings.Phase phase = Timings.instance.start(Timings.RENDER)) {
+      if (!started) {
+        start();
+      }
+
+      out.flush();
+    }
+  }
+
+  private void start() {
+    started = true;
+
+    if (lookAhead > 0) {
+      widen(header);
+      pending.forEach(this::widen);
+
+      if (maxWidth > 0) {
+        shrinkToFit();
+      }
+    }
+
+    printRow(toUpperCase(header));
+    printDividers();
+
+    pending.forEach(this::printRow);
+    pending.clear();
+  }
+
+  private void widen(String[] row) {
+    for (int column = 0; column < row.length; column++) {
+      int columnSize = String.valueOf(row[column]).length();
+      if (columnSizes[column] < columnSize) {
+        columnSizes[column] = columnSize;
+      }
+    }
+  }
+
+  private void shrinkToFit() {
+    int width = 0;
+    for (int columnSize : columnSizes) {
+      width += columnSize + COLUMN_GAP;
+    }
+
+    while (width > maxWidth) {
+      int widest = 0;
+      for (int column = 1; column < columnSizes.length; column++) {
+        if (columnSizes[column] > columnSizes[widest]) {
+          widest = column;
+        }
+      }
+
+      if (columnSizes[widest] <= MIN_COLUMN_SIZE) {
+        return;
+      }
+
+      columnSizes[widest]--;
+      width--;
+    }
+  }
+
+  private void printRow(String[] row) {
+    if (!fixed) {
+      widen(row);
+    }
+
+    int length = 0;
+    for (int column = 0; column < row.length; column++) {
+      String value = String.valueOf(row[column]);
+      int columnSize = columnSizes[column];
+
+      ensureCapacity(length + columnSize + COLUMN_GAP);
+
+      if (value.length() <= columnSize) {
+        value.getChars(0, value.length(), line, length);
+        length += value.length();
+        columnSize -= value.length();
+      } else {
+        value.getChars(0, columnSize - 1, line, length);
+        length += columnSize - 1;
+        line[length++] = StringUtil.ELLIPSIS.charAt(0);
+        columnSize = 0;
+      }
+
+      for (int i = 0; i < columnSize + COLUMN_GAP; i++) {
+        line[length++] = ' ';
+      }
+    }
+
+    printLine(length);
+  }
+
+  private void printDividers() {
+    int length = 0;
+    for (int column = 0; column < header.length; column++) {
+      int columnSize = columnSizes[column];
+      int dividerSize = Math.min(header[column].length(), columnSize);
+
+      ensureCapacity(length + columnSize + COLUMN_GAP);
+
+      for (int i = 0; i < columnSize + COLUMN_GAP; i++) {
+        line[length++] = i < dividerSize ? '¯' : ' ';
+      }
+    }
+
+    printLine(length);
+  }
+
+  private void printLine(int length) {
+    out.append(CharBuffer.wrap(line, 0, length));
+    out.print(LINE_SEPARATOR);
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (line.length < capacity) {
+      char[] newLine = new char[Math.max(capacity, line.length * 2)];
+      System.arraycopy(line, 0, newLine, 0, line.length);
+      line = newLine;
+    }
+  }
+
+  private static String[] toUpperCase(String[] header) {
+    String[] upperCase = new String[header.length];
+    for (int i = 0; i < header.length; i++) {
+      upperCase[i] = header[i].toUpperCase();
+    }
+
+    return upperCase;
+  }
+}
@@ -0,0 +1,251 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Wall time per phase of an invocation, enabled by the global '--timings'
+ * flag. Phases nest per thread; a phase started again under the same parent
+ * adds to the existing one.
+ * <p>
+ * The server response is mapped to objects right after its body is read.
+ * So the time between the end of a body and the next event on the same
+ * thread is reported as 'mapping'.
+ */
+public class Timings {
+  public static final String OPTION = "--timings";
+  public static final String RENDER = "render";
+
+  static final String MAPPING = "mapping";
+
+  private static final Phase NO_PHASE = () -> {
+  };
+
+  //Replaced by Application for each invocation
+  public static Timings instance = new Timings(false);
+
+  private final boolean enabled;
+  private final Entry root = new Entry("total");
+  private final long start;
+  private final Clock clock;
+
+  //Worker threads continue the phase they were started in
+  private final ThreadLocal<Entry> current = new InheritableThreadLocal<>();
+  private final ThreadLocal<Long> bodyRead = new ThreadLocal<>();
+
+  public Timings(boolean enabled) {
+    this(enabled, System::nanoTime);
+  }
+
+  Timings(boolean enabled, Clock clock) {
+    this.enabled = enabled;
+    this.clock = clock;
+    this.start = clock.now();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts a phase below the current one of this thread.
+   */
+  public Phase start(String name) {
+    if (!enabled) {
+      return NO_PHASE;
+    }
+
+    long phaseStart = clock.now();
+    Entry parent = parent();
+    endMapping(parent, phaseStart);
+
+    Entry entry;
+    synchronized (this) {
+      entry = parent.child(name);
+      entry.count++;
+    }
+    current.set(entry);
+
+    return () -> {
+      long end = clock.now();
+      endMapping(entry, end);
+
+      synchronized (this) {
+        entry.nanos += end - phaseStart;
+      }
+      current.set(parent == root ? null : parent);
+    };
+  }
+
+  /**
+   * Marks the start of an HTTP request.
+   *
+   * @return the start time to pass to {@link #http}
+   */
+  public long requestStarted() {
+    if (!enabled) {
+      return 0;
+    }
+
+    long requestStart = clock.now();
+    endMapping(parent(), requestStart);
+
+    return requestStart;
+  }
+
+  /**
+   * Records an HTTP request once its response body was read.
+   */
+  public void http(String method, String path, int status, long bytes,
+      long requestStart) {
+    if (!enabled) {
+      return;
+    }
+
+    long end = clock.now();
+    Entry entry = new Entry(method + " " + path);
+    entry.count = 1;
+    entry.nanos = end - requestStart;
+    entry.attributes.put("method", method);
+    entry.attributes.put("path", path);
+    entry.attributes.put("status", status);
+    entry.attributes.put("bytes", bytes);
+
+    Entry parent = parent();
+    synchronized (this) {
+      parent.children.add(entry);
+    }
+    bodyRead.set(end);
+  }
+
+  /**
+   * Prints all phases, first as text and then as a single line of JSON.
+   */
+  public void report(PrintStream out) {
+    if (!enabled) {
+      return;
+    }
+
+    synchronized (this) {
+      root.count = 1;
+      root.nanos = clock.now() - start;
+
+      out.println("Timings (ms):");
+      print(out, root, "");
+
+      try {
+        out.println(toJson(root).toString());
+      } catch (JSONException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private Entry parent() {
+    Entry parent = current.get();
+
+    return parent != null ? parent : root;
+  }
+
+  private void endMapping(Entry parent, long now) {
+    Long start = bodyRead.get();
+    if (start == null) {
+      return;
+    }
+
+    bodyRead.remove();
+    synchronized (this) {
+      Entry mapping = parent.child(MAPPING);
+      mapping.count++;
+      mapping.nanos += now - start;
+    }
+  }
+
+  private static void print(PrintStream out, Entry entry, String indent) {
+    StringBuilder line = new StringBuilder(indent).append(entry.name);
+    if (entry.attributes.containsKey("status")) {
+      line.append(' ').append(entry.attributes.get("status"))
+          .append(' ').append(entry.attributes.get("bytes")).append(" bytes");
+    }
+    if (entry.count > 1) {
+      line.append(" (").append(entry.count).append("x)");
+    }
+    while (line.length() < 56) {
+      line.append(' ');
+    }
+    out.println(line.append(String.format("%10.1f", toMillis(entry.nanos))));
+
+    for (Entry child : entry.children) {
+      print(out, child, indent + "  ");
+    }
+  }
+
+  private static JSONObject toJson(Entry entry) throws JSONException {
+    JSONObject json = new JSONObject();
+    json.put("name", entry.name);
+    json.put("ms", toMillis(entry.nanos));
+    if (entry.count > 1) {
+      json.put("count", entry.count);
+    }
+    for (Map.Entry<String, Object> attribute : entry.attributes.entrySet()) {
+      json.put(attribute.getKey(), attribute.getValue());
+    }
+
+    if (!entry.children.isEmpty()) {
+      JSONArray children = new JSONArray();
+      for (Entry child : entry.children) {
+        children.put(toJson(child));
+      }
+      json.put("phases", children);
+    }
+
+    return json;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  public interface Phase extends AutoCloseable {
+    @Override void close();
+  }
+
+  /**
+   * Wraps System.nanoTime() for a better testability.
+   */
+  interface Clock {
+    long now();
+  }
+
+  private static final class Entry {
+    private final String name;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final List<Entry> children = new ArrayList<>();
+    private long nanos;
+    private int count;
+
+    private Entry(String name) {
+      this.name = name;
+    }
+
+    private Entry child(String name) {
+      for (Entry child : children) {
+        if (child.name.equals(name) && child.attributes.isEmpty()) {
+          return child;
+        }
+      }
+
+      Entry child = new Entry(name);
+      children.add(child);
+
+      return child;
+    }
+  }
+}
@@ -1,24 +1,32 @@
 package de.ad.tools.redmine.cli;
 
 import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import de.ad.tools.redmine.cli.util.Timings;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.HashMap;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ApplicationTest {
 
   private Application.ConfigurationManager configurationManager;
+  private Application.CacheManager cacheManager;
   private Application.RedmineCliFactory redmineCliFactory;
   private RedmineCli.RedmineManagerFactory redmineManagerFactory;
   private PrintStream out;
@@ -29,6 +37,7 @@ public class ApplicationTest {
   public void setUp() throws Exception {
     configurationManager = mock(
         Application.ConfigurationManager.class);
+    cacheManager = mock(Application.CacheManager.class);
     redmineCliFactory = mock(
         Application.RedmineCliFactory.class);
     out = mock(PrintStream.class);
@@ -38,6 +47,8 @@ public class ApplicationTest {
     when(redmineCliFactory.produce(any(Configuration.class),
         any(PrintStream.class), any(RedmineCli.RedmineManagerFactory.class))).
         thenReturn(redmineCli);
+    when(cacheManager.loadCache(any(Configuration.class))).thenReturn(
+        new ReferenceDataCache());
   }
 
   @Test
@@ -55,19 +66,40 @@ public class ApplicationTest {
   @Test
   public void testRun() throws Exception {
     Application application = new Application(configurationManager,
-        redmineCliFactory, out, redmineManagerFactory);
+        cacheManager, redmineCliFactory, out, redmineManagerFactory);
 
     String[] arguments = new String[] { "arg1", "arg2" };
 
     application.run(arguments);
 
     verify(redmineCli).handleCommand(arguments);
+    verify(cacheManager).persistCache(any(ReferenceDataCache.class));
+  }
+
+  @Test
+  public void testRunWithTimings() throws Exception {
+    Application application = new Application(configurationManager,
+        cacheManager, redmineCliFactory, out, redmineManagerFactory);
+    PrintStream err = System.err;
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    System.setErr(new PrintStream(stream));
+
+    try {
+      application.run("arg1", Timings.OPTION);
+    } finally {
+      System.setErr(err);
+      Timings.instance = new Timings(false);
+    }
+
+    verify(redmineCli).handleCommand(new String[] { "arg1" });
+    assertThat(new String(stream.toByteArray()))
+        .contains("config load", "command construction", "config persist");
   }
 
   @Test
   public void testRunWithException() throws Exception {
     Application application = new Application(configurationManager,
-        redmineCliFactory, out, redmineManagerFactory);
+        cacheManager, redmineCliFactory, out, redmineManagerFactory);
 
     String message = "Exception";
     doThrow(new Exception(message)).when(redmineCli)
@@ -99,13 +131,44 @@ public class ApplicationTest {
           new Application.ConfigurationManager(
               Application.LOCAL_CONFIGURATION_FILE_NAME);
 
-      Configuration expected = new Configuration();
-      when(impl.readObjectFromFile(
-          Application.LOCAL_CONFIGURATION_FILE_NAME)).thenReturn(expected);
+      Configuration expected = createDummyConfiguration();
+      when(impl.exists(Application.LOCAL_CONFIGURATION_FILE_NAME)).thenReturn(
+          true);
+      when(impl.readFile(Application.LOCAL_CONFIGURATION_FILE_NAME))
+          .thenReturn(expected.toByteArray());
+
+      Configuration actual = configurationManager.loadConfiguration();
+
+      assertThat(actual).isEqualTo(expected);
+      assertThat(actual.isDirty()).isFalse();
+    }
+
+    @Test
+    public void testLoadConfigurationWhenNotExisting() throws Exception {
+      Application.ConfigurationManager configurationManager =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+
+      Configuration actual = configurationManager.loadConfiguration();
+
+      assertThat(actual).isEqualTo(new Configuration());
+    }
+
+    @Test
+    public void testLoadSerializedConfiguration() throws Exception {
+      FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+      Application.ConfigurationManager configurationManager =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+
+      Configuration expected = createDummyConfiguration();
+      FileUtil.writeObjectToFile(expected,
+          Application.LOCAL_CONFIGURATION_FILE_NAME);
 
       Configuration actual = configurationManager.loadConfiguration();
 
       assertThat(actual).isEqualTo(expected);
+      assertThat(actual.isDirty()).isTrue();
     }
 
     @Test
@@ -117,9 +180,29 @@ public class ApplicationTest {
       when(impl.exists(Application.LOCAL_CONFIGURATION_FILE_NAME)).thenReturn(
           true);
       doThrow(IOException.class).when(impl)
-          .readObjectFromFile(Application.LOCAL_CONFIGURATION_FILE_NAME);
+          .readFile(Application.LOCAL_CONFIGURATION_FILE_NAME);
+
+      exception.expect(IllegalStateException.class);
+      configurationManager.loadConfiguration();
+    }
+
+    @Test
+    public void testLoadConfigurationWithUnsupportedVersion()
+        throws Exception {
+      Application.ConfigurationManager configurationManager =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+
+      byte[] content = new Configuration().toByteArray();
+      content[7] = 99;
+      when(impl.exists(Application.LOCAL_CONFIGURATION_FILE_NAME)).thenReturn(
+          true);
+      when(impl.readFile(Application.LOCAL_CONFIGURATION_FILE_NAME))
+          .thenReturn(content);
 
       exception.expect(IllegalStateException.class);
+      exception.expectMessage(
+          String.format(Configuration.UNSUPPORTED_FORMAT_MESSAGE, 99));
       configurationManager.loadConfiguration();
     }
 
@@ -129,11 +212,82 @@ public class ApplicationTest {
           new Application.ConfigurationManager(
               Application.LOCAL_CONFIGURATION_FILE_NAME);
 
-      Configuration configuration = new Configuration();
+      Configuration configuration = createDummyConfiguration();
       configurationManager.persistConfiguration(configuration);
 
-      verify(impl).writeObjectToFile(configuration,
-          Application.LOCAL_CONFIGURATION_FILE_NAME);
+      ArgumentCaptor<FileUtil.Update> update =
+          ArgumentCaptor.forClass(FileUtil.Update.class);
+      verify(impl).updateFile(eq(Application.LOCAL_CONFIGURATION_FILE_NAME),
+          update.capture());
+      assertThat(update.getValue().apply(null))
+          .isEqualTo(configuration.toByteArray());
+      assertThat(configuration.isDirty()).isFalse();
+    }
+
+    @Test
+    public void testPersistConcurrentlyChangedConfiguration()
+        throws Exception {
+      FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+      Application.ConfigurationManager first =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+      Application.ConfigurationManager second =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+      first.persistConfiguration(createDummyConfiguration());
+
+      Configuration firstConfiguration = first.loadConfiguration();
+      Configuration secondConfiguration = second.loadConfiguration();
+      firstConfiguration.setSetting(Configuration.CACHE_TTL, "60");
+      secondConfiguration.setSetting(Configuration.PAGE_SIZE, "25");
+      first.persistConfiguration(firstConfiguration);
+      second.persistConfiguration(secondConfiguration);
+
+      Configuration actual = new Application.ConfigurationManager(
+          Application.LOCAL_CONFIGURATION_FILE_NAME).loadConfiguration();
+
+      assertThat(actual.getServer()).isEqualTo("http://test.redmine.com");
+      assertThat(actual.getSetting(Configuration.CACHE_TTL)).isEqualTo("60");
+      assertThat(actual.getSetting(Configuration.PAGE_SIZE)).isEqualTo("25");
+      assertThat(secondConfiguration).isEqualTo(actual);
+    }
+
+    @Test
+    public void testPersistConcurrentlyResetConfiguration() throws Exception {
+      FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+      Application.ConfigurationManager first =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+      Application.ConfigurationManager second =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+      first.persistConfiguration(createDummyConfiguration());
+
+      Configuration firstConfiguration = first.loadConfiguration();
+      Configuration secondConfiguration = second.loadConfiguration();
+      firstConfiguration.reset();
+      secondConfiguration.setSetting(Configuration.CACHE_TTL, "60");
+      first.persistConfiguration(firstConfiguration);
+      second.persistConfiguration(secondConfiguration);
+
+      Configuration actual = new Application.ConfigurationManager(
+          Application.LOCAL_CONFIGURATION_FILE_NAME).loadConfiguration();
+
+      assertThat(actual.isConnected()).isFalse();
+      assertThat(actual.getSettings())
+          .containsOnlyKeys(Configuration.CACHE_TTL);
+    }
+
+    @Test
+    public void testPersistUnchangedConfiguration() throws Exception {
+      Application.ConfigurationManager configurationManager =
+          new Application.ConfigurationManager(
+              Application.LOCAL_CONFIGURATION_FILE_NAME);
+
+      configurationManager.persistConfiguration(new Configuration());
+
+      verify(impl, never()).updateFile(any(String.class),
+          any(FileUtil.Update.class));
     }
 
     @Test
@@ -142,13 +296,105 @@ public class ApplicationTest {
           new Application.ConfigurationManager(
               Application.LOCAL_CONFIGURATION_FILE_NAME);
 
-      Configuration configuration = new Configuration();
+      Configuration configuration = createDummyConfiguration();
 
       doThrow(IOException.class).when(impl)
-          .writeObjectToFile(configuration,
-              Application.LOCAL_CONFIGURATION_FILE_NAME);
+          .updateFile(eq(Application.LOCAL_CONFIGURATION_FILE_NAME),
+              any(FileUtil.Update.class));
 
       configurationManager.persistConfiguration(configuration);
+
+      assertThat(configuration.isDirty()).isTrue();
+    }
+
+    private Configuration createDummyConfiguration() {
+      Configuration configuration = new Configuration();
+      configuration.setServer("http://test.redmine.com");
+      configuration.setApiKey("1234567890");
+      configuration.setSetting(Configuration.PAGE_SIZE, "50");
+
+      return configuration;
+    }
+  }
+
+  public static class CacheManagerTest {
+
+    private FileUtil.FileUtilImpl impl;
+    private Application.CacheManager cacheManager;
+
+    @Before
+    public void setUp() throws Exception {
+      impl = mock(FileUtil.FileUtilImpl.class);
+      FileUtil.impl = impl;
+
+      cacheManager =
+          new Application.CacheManager(Application.LOCAL_CACHE_FILE_NAME);
+    }
+
+    @Test
+    public void testLoadCacheWhenNotCached() throws Exception {
+      Configuration configuration = new Configuration();
+      configuration.setServer("http://test.redmine.com");
+
+      ReferenceDataCache actual = cacheManager.loadCache(configuration);
+
+      assertThat(actual.isBound()).isTrue();
+    }
+
+    @Test
+    public void testLoadCache() throws Exception {
+      ReferenceDataCache expected = new ReferenceDataCache();
+      when(impl.exists(Application.LOCAL_CACHE_FILE_NAME)).thenReturn(true);
+      when(impl.readObjectFromFile(Application.LOCAL_CACHE_FILE_NAME))
+          .thenReturn(expected);
+
+      ReferenceDataCache actual = cacheManager.loadCache(new Configuration());
+
+      assertThat(actual).isSameAs(expected);
+    }
+
+    @Test
+    public void testLoadCacheWithException() throws Exception {
+      when(impl.exists(Application.LOCAL_CACHE_FILE_NAME)).thenReturn(true);
+      doThrow(IOException.class).when(impl)
+          .readObjectFromFile(Application.LOCAL_CACHE_FILE_NAME);
+
+      ReferenceDataCache actual = cacheManager.loadCache(new Configuration());
+
+      assertThat(actual).isNotNull();
+    }
+
+    @Test
+    public void testLoadCacheWithDisabledCache() throws Exception {
+      Configuration configuration = new Configuration();
+      configuration.setServer("http://test.redmine.com");
+      configuration.setSetting(Configuration.CACHE_TTL, "0");
+
+      ReferenceDataCache actual = cacheManager.loadCache(configuration);
+
+      assertThat(actual.isBound()).isFalse();
+    }
+
+    @Test
+    public void testPersistCache() throws Exception {
+      Configuration configuration = new Configuration();
+      configuration.setServer("http://test.redmine.com");
+      ReferenceDataCache cache = cacheManager.loadCache(configuration);
+      cache.update(ReferenceDataCache.STATUSES, new HashMap<>());
+
+      cacheManager.persistCache(cache);
+
+      verify(impl).writeObjectToFile(cache,
+          Application.LOCAL_CACHE_FILE_NAME);
+    }
+
+    @Test
+    public void testPersistUnchangedCache() throws Exception {
+      ReferenceDataCache cache = new ReferenceDataCache();
+
+      cacheManager.persistCache(cache);
+
+      verify(impl, never()).writeObjectToFile(any(), any(String.class));
     }
   }
 
@@ -0,0 +1,64 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.command.Command;
+import de.ad.tools.redmine.cli.command.ResetCommand;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class CommandRegistryTest {
+  private CommandRegistry registry;
+  private List<String> created;
+
+  @Before
+  public void setUp() throws Exception {
+    registry = new CommandRegistry();
+    created = new ArrayList<>();
+
+    registry.register("first", () -> createCommand("first"));
+    registry.register("second", () -> createCommand("second"));
+  }
+
+  @Test
+  public void testContainsKeyDoesNotCreateCommands() throws Exception {
+    assertThat(registry.containsKey("first")).isTrue();
+    assertThat(registry.containsKey("invalid")).isFalse();
+    assertThat(registry.size()).isEqualTo(2);
+
+    assertThat(created).isEmpty();
+  }
+
+  @Test
+  public void testGetCreatesCommandOnce() throws Exception {
+    Command command = registry.get("second");
+
+    assertThat(registry.get("second")).isSameAs(command);
+    assertThat(registry.get("invalid")).isNull();
+    assertThat(created).containsExactly("second");
+    assertThat(registry.isCreated("first")).isFalse();
+  }
+
+  @Test
+  public void testEntrySetKeepsRegistrationOrder() throws Exception {
+    List<String> names = new ArrayList<>();
+    for (Map.Entry<String, Command> entry : registry.entrySet()) {
+      names.add(entry.getKey());
+    }
+
+    assertThat(names).containsExactly("first", "second");
+    assertThat(created).containsExactly("first", "second");
+  }
+
+  private Command createCommand(String name) {
+    created.add(name);
+
+    return new ResetCommand(mock(Configuration.class),
+        mock(PrintStream.class));
+  }
+}
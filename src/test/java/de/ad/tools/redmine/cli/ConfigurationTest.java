@@ -1,5 +1,6 @@
 package de.ad.tools.redmine.cli;
 
+import java.io.IOException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -59,6 +60,42 @@ public class ConfigurationTest {
     assertThat(configuration.getApiKey()).isNull();
   }
 
+  @Test
+  public void testSetting() throws Exception {
+    configuration.setSetting("key", "value");
+
+    assertThat(configuration.getSetting("key")).isEqualTo("value");
+    assertThat(configuration.getSettings()).containsEntry("key", "value");
+  }
+
+  @Test
+  public void testRemoveSetting() throws Exception {
+    configuration.setSetting("key", "value");
+
+    configuration.setSetting("key", null);
+
+    assertThat(configuration.getSetting("key")).isNull();
+  }
+
+  @Test
+  public void testIntSetting() throws Exception {
+    configuration.setSetting("number", "42");
+    configuration.setSetting("text", "text");
+
+    assertThat(configuration.getIntSetting("number", 1)).isEqualTo(42);
+    assertThat(configuration.getIntSetting("text", 1)).isEqualTo(1);
+    assertThat(configuration.getIntSetting("missing", 1)).isEqualTo(1);
+  }
+
+  @Test
+  public void testResetSettings() throws Exception {
+    configuration.setSetting("key", "value");
+
+    configuration.reset();
+
+    assertThat(configuration.getSettings()).isEmpty();
+  }
+
   @Test
   public void testEquals() throws Exception {
     Configuration configuration1 = new Configuration();
@@ -74,4 +111,44 @@ public class ConfigurationTest {
 
     assertThat(configuration1.hashCode()).isEqualTo(configuration2.hashCode());
   }
+
+  @Test
+  public void testIsDirty() throws Exception {
+    assertThat(configuration.isDirty()).isFalse();
+
+    configuration.setServer("server");
+
+    assertThat(configuration.isDirty()).isTrue();
+  }
+
+  @Test
+  public void testIsNotDirtyWhenUnchanged() throws Exception {
+    configuration.setServer("server");
+    configuration.setSetting(Configuration.PAGE_SIZE, "50");
+    configuration.setDirty(false);
+
+    configuration.setServer("server");
+    configuration.setSetting(Configuration.PAGE_SIZE, "50");
+    configuration.setSetting(Configuration.CACHE_TTL, null);
+
+    assertThat(configuration.isDirty()).isFalse();
+  }
+
+  @Test
+  public void testFormat() throws Exception {
+    configuration.setServer("http://test.redmine.com");
+    configuration.setSetting(Configuration.PAGE_SIZE, "50");
+
+    Configuration result =
+        Configuration.fromByteArray(configuration.toByteArray());
+
+    assertThat(result).isEqualTo(configuration);
+    assertThat(result.getApiKey()).isNull();
+    assertThat(result.isDirty()).isFalse();
+  }
+
+  @Test(expected = IOException.class)
+  public void testFormatWithInvalidContent() throws Exception {
+    Configuration.fromByteArray(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+  }
 }
@@ -0,0 +1,328 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DaemonTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private Application.ConfigurationManager configurationManager;
+  private Application.CacheManager cacheManager;
+  private Application.RedmineCliFactory redmineCliFactory;
+  private RedmineCli redmineCli;
+  private PrintStream cliOut;
+
+  private Daemon daemon;
+  private Thread daemonThread;
+  private File daemonFile;
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    daemonFile = new File(tmpFolder.getRoot(), Daemon.DAEMON_FILE_NAME);
+
+    configurationManager = mock(Application.ConfigurationManager.class);
+    cacheManager = mock(Application.CacheManager.class);
+    redmineCliFactory = mock(Application.RedmineCliFactory.class);
+    redmineCli = mock(RedmineCli.class);
+
+    when(configurationManager.loadConfiguration()).thenReturn(
+        new Configuration());
+    when(cacheManager.loadCache(any(Configuration.class))).thenReturn(
+        new ReferenceDataCache());
+    when(redmineCliFactory.produce(any(Configuration.class),
+        any(PrintStream.class), any(RedmineCli.RedmineManagerFactory.class)))
+        .thenAnswer(invocation -> {
+          cliOut = (PrintStream) invocation.getArguments()[1];
+          return redmineCli;
+        });
+    doAnswer(invocation -> {
+      String[] args = (String[]) invocation.getArguments()[0];
+      cliOut.println("handled " + String.join(" ", args));
+      return null;
+    }).when(redmineCli).handleCommand(any(String[].class));
+
+    daemon = new Daemon(configurationManager, cacheManager, redmineCliFactory,
+        mock(PrintStream.class), mock(RedmineCli.RedmineManagerFactory.class));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (daemonThread != null) {
+      daemon.stop();
+      daemonThread.join(5000);
+    }
+
+    Daemon.requestTimeout = 5000;
+    DaemonClient.acceptTimeout = 2000;
+
+    FileUtil.impl = new FileUtil.FileUtilImpl(new File("."));
+  }
+
+  @Test
+  public void testForward() throws Exception {
+    startDaemon();
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(stream);
+
+    assertThat(DaemonClient.forward(new String[] { "issues" }, out)).isTrue();
+    assertThat(DaemonClient.forward(new String[] { "issue", "1" }, out))
+        .isTrue();
+
+    assertThat(new String(stream.toByteArray())).isEqualTo(
+        "handled issues" + System.lineSeparator() + "handled issue 1"
+            + System.lineSeparator());
+
+    verify(redmineCliFactory, times(1)).produce(any(Configuration.class),
+        any(PrintStream.class), any(RedmineCli.RedmineManagerFactory.class));
+    verify(configurationManager, times(2)).persistConfiguration(
+        any(Configuration.class));
+    verify(cacheManager, times(2)).persistCache(
+        any(ReferenceDataCache.class));
+  }
+
+  @Test
+  public void testReloadsChangedConfiguration() throws Exception {
+    when(configurationManager.getLastModified()).thenReturn(1L);
+    startDaemon();
+
+    DaemonClient.forward(new String[] { "issues" }, mock(PrintStream.class));
+
+    Configuration changed = new Configuration();
+    changed.setServer("http://other.redmine.com");
+    when(configurationManager.getLastModified()).thenReturn(2L);
+    when(configurationManager.loadConfiguration()).thenReturn(changed);
+
+    DaemonClient.forward(new String[] { "issues" }, mock(PrintStream.class));
+    DaemonClient.forward(new String[] { "issues" }, mock(PrintStream.class));
+
+    verify(configurationManager, times(2)).loadConfiguration();
+    verify(redmineCliFactory).produce(eq(changed), any(PrintStream.class),
+        any(RedmineCli.RedmineManagerFactory.class));
+    verify(redmineCliFactory, times(2)).produce(any(Configuration.class),
+        any(PrintStream.class), any(RedmineCli.RedmineManagerFactory.class));
+  }
+
+  @Test
+  public void testForwardWithException() throws Exception {
+    doAnswer(invocation -> {
+      throw new Exception("Exception");
+    }).when(redmineCli).handleCommand(any(String[].class));
+    startDaemon();
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    DaemonClient.forward(new String[] { "issues" }, new PrintStream(stream));
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("Exception");
+  }
+
+  @Test
+  public void testBatchFromStandardInputRunsLocally() throws Exception {
+    startDaemon();
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(stream);
+
+    assertThat(DaemonClient.forward(new String[] { "batch" }, out)).isFalse();
+    assertThat(DaemonClient.forward(
+        new String[] { "batch", "--parallel" }, out)).isFalse();
+    assertThat(DaemonClient.forward(
+        new String[] { "batch", "--parallel", "commands.txt" }, out)).isTrue();
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("handled batch --parallel commands.txt");
+  }
+
+  @Test
+  public void testForwardWithInvalidToken() throws Exception {
+    startDaemon();
+
+    List<String> lines =
+        Files.readAllLines(daemonFile.toPath(), StandardCharsets.UTF_8);
+    Files.write(daemonFile.toPath(), Arrays.asList(lines.get(0), "invalid"),
+        StandardCharsets.UTF_8);
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    DaemonClient.forward(new String[] { "issues" }, new PrintStream(stream));
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo(Daemon.INVALID_TOKEN_MESSAGE);
+    verify(redmineCli, times(0)).handleCommand(any(String[].class));
+  }
+
+  @Test
+  public void testInvalidArgumentCount() throws Exception {
+    startDaemon();
+
+    List<String> lines =
+        Files.readAllLines(daemonFile.toPath(), StandardCharsets.UTF_8);
+    for (int count : new int[] { -1, 0, Integer.MAX_VALUE }) {
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+          Integer.parseInt(lines.get(0)))) {
+        DataOutputStream request =
+            new DataOutputStream(socket.getOutputStream());
+        request.writeUTF(lines.get(1));
+        request.writeInt(count);
+        request.flush();
+
+        assertThat(new BufferedReader(new InputStreamReader(
+            socket.getInputStream(), StandardCharsets.UTF_8)).readLine())
+            .isEqualTo(Daemon.INVALID_REQUEST_MESSAGE);
+      }
+    }
+
+    //The daemon is still serving
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    DaemonClient.forward(new String[] { "issues" }, new PrintStream(stream));
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("handled issues");
+    verify(redmineCli, times(1)).handleCommand(any(String[].class));
+  }
+
+  @Test
+  public void testBusyDaemonFallsBackToLocalProcessing() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      String[] args = (String[]) invocation.getArguments()[0];
+      if (args[0].equals("sync")) {
+        started.countDown();
+        release.await(5, TimeUnit.SECONDS);
+      }
+      cliOut.println("handled " + String.join(" ", args));
+      return null;
+    }).when(redmineCli).handleCommand(any(String[].class));
+    DaemonClient.acceptTimeout = 200;
+    startDaemon();
+
+    Thread sync = new Thread(() -> DaemonClient.forward(
+        new String[] { "sync" }, mock(PrintStream.class)));
+    sync.start();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(DaemonClient.forward(new String[] { "issues" },
+        mock(PrintStream.class))).isFalse();
+
+    release.countDown();
+    sync.join(5000);
+
+    //The abandoned request is skipped, not run a second time
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    DaemonClient.acceptTimeout = 2000;
+    assertThat(DaemonClient.forward(new String[] { "issue", "1" },
+        new PrintStream(stream))).isTrue();
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("handled issue 1");
+    verify(redmineCli, never()).handleCommand(new String[] { "issues" });
+  }
+
+  @Test
+  public void testSilentClientDoesNotBlockDaemon() throws Exception {
+    Daemon.requestTimeout = 200;
+    startDaemon();
+
+    List<String> lines =
+        Files.readAllLines(daemonFile.toPath(), StandardCharsets.UTF_8);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+        Integer.parseInt(lines.get(0)))) {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+      assertThat(DaemonClient.forward(new String[] { "issues" },
+          new PrintStream(stream))).isTrue();
+
+      assertThat(new String(stream.toByteArray()).trim())
+          .isEqualTo("handled issues");
+    }
+  }
+
+  @Test
+  public void testStop() throws Exception {
+    startDaemon();
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    assertThat(DaemonClient.forward(new String[] { Daemon.STOP_OPTION },
+        new PrintStream(stream))).isTrue();
+    daemonThread.join(5000);
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo(Daemon.STOPPED_MESSAGE);
+    assertThat(daemonThread.isAlive()).isFalse();
+    assertThat(daemonFile.exists()).isFalse();
+  }
+
+  @Test
+  public void testForwardWithoutDaemon() throws Exception {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(stream);
+
+    assertThat(DaemonClient.forward(new String[] { "issues" }, out)).isFalse();
+    assertThat(DaemonClient.forward(new String[] { Daemon.STOP_OPTION }, out))
+        .isTrue();
+
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo(DaemonClient.NOT_RUNNING_MESSAGE);
+  }
+
+  @Test
+  public void testForwardWithStaleDaemonFile() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    Files.write(daemonFile.toPath(),
+        Arrays.asList(String.valueOf(port), "token"), StandardCharsets.UTF_8);
+
+    PrintStream out = mock(PrintStream.class);
+
+    assertThat(DaemonClient.forward(new String[] { "issues" }, out)).isFalse();
+    assertThat(daemonFile.exists()).isFalse();
+  }
+
+  private void startDaemon() throws Exception {
+    daemonThread = new Thread(daemon::run);
+    daemonThread.start();
+
+    for (int i = 0; i < 100 && !daemonFile.exists(); i++) {
+      Thread.sleep(50);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package de.ad.tools.redmine.cli;
+
+import de.ad.tools.redmine.cli.test.FakeRedmineServer;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Runs the executable given by the system property 'native.image' against a
+ * {@link FakeRedmineServer}. Skipped without it, see 'gradle
+ * nativeImageSmokeTest'. 'java -jar &lt;jar&gt;' works as well.
+ */
+public class NativeImageSmokeTest {
+  static final String EXECUTABLE_PROPERTY = "native.image";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private String executable;
+  private FakeRedmineServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    executable = System.getProperty(EXECUTABLE_PROPERTY);
+    assumeNotNull(executable);
+
+    server = new FakeRedmineServer().withProjects(2).withIssues(150)
+        .start();
+
+    assertThat(run("connect", server.getUrl(), FakeRedmineServer.API_KEY))
+        .contains("Successfully connected user 'user1'");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Test
+  public void testReadCommands() throws Exception {
+    assertThat(run("help")).contains("connect").contains("issues");
+    assertThat(run("projects")).contains("project-2");
+    assertThat(run("project", "project-1")).contains("User 5");
+    assertThat(run("list", "status")).contains("In Progress");
+    assertThat(run("issues", "--status=New,Closed")).contains("Closed");
+    assertThat(run("issue", "1")).contains("#1");
+    assertThat(run("history", "1")).contains("Note 2 on #1");
+  }
+
+  @Test
+  public void testWriteCommands() throws Exception {
+    assertThat(run("create-issue", "project-1", "Smoke test"))
+        .contains("#151");
+    assertThat(run("update-issue", "151", "--status=Resolved"))
+        .contains("#151");
+    assertThat(run("issue", "151")).contains("Resolved");
+  }
+
+  //The mirror, the index and the reference data are serialized to disk
+  @Test
+  public void testOfflineCommands() throws Exception {
+    assertThat(run("sync", "Project 1")).contains("Project 1");
+    assertThat(run("search", "login")).isNotEmpty();
+    assertThat(run("issues", "--offline")).contains("#");
+    assertThat(run("issue", "1", "--offline")).contains("#1");
+  }
+
+  private String run(String... args) throws Exception {
+    List<String> command =
+        new ArrayList<>(Arrays.asList(executable.split(" ")));
+    command.addAll(Arrays.asList(args));
+
+    Process process = new ProcessBuilder(command)
+        .directory(tmpFolder.getRoot()).redirectErrorStream(true).start();
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (InputStream in = process.getInputStream()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+    }
+
+    assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+    assertThat(process.exitValue()).as(output.toString("UTF-8")).isZero();
+
+    return output.toString("UTF-8");
+  }
+}
@@ -3,6 +3,8 @@ package de.ad.tools.redmine.cli;
 import com.taskadapter.redmineapi.RedmineManager;
 import com.taskadapter.redmineapi.internal.Transport;
 import com.taskadapter.redmineapi.internal.URIConfigurator;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.LazyHttpClient;
 import java.lang.reflect.Field;
 import java.net.URL;
 import org.junit.Before;
@@ -13,7 +15,11 @@ import org.junit.rules.ExpectedException;
 import java.io.PrintStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RedmineCliTest {
@@ -86,6 +92,34 @@ public class RedmineCliTest {
     redmineCli.handleCommand(arguments);
   }
 
+  @Test
+  public void testHandleCommandCreatesNoRedmineManager() throws Exception {
+    redmineCli.handleCommand(new String[] { "config" });
+
+    verify(redmineManagerFactory, never()).createWithApiKey(anyString(),
+        anyString());
+    verify(redmineManagerFactory, never()).createIssuePager(anyString(),
+        anyString());
+  }
+
+  @Test
+  public void testHandleCommandCreatesRedmineManagerOnce() throws Exception {
+    RedmineManager redmineManager = mock(RedmineManager.class);
+    when(redmineManagerFactory.createWithApiKey(anyString(), anyString()))
+        .thenReturn(redmineManager);
+
+    redmineCli.handleCommand(new String[] { "help" });
+    redmineCli.handleCommand(new String[] { "help", "issues" });
+
+    verify(redmineManagerFactory, times(1)).createWithApiKey(
+        "http://test.redmine.com", "1234567890");
+  }
+
+  @Test
+  public void testConfiguresTransport() throws Exception {
+    verify(redmineManagerFactory).configure(configuration);
+  }
+
   @Test
   public void testEquals() throws Exception {
     RedmineCli redmineCli1 = new RedmineCli(configuration, out,
@@ -127,6 +161,33 @@ public class RedmineCliTest {
       assertThat(apiAccessKey).isEqualTo(apiKey);
     }
 
+    @Test
+    public void testCreateIssuePager() throws Exception {
+      RedmineCli.RedmineManagerFactory redmineManagerFactory =
+          new RedmineCli.RedmineManagerFactory();
+
+      IssuePager result = redmineManagerFactory.createIssuePager(
+          "http://test.redmine.com", "apiKey");
+
+      assertThat(result).isNotNull();
+    }
+
+    @Test
+    public void testHttpClientIsCreatedLazily() throws Exception {
+      RedmineCli.RedmineManagerFactory redmineManagerFactory =
+          new RedmineCli.RedmineManagerFactory();
+
+      redmineManagerFactory.createWithApiKey("http://test.redmine.com",
+          "apiKey");
+      redmineManagerFactory.createIssuePager("http://test.redmine.com",
+          "apiKey");
+
+      LazyHttpClient httpClient =
+          reflectField(redmineManagerFactory, "httpClient");
+
+      assertThat(httpClient.isInitialized()).isFalse();
+    }
+
     private <T> T reflectField(Object subject, String fieldName)
         throws NoSuchFieldException, IllegalAccessException {
       Field field = subject.getClass().getDeclaredField(fieldName);
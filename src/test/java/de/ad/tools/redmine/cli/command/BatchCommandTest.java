@@ -0,0 +1,192 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.RedmineCli;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchCommandTest {
+  private static final String COMMANDS = "issues --status=\"In Progress\"\n"
+      + "\n"
+      + "# Comment\n"
+      + "  issue 1  \n";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  private Configuration configuration;
+  private PrintStream out;
+  private ByteArrayOutputStream stream;
+  private RedmineCli redmineCli;
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = mock(Configuration.class);
+
+    stream = new ByteArrayOutputStream();
+    out = new PrintStream(stream);
+
+    redmineCli = mock(RedmineCli.class);
+  }
+
+  @Test
+  public void testCommandFromStandardInput() throws Exception {
+    BatchCommand command = createCommand(COMMANDS);
+
+    command.process(new String[0]);
+
+    verifyCommands();
+  }
+
+  @Test
+  public void testCommandFromFile() throws Exception {
+    File file = tmpFolder.newFile();
+    Files.write(file.toPath(), COMMANDS.getBytes(StandardCharsets.UTF_8));
+
+    BatchCommand command = createCommand("");
+
+    command.process(new String[] { file.getPath() });
+
+    verifyCommands();
+  }
+
+  @Test
+  public void testCommandWithMissingFile() throws Exception {
+    String file = new File(tmpFolder.getRoot(), "missing").getPath();
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(BatchCommand.INVALID_FILE_MESSAGE, file));
+
+    createCommand("").process(new String[] { file });
+  }
+
+  @Test
+  public void testCommandContinuesAfterFailure() throws Exception {
+    doThrow(new Exception("Failure 100%"))
+        .when(redmineCli).handleCommand(new String[] { "issue", "1" });
+
+    BatchCommand command = createCommand("issue 1\nissue 2\n");
+
+    command.process(new String[0]);
+
+    verify(redmineCli).handleCommand(new String[] { "issue", "2" });
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("Failure 100%");
+  }
+
+  @Test
+  public void testNestedBatch() throws Exception {
+    BatchCommand command = createCommand("batch other.txt\n");
+
+    command.process(new String[0]);
+
+    verify(redmineCli, never()).handleCommand(any(String[].class));
+    assertThat(new String(stream.toByteArray()).trim()).isEqualTo(
+        String.format(BatchCommand.NESTED_BATCH_MESSAGE, "batch"));
+  }
+
+  @Test
+  public void testParallelKeepsOrderOfLines() throws Exception {
+    CountDownLatch secondDone = new CountDownLatch(1);
+    RedmineCli.RedmineManagerFactory factory =
+        mock(RedmineCli.RedmineManagerFactory.class);
+    when(redmineCli.withOutput(any(PrintStream.class))).thenAnswer(
+        invocation -> new RedmineCli(configuration,
+            (PrintStream) invocation.getArguments()[0], factory) {
+          @Override public void handleCommand(String[] args)
+              throws Exception {
+            if (args[1].equals("1")) {
+              //The first line only finishes after the second one
+              assertThat(secondDone.await(5, TimeUnit.SECONDS)).isTrue();
+              println("first");
+            } else {
+              println("second");
+              secondDone.countDown();
+            }
+          }
+
+          private void println(String s) {
+            ((PrintStream) invocation.getArguments()[0]).println(s);
+          }
+        });
+
+    BatchCommand command = createCommand("issue 1\nissue 2\n");
+
+    command.process(new String[] { "--parallel" });
+
+    assertThat(new String(stream.toByteArray()).split("\\R"))
+        .containsExactly("first", "second");
+  }
+
+  @Test
+  public void testParallelRunsOtherCommandsInOrder() throws Exception {
+    RedmineCli lineCli = mock(RedmineCli.class);
+    when(redmineCli.withOutput(any(PrintStream.class))).thenReturn(lineCli);
+
+    BatchCommand command =
+        createCommand("issue 1\nupdate-issue 1 --status=Closed\nissue 1\n");
+
+    command.process(new String[] { "--parallel" });
+
+    InOrder inOrder = inOrder(lineCli, redmineCli);
+    inOrder.verify(lineCli).handleCommand(new String[] { "issue", "1" });
+    inOrder.verify(redmineCli).handleCommand(
+        new String[] { "update-issue", "1", "--status=Closed" });
+    inOrder.verify(lineCli).handleCommand(new String[] { "issue", "1" });
+  }
+
+  @Test
+  public void testParallelContinuesAfterFailure() throws Exception {
+    RedmineCli lineCli = mock(RedmineCli.class);
+    when(redmineCli.withOutput(any(PrintStream.class))).thenReturn(lineCli);
+    doThrow(new Exception("Failure 100%"))
+        .when(lineCli).handleCommand(new String[] { "issue", "1" });
+
+    BatchCommand command = createCommand("issue 1\nissue 2\n");
+
+    command.process(new String[] { "--parallel" });
+
+    verify(lineCli).handleCommand(new String[] { "issue", "2" });
+    assertThat(new String(stream.toByteArray()).trim())
+        .isEqualTo("Failure 100%");
+  }
+
+  private BatchCommand createCommand(String input) {
+    return new BatchCommand(configuration, out, redmineCli,
+        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void verifyCommands() throws Exception {
+    InOrder inOrder = inOrder(redmineCli);
+    inOrder.verify(redmineCli).handleCommand(
+        new String[] { "issues", "--status=In Progress" });
+    inOrder.verify(redmineCli).handleCommand(new String[] { "issue", "1" });
+    inOrder.verifyNoMoreInteractions();
+  }
+}
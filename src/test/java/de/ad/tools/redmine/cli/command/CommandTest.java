@@ -7,6 +7,15 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -184,4 +193,188 @@ public class CommandTest {
     exception.expectMessage(message);
     command.process(arguments);
   }
+
+  @Test
+  public void testFlagOption() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("dry-run", "This is a flag", true),
+        new Command.Option("max-age", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    Command.Invocation invocation =
+        command.parse(new String[] { "--dry-run", "--max-age=5" });
+
+    assertThat(invocation.getValue(commandOptions[0])).isEqualTo("true");
+    assertThat(invocation.getValue(commandOptions[1])).isEqualTo("5");
+  }
+
+  @Test
+  public void testFlagOptionWithValue() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("offline", "This is a flag", true)
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(Command.INVALID_OPTION_MESSAGE, "--offline=yes"));
+    command.process(new String[] { "--offline=yes" });
+  }
+
+  @Test
+  public void testOptionWithoutValue() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("opt", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(Command.INVALID_OPTION_MESSAGE, "--opt"));
+    command.process(new String[] { "--opt" });
+  }
+
+  @Test
+  public void testOptionWithSeparateValue() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("status", "This is an option"),
+        new Command.Option("offline", "This is a flag", true)
+    };
+    Command.Argument[] commandArguments = new Command.Argument[] {
+        new Command.TextArgument("arg1", "test", true) };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        commandArguments, commandOptions, configuration, out);
+
+    Command.Invocation invocation = command.parse(
+        new String[] { "--status", "In Progress", "--offline", "val1" });
+
+    assertThat(invocation.getValue(commandOptions[0]))
+        .isEqualTo("In Progress");
+    assertThat(invocation.getValue(commandOptions[1])).isEqualTo("true");
+    assertThat(invocation.getValue(
+        (Command.TextArgument) commandArguments[0])).isEqualTo("val1");
+  }
+
+  @Test
+  public void testOptionWithQuotedUnicodeValue() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("subject", "This is an option"),
+        new Command.Option("from", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    Command.Invocation invocation = command.parse(new String[] {
+        "--subject=\"Gr\u00f6\u00dfe, Stra\u00dfe & \u6771\u4eac \u2013 v1.2\"",
+        "--from=../issues-2015.csv" });
+
+    assertThat(invocation.getValue(commandOptions[0]))
+        .isEqualTo("Gr\u00f6\u00dfe, Stra\u00dfe & \u6771\u4eac \u2013 v1.2");
+    assertThat(invocation.getValue(commandOptions[1]))
+        .isEqualTo("../issues-2015.csv");
+  }
+
+  @Test
+  public void testRepeatedOption() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("status", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    Command.Invocation invocation = command.parse(
+        new String[] { "--status=New", "--status", "In Progress" });
+
+    assertThat(invocation.getValues(commandOptions[0]))
+        .containsExactly("New", "In Progress");
+    assertThat(invocation.getValue(commandOptions[0]))
+        .isEqualTo("In Progress");
+  }
+
+  @Test
+  public void testOptionFollowedByOption() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("opt", "This is an option"),
+        new Command.Option("other", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(Command.INVALID_OPTION_MESSAGE, "--opt"));
+    command.process(new String[] { "--opt", "--other=v" });
+  }
+
+  @Test
+  public void testOptionWithEmptyValue() throws Exception {
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("opt", "This is an option")
+    };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        new Command.Argument[0], commandOptions, configuration, out);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(Command.INVALID_OPTION_MESSAGE, "--opt=\"\""));
+    command.process(new String[] { "--opt=\"\"" });
+  }
+
+  @Test
+  public void testConcurrentInvocations() throws Exception {
+    int threads = 8;
+    CyclicBarrier barrier = new CyclicBarrier(threads);
+    Map<Integer, String> values = new ConcurrentHashMap<>();
+
+    Command.Argument[] commandArguments = new Command.Argument[] {
+        new Command.NumberArgument("arg1", "test", false) };
+    Command.Option[] commandOptions = new Command.Option[] {
+        new Command.Option("opt", "This is an option") };
+
+    command = new Command("test", "This is a test command.", "Long Description",
+        commandArguments, commandOptions, configuration, out) {
+      @Override protected void execute(Invocation invocation)
+          throws Exception {
+        Integer id =
+            invocation.getValue((NumberArgument) commandArguments[0]);
+
+        //All invocations are parsed before any reads its option
+        barrier.await(5, TimeUnit.SECONDS);
+
+        values.put(id, invocation.getValue(commandOptions[0]));
+      }
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        String[] arguments = new String[] { String.valueOf(i), "--opt=v" + i };
+        results.add(executor.submit(() -> {
+          command.process(arguments);
+          return null;
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(values).hasSize(threads);
+    values.forEach((id, value) -> assertThat(value).isEqualTo("v" + id));
+  }
 }
@@ -0,0 +1,84 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigCommandTest {
+  private Configuration configuration;
+  private PrintStream out;
+  private ByteArrayOutputStream stream;
+
+  private ConfigCommand command;
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = new Configuration();
+
+    stream = new ByteArrayOutputStream();
+    out = new PrintStream(stream);
+
+    command = new ConfigCommand(configuration, out);
+  }
+
+  @Test
+  public void testDisplaySettings() throws Exception {
+    configuration.setSetting(Configuration.CACHE_TTL, "60");
+
+    command.process(new String[0]);
+
+    String actual = new String(stream.toByteArray());
+
+    assertThat(actual).contains("SETTING");
+    assertThat(actual).matches("(?s).*" + Configuration.CACHE_TTL + " +60.*");
+  }
+
+  @Test
+  public void testDisplaySetting() throws Exception {
+    command.process(new String[] { Configuration.CACHE_TTL });
+
+    String actual = new String(stream.toByteArray());
+
+    assertThat(actual.trim()).isEqualTo(ConfigCommand.DEFAULT_VALUE);
+  }
+
+  @Test
+  public void testChangeSetting() throws Exception {
+    command.process(new String[] { Configuration.CACHE_TTL, "60" });
+
+    String actual = new String(stream.toByteArray());
+
+    assertThat(configuration.getSetting(Configuration.CACHE_TTL))
+        .isEqualTo("60");
+    assertThat(actual.trim()).isEqualTo(
+        String.format(ConfigCommand.SUCCESS_MESSAGE, Configuration.CACHE_TTL,
+            "60"));
+  }
+
+  @Test
+  public void testChangeSettingWithInvalidValue() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(Command.NumberArgument.INVALID_TYPE_MESSAGE, "soon"));
+
+    command.process(new String[] { Configuration.CACHE_TTL, "soon" });
+  }
+
+  @Test
+  public void testInvalidSetting() throws Exception {
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(ConfigCommand.INVALID_SETTING_MESSAGE, "invalid"));
+
+    command.process(new String[] { "invalid" });
+  }
+}
@@ -4,6 +4,7 @@ import com.taskadapter.redmineapi.IssueManager;
 import com.taskadapter.redmineapi.MembershipManager;
 import com.taskadapter.redmineapi.ProjectManager;
 import com.taskadapter.redmineapi.RedmineManager;
+import com.taskadapter.redmineapi.RedmineTransportException;
 import com.taskadapter.redmineapi.bean.Issue;
 import com.taskadapter.redmineapi.bean.IssueFactory;
 import com.taskadapter.redmineapi.bean.IssuePriority;
@@ -13,20 +14,28 @@ import com.taskadapter.redmineapi.bean.Project;
 import com.taskadapter.redmineapi.bean.Tracker;
 import com.taskadapter.redmineapi.bean.User;
 import de.ad.tools.redmine.cli.Configuration;
+import java.io.File;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
-import org.junit.After;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +51,8 @@ public class CreateIssueCommandTest {
 
   @Rule
   public ExpectedException exception = ExpectedException.none();
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
 
   @Before
   public void setUp() throws Exception {
@@ -301,9 +312,214 @@ public class CreateIssueCommandTest {
     command.process(arguments);
   }
 
-  @After
-  public void tearDown() throws Exception {
-    Arrays.stream(command.getOptions()).forEach(o -> o.setValue(null));
+  @Test
+  public void testCreateFromJsonFile() throws Exception {
+    File file = tmpFolder.newFile("issues.ndjson");
+    Files.write(file.toPath(), Arrays.asList(
+        "{\"subject\": \"First\", \"priority\": \"High\"}",
+        "",
+        "{\"project\": \"project-1\", \"subject\": \"Second\", "
+            + "\"priority\": \"High\"}"), StandardCharsets.UTF_8);
+    String[] arguments =
+        new String[] { "project-1", "--from=" + file.getPath() };
+
+    List<IssuePriority> priorities = createDummyPriorities();
+    when(issueManager.getIssuePriorities()).thenReturn(priorities);
+    mockCreateIssue();
+
+    command.process(arguments);
+
+    verify(projectManager, times(1)).getProjectByKey("project-1");
+    verify(issueManager, times(1)).getIssuePriorities();
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 1, 101));
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 3, 102));
+    verify(out).println(
+        String.format(CreateIssueCommand.BULK_SUCCESS_MESSAGE, 2));
+  }
+
+  @Test
+  public void testCreateFromCsvFile() throws Exception {
+    File file = tmpFolder.newFile("issues.csv");
+    Files.write(file.toPath(), Arrays.asList(
+        "project,subject,description",
+        "project-1,First,\"With, comma\"",
+        "project-1,Second,"), StandardCharsets.UTF_8);
+    String[] arguments = new String[] { "--from=" + file.getPath() };
+
+    mockCreateIssue();
+
+    command.process(arguments);
+
+    ArgumentCaptor<Issue> issues = ArgumentCaptor.forClass(Issue.class);
+    verify(issueManager, times(2)).createIssue(issues.capture());
+    //Issues are created in parallel, so the order of the calls may vary
+    assertThat(issues.getAllValues()).extracting("subject", "description")
+        .containsOnly(tuple("First", "With, comma"), tuple("Second", null));
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 2, 101));
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 3, 102));
+  }
+
+  @Test
+  public void testCreateFromFileWithOptionsAsDefaults() throws Exception {
+    File file = tmpFolder.newFile("issues.csv");
+    Files.write(file.toPath(), Arrays.asList(
+        "subject,description",
+        "First,",
+        "Second,Own description"), StandardCharsets.UTF_8);
+    String[] arguments = new String[] { "project-1", "--from=" + file.getPath(),
+        "--description=Default description", "--priority=High" };
+
+    List<IssuePriority> priorities = createDummyPriorities();
+    when(issueManager.getIssuePriorities()).thenReturn(priorities);
+    mockCreateIssue();
+
+    command.process(arguments);
+
+    ArgumentCaptor<Issue> issues = ArgumentCaptor.forClass(Issue.class);
+    verify(issueManager, times(2)).createIssue(issues.capture());
+    assertThat(issues.getAllValues())
+        .extracting("subject", "description", "priorityId")
+        .containsOnly(tuple("First", "Default description", 2),
+            tuple("Second", "Own description", 2));
+    verify(issueManager, times(1)).getIssuePriorities();
+  }
+
+  @Test
+  public void testCreateFromCsvFileWithLineBreaks() throws Exception {
+    File file = tmpFolder.newFile("issues.csv");
+    Files.write(file.toPath(), Arrays.asList(
+        "subject,description",
+        "First,\"Line 1",
+        "",
+        "Line \"\"3\"\"\"",
+        "Second,Single line"), StandardCharsets.UTF_8);
+    String[] arguments =
+        new String[] { "project-1", "--from=" + file.getPath() };
+
+    mockCreateIssue();
+
+    command.process(arguments);
+
+    ArgumentCaptor<Issue> issues = ArgumentCaptor.forClass(Issue.class);
+    verify(issueManager, times(2)).createIssue(issues.capture());
+    assertThat(issues.getAllValues()).extracting("subject", "description")
+        .containsOnly(tuple("First", "Line 1\n\nLine \"3\""),
+            tuple("Second", "Single line"));
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 2, 101));
+    verify(out).println(
+        String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 5, 102));
+  }
+
+  @Test
+  public void testCreateFromFileWithFailures() throws Exception {
+    File file = tmpFolder.newFile("issues.ndjson");
+    Files.write(file.toPath(), Arrays.asList(
+        "{\"subject\": \"First\", \"priority\": \"Invalid\"}",
+        "{\"subject\": \"Second\"}",
+        "{\"subject\": ",
+        "{\"subject\": \"Fourth\", \"priority\": \"Invalid\"}",
+        "{\"description\": \"No subject\"}"), StandardCharsets.UTF_8);
+    String[] arguments =
+        new String[] { "project-1", "--from=" + file.getPath() };
+
+    List<IssuePriority> priorities = createDummyPriorities();
+    when(issueManager.getIssuePriorities()).thenReturn(priorities);
+    mockCreateIssue();
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(CreateIssueCommand.BULK_FAILURE_MESSAGE, 4, 5));
+
+    try {
+      command.process(arguments);
+    } finally {
+      verify(issueManager, times(1)).getIssuePriorities();
+      verify(issueManager, times(1)).createIssue(any(Issue.class));
+      verify(out).println(String.format(
+          CreateIssueCommand.LINE_FAILURE_MESSAGE, 1, String.format(
+              CreateIssueCommand.INVALID_PRIORITY_MESSAGE, "Invalid")));
+      verify(out).println(
+          String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 2, 102));
+      verify(out).println(String.format(
+          CreateIssueCommand.LINE_FAILURE_MESSAGE, 5, String.format(
+              CreateIssueCommand.MISSING_FIELD_MESSAGE, "subject")));
+    }
+  }
+
+  @Test
+  public void testCreateFromFileRetriesFailedLookup() throws Exception {
+    File file = tmpFolder.newFile("issues.ndjson");
+    Files.write(file.toPath(), Arrays.asList(
+        "{\"subject\": \"First\", \"priority\": \"High\"}",
+        "{\"subject\": \"Second\", \"priority\": \"High\"}"),
+        StandardCharsets.UTF_8);
+    String[] arguments =
+        new String[] { "project-1", "--from=" + file.getPath() };
+
+    List<IssuePriority> priorities = createDummyPriorities();
+    when(issueManager.getIssuePriorities())
+        .thenThrow(new RedmineTransportException("Read timed out"))
+        .thenReturn(priorities);
+    mockCreateIssue();
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(CreateIssueCommand.BULK_FAILURE_MESSAGE, 1, 2));
+
+    try {
+      command.process(arguments);
+    } finally {
+      verify(issueManager, times(2)).getIssuePriorities();
+      verify(out).println(String.format(
+          CreateIssueCommand.LINE_FAILURE_MESSAGE, 1, "Read timed out"));
+      verify(out).println(
+          String.format(CreateIssueCommand.LINE_SUCCESS_MESSAGE, 2, 102));
+    }
+  }
+
+  @Test
+  public void testCreateFromMissingFile() throws Exception {
+    String[] arguments = new String[] { "--from=missing.csv" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(CreateIssueCommand.INVALID_FILE_MESSAGE, "missing.csv"));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testCreateWithoutSubject() throws Exception {
+    String[] arguments = new String[] { "project-1" };
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(String.format(
+        Command.TOO_FEW_ARGUMENTS_MESSAGE, command.getName(), 2, 1));
+
+    command.process(arguments);
+  }
+
+  private void mockCreateIssue() throws Exception {
+    AtomicInteger ids = new AtomicInteger(100);
+    when(issueManager.createIssue(any(Issue.class))).thenAnswer(
+        invocation -> {
+          //Ids follow the order of the subjects
+          Issue created = (Issue) invocation.getArguments()[0];
+          Issue issue = mock(Issue.class);
+          when(issue.getId()).thenReturn(ids.get() + subjectIndex(
+              created.getSubject()));
+          return issue;
+        });
+  }
+
+  private static int subjectIndex(String subject) {
+    return Arrays.asList("First", "Second", "Third", "Fourth")
+        .indexOf(subject) + 1;
   }
 
   private Issue createMockIssue(int id) {
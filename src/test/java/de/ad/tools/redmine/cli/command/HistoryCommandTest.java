@@ -9,11 +9,13 @@ import com.taskadapter.redmineapi.bean.JournalDetail;
 import com.taskadapter.redmineapi.bean.Tracker;
 import com.taskadapter.redmineapi.bean.User;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import org.junit.Before;
@@ -21,9 +23,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
 import static de.ad.tools.redmine.cli.test.TestHelper.resourceToByteArray;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HistoryCommandTest {
@@ -34,6 +41,9 @@ public class HistoryCommandTest {
 
   private IssueManager issueManager;
 
+  private IssueMirror.Store mirrorStore;
+  private IssueMirror mirror;
+
   private HistoryCommand command;
 
   @Rule
@@ -52,7 +62,12 @@ public class HistoryCommandTest {
 
     when(redmineManager.getIssueManager()).thenReturn(issueManager);
 
-    command = new HistoryCommand(configuration, out, redmineManager);
+    mirrorStore = mock(IssueMirror.Store.class);
+    mirror = new IssueMirror("http://test.redmine.com");
+    when(mirrorStore.load(any())).thenReturn(mirror);
+
+    command = new HistoryCommand(configuration, out, redmineManager,
+        mirrorStore);
   }
 
   @Test
@@ -73,6 +88,21 @@ public class HistoryCommandTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void testCommandOffline() throws Exception {
+    String[] arguments = new String[] { "1", "--offline" };
+
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, 0);
+
+    command.process(arguments);
+
+    verify(issueManager, never()).getIssueById(anyInt(), any());
+    assertThat(new String(stream.toByteArray()))
+        .contains("Updated by John Doe").contains("A note");
+  }
+
   private Issue createMockIssue(int id) {
     Tracker tracker = mock(Tracker.class);
     when(tracker.getName()).thenReturn("Bug");
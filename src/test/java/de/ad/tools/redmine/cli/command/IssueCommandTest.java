@@ -6,19 +6,26 @@ import com.taskadapter.redmineapi.bean.Issue;
 import com.taskadapter.redmineapi.bean.Tracker;
 import com.taskadapter.redmineapi.bean.User;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collections;
 import java.util.Date;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
 import static de.ad.tools.redmine.cli.test.TestHelper.resourceToByteArray;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class IssueCommandTest {
@@ -29,6 +36,9 @@ public class IssueCommandTest {
 
   private IssueManager issueManager;
 
+  private IssueMirror.Store mirrorStore;
+  private IssueMirror mirror;
+
   private IssueCommand command;
 
   @Rule
@@ -47,7 +57,12 @@ public class IssueCommandTest {
 
     when(redmineManager.getIssueManager()).thenReturn(issueManager);
 
-    command = new IssueCommand(configuration, out, redmineManager);
+    mirrorStore = mock(IssueMirror.Store.class);
+    mirror = new IssueMirror("http://test.redmine.com");
+    when(mirrorStore.load(any())).thenReturn(mirror);
+
+    command = new IssueCommand(configuration, out, redmineManager,
+        mirrorStore);
   }
 
   @Test
@@ -86,6 +101,61 @@ public class IssueCommandTest {
     assertThat(actual).isEqualTo(expected);
   }
 
+  @Test
+  public void testCommandOffline() throws Exception {
+    String[] arguments = new String[] { "1", "--offline" };
+
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, 0);
+
+    command.process(arguments);
+
+    verify(issueManager, never()).getIssueById(anyInt());
+    assertThat(new String(stream.toByteArray()))
+        .contains("Subject of #1").contains("Description of #1");
+  }
+
+  @Test
+  public void testCommandOfflineWhenNotMirrored() throws Exception {
+    String[] arguments = new String[] { "1", "--offline" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(MirrorSupport.NOT_MIRRORED_MESSAGE, 1));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testCommandWithMaxStaleness() throws Exception {
+    String[] arguments = new String[] { "1", "--max-staleness=60" };
+
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, System.currentTimeMillis());
+
+    command.process(arguments);
+
+    verify(issueManager, never()).getIssueById(anyInt());
+  }
+
+  @Test
+  public void testCommandWithMaxStalenessWhenStale() throws Exception {
+    String[] arguments = new String[] { "1", "--max-staleness=60" };
+
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, 1);
+
+    Issue issue = createMockIssue(1);
+    when(issueManager.getIssueById(1)).thenReturn(issue);
+
+    command.process(arguments);
+
+    verify(issueManager).getIssueById(1);
+  }
+
   private Issue createMockIssue(int id) {
     Tracker tracker = mock(Tracker.class);
     when(tracker.getName()).thenReturn("Bug");
@@ -15,6 +15,8 @@ import com.taskadapter.redmineapi.bean.TrackerFactory;
 import com.taskadapter.redmineapi.bean.User;
 import com.taskadapter.redmineapi.bean.UserFactory;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.IssuePager;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.time.LocalDateTime;
@@ -26,16 +28,20 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
 import static de.ad.tools.redmine.cli.test.TestHelper.resourceToByteArray;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +53,10 @@ public class IssuesCommandTest {
   private IssueManager issueManager;
   private MembershipManager membershipManager;
   private ProjectManager projectManager;
+  private IssuePager issuePager;
+
+  private IssueMirror.Store mirrorStore;
+  private IssueMirror mirror;
 
   private IssuesCommand command;
 
@@ -70,7 +80,18 @@ public class IssuesCommandTest {
     when(redmineManager.getMembershipManager()).thenReturn(membershipManager);
     when(redmineManager.getProjectManager()).thenReturn(projectManager);
 
-    command = new IssuesCommand(configuration, out, redmineManager);
+    issuePager = mock(IssuePager.class);
+    doCallRealMethod().when(issuePager).forEachPage(any(Map.class), anyInt(),
+        anyInt(), any(IssuePager.PageHandler.class));
+    when(issuePager.getPage(any(Map.class), anyInt(), anyInt())).thenReturn(
+        new IssuePager.Page(Collections.emptyList(), 0, 0));
+
+    mirrorStore = mock(IssueMirror.Store.class);
+    mirror = new IssueMirror("http://test.redmine.com");
+    when(mirrorStore.load(any())).thenReturn(mirror);
+
+    command = new IssuesCommand(configuration, out, redmineManager,
+        issuePager, mirrorStore);
   }
 
   @Test
@@ -79,7 +100,54 @@ public class IssuesCommandTest {
 
     List<Issue> issues = createDummyIssues(2);
 
-    when(issueManager.getIssues(any(Map.class))).thenReturn(issues);
+    when(issuePager.getPage(any(Map.class), eq(0), anyInt())).thenReturn(
+        new IssuePager.Page(issues, 0, issues.size()));
+
+    command.process(arguments);
+
+    String actual = new String(stream.toByteArray());
+    String expected =
+        new String(resourceToByteArray("/IssuesCommandOutput.txt"));
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void testCommandWithMultiplePages() throws Exception {
+    String[] arguments = new String[0];
+
+    List<Issue> issues = createDummyIssues(2);
+
+    when(configuration.getIntSetting(eq(Configuration.PAGE_SIZE), anyInt()))
+        .thenReturn(1);
+    when(issuePager.getPage(any(Map.class), eq(0), eq(1))).thenReturn(
+        new IssuePager.Page(issues.subList(0, 1), 0, issues.size()));
+    when(issuePager.getPage(any(Map.class), eq(1), eq(1))).thenReturn(
+        new IssuePager.Page(issues.subList(1, 2), 1, issues.size()));
+
+    command.process(arguments);
+
+    String actual = new String(stream.toByteArray());
+    String expected =
+        new String(resourceToByteArray("/IssuesCommandOutput.txt"));
+
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void testCommandWithConcurrentPages() throws Exception {
+    String[] arguments = new String[0];
+
+    List<Issue> issues = createDummyIssues(2);
+
+    when(configuration.getIntSetting(eq(Configuration.PAGE_SIZE), anyInt()))
+        .thenReturn(1);
+    when(configuration.getIntSetting(eq(Configuration.CONCURRENCY), anyInt()))
+        .thenReturn(2);
+    when(issuePager.getPage(any(Map.class), eq(0), eq(1))).thenReturn(
+        new IssuePager.Page(issues.subList(0, 1), 0, issues.size()));
+    when(issuePager.getPage(any(Map.class), eq(1), eq(1))).thenReturn(
+        new IssuePager.Page(issues.subList(1, 2), 1, issues.size()));
 
     command.process(arguments);
 
@@ -102,7 +170,7 @@ public class IssuesCommandTest {
     Map<String, String> parameters = new HashMap<>();
     parameters.put("project_id", "2");
 
-    verify(issueManager).getIssues(parameters);
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
   }
 
   @Test
@@ -117,7 +185,7 @@ public class IssuesCommandTest {
     Map<String, String> parameters = new HashMap<>();
     parameters.put("priority_id", "2");
 
-    verify(issueManager).getIssues(parameters);
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
   }
 
   @Test
@@ -129,7 +197,7 @@ public class IssuesCommandTest {
     Map<String, String> parameters = new HashMap<>();
     parameters.put("assigned_to_id", "me");
 
-    verify(issueManager).getIssues(parameters);
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
   }
 
   @Test
@@ -155,7 +223,7 @@ public class IssuesCommandTest {
     Map<String, String> parameters = new HashMap<>();
     parameters.put("status_id", "2");
 
-    verify(issueManager).getIssues(parameters);
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
   }
 
   @Test
@@ -170,12 +238,141 @@ public class IssuesCommandTest {
     Map<String, String> parameters = new HashMap<>();
     parameters.put("tracker_id", "2");
 
-    verify(issueManager).getIssues(parameters);
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
   }
 
-  @After
-  public void tearDown() throws Exception {
-    Arrays.stream(command.getOptions()).forEach(o -> o.setValue(null));
+  @Test
+  public void testWithMultipleValues() throws Exception {
+    List<IssueStatus> statuses = createDummyStatuses();
+    when(issueManager.getStatuses()).thenReturn(statuses);
+    List<IssuePriority> priorities = createDummyPriorities();
+    when(issueManager.getIssuePriorities()).thenReturn(priorities);
+
+    String[] arguments = new String[] { "--status=New, Closed",
+        "--priority", "Normal", "--priority=High", "--assignee=me,5" };
+
+    command.process(arguments);
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("status_id", "1|2");
+    parameters.put("priority_id", "1|2");
+    parameters.put("assigned_to_id", "me|5");
+
+    verify(issuePager).getPage(parameters, 0, IssuePager.DEFAULT_PAGE_SIZE);
+  }
+
+  @Test
+  public void testWithInvalidValueAmongMultipleValues() throws Exception {
+    List<IssueStatus> statuses = createDummyStatuses();
+    when(issueManager.getStatuses()).thenReturn(statuses);
+
+    String[] arguments = new String[] { "--status=New,Invalid" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(IssuesCommand.INVALID_STATUS_MESSAGE, "Invalid"));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testWithMultipleProjects() throws Exception {
+    String[] arguments = new String[] { "--project=Project 1,Project 2" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(IssuesCommand.MULTIPLE_PROJECTS_MESSAGE, 2));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testCommandOffline() throws Exception {
+    String[] arguments = new String[] { "--offline" };
+
+    mirror.follow(7, "Project1");
+    mirror.setClosedStatusIds(Collections.singleton(5));
+    Map<Integer, String> issues = new HashMap<>();
+    issues.put(1, issueJson(1, "Project1", "New", 1));
+    issues.put(2, issueJson(2, "Project1", "Closed", 5));
+    issues.put(3, issueJson(3, "Project1", "In Progress", 2));
+    mirror.update(7, issues, null, 0);
+
+    command.process(arguments);
+
+    verify(issuePager, never()).getPage(any(Map.class), anyInt(), anyInt());
+    String actual = new String(stream.toByteArray());
+    assertThat(actual).contains("#1").contains("#3").doesNotContain("#2");
+    assertThat(actual.indexOf("#3")).isLessThan(actual.indexOf("#1"));
+  }
+
+  @Test
+  public void testCommandOfflineWithFilter() throws Exception {
+    String[] arguments =
+        new String[] { "--offline", "--status=Closed", "--assignee=me" };
+
+    mirror.follow(7, "Project1");
+    mirror.setClosedStatusIds(Collections.singleton(5));
+    mirror.setCurrentUserId(3);
+    Map<Integer, String> issues = new HashMap<>();
+    issues.put(1, issueJson(1, "Project1", "New", 1));
+    issues.put(2, issueJson(2, "Project1", "Closed", 5));
+    mirror.update(7, issues, null, 0);
+
+    command.process(arguments);
+
+    String actual = new String(stream.toByteArray());
+    assertThat(actual).contains("#2").doesNotContain("#1");
+  }
+
+  @Test
+  public void testCommandOfflineWithMultipleValues() throws Exception {
+    String[] arguments =
+        new String[] { "--offline", "--status", "New", "--status=Closed" };
+
+    mirror.follow(7, "Project1");
+    mirror.setClosedStatusIds(Collections.singleton(5));
+    Map<Integer, String> issues = new HashMap<>();
+    issues.put(1, issueJson(1, "Project1", "New", 1));
+    issues.put(2, issueJson(2, "Project1", "Closed", 5));
+    issues.put(3, issueJson(3, "Project1", "In Progress", 2));
+    mirror.update(7, issues, null, 0);
+
+    command.process(arguments);
+
+    String actual = new String(stream.toByteArray());
+    assertThat(actual).contains("#1").contains("#2").doesNotContain("#3");
+  }
+
+  @Test
+  public void testCommandWithMaxStaleness() throws Exception {
+    String[] arguments =
+        new String[] { "--project=Project1", "--max-staleness=60" };
+
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, System.currentTimeMillis());
+
+    command.process(arguments);
+
+    verify(issuePager, never()).getPage(any(Map.class), anyInt(), anyInt());
+    assertThat(new String(stream.toByteArray())).contains("#1");
+  }
+
+  @Test
+  public void testCommandWithMaxStalenessForUnmirroredProject()
+      throws Exception {
+    String[] arguments =
+        new String[] { "--project=Project2", "--max-staleness=60" };
+
+    Project project = mock(Project.class);
+    when(project.getName()).thenReturn("Project2");
+    when(project.getId()).thenReturn(8);
+    when(projectManager.getProjects()).thenReturn(Arrays.asList(project));
+
+    command.process(arguments);
+
+    verify(issuePager).getPage(any(Map.class), eq(0), anyInt());
   }
 
   private List<Issue> createDummyIssues(int count) {
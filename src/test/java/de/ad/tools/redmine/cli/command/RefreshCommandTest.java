@@ -0,0 +1,51 @@
+package de.ad.tools.redmine.cli.command;
+
+import com.taskadapter.redmineapi.IssueManager;
+import com.taskadapter.redmineapi.ProjectManager;
+import com.taskadapter.redmineapi.RedmineManager;
+import de.ad.tools.redmine.cli.Configuration;
+import java.io.PrintStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RefreshCommandTest {
+  private Configuration configuration;
+  private PrintStream out;
+  private RedmineManager redmineManager;
+  private IssueManager issueManager;
+  private ProjectManager projectManager;
+
+  private RefreshCommand command;
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = mock(Configuration.class);
+    when(configuration.isConnected()).thenReturn(true);
+
+    out = mock(PrintStream.class);
+
+    redmineManager = mock(RedmineManager.class);
+    issueManager = mock(IssueManager.class);
+    projectManager = mock(ProjectManager.class);
+
+    when(redmineManager.getIssueManager()).thenReturn(issueManager);
+    when(redmineManager.getProjectManager()).thenReturn(projectManager);
+
+    command = new RefreshCommand(configuration, out, redmineManager);
+  }
+
+  @Test
+  public void testCommand() throws Exception {
+    command.process(new String[0]);
+
+    verify(issueManager).getStatuses();
+    verify(issueManager).getTrackers();
+    verify(issueManager).getIssuePriorities();
+    verify(projectManager).getProjects();
+    verify(out).println(RefreshCommand.SUCCESS_MESSAGE);
+  }
+}
@@ -0,0 +1,110 @@
+package de.ad.tools.redmine.cli.command;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.SearchIndex;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchCommandTest {
+  private static final String SERVER = "http://test.redmine.com";
+
+  private Configuration configuration;
+  private ByteArrayOutputStream stream;
+  private SearchIndex index;
+
+  private SearchCommand command;
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = mock(Configuration.class);
+    when(configuration.getServer()).thenReturn(SERVER);
+
+    stream = new ByteArrayOutputStream();
+
+    SearchIndex.Store indexStore = mock(SearchIndex.Store.class);
+    index = new SearchIndex(SERVER);
+    when(indexStore.load(SERVER)).thenReturn(index);
+
+    command = new SearchCommand(configuration, new PrintStream(stream),
+        indexStore);
+  }
+
+  @Test
+  public void testCommand() throws Exception {
+    indexIssues(1, 2);
+
+    command.process(new String[] { "description #2" });
+
+    String actual = new String(stream.toByteArray());
+    assertThat(actual).contains("ID", "TRACKER", "SUBJECT", "#2", "Bug",
+        "John Doe", "Subject of #2").doesNotContain("#1");
+  }
+
+  @Test
+  public void testCommandWithLimit() throws Exception {
+    indexIssues(1, 2, 3);
+
+    command.process(new String[] { "note", "--limit=2" });
+
+    String actual = new String(stream.toByteArray());
+    assertThat(actual).contains("#3", "#2").doesNotContain("#1");
+  }
+
+  @Test
+  public void testCommandWithoutMatch() throws Exception {
+    indexIssues(1);
+
+    command.process(new String[] { "unknown" });
+
+    assertThat(new String(stream.toByteArray())).isEqualTo(
+        String.format(SearchCommand.NO_MATCH_MESSAGE, "unknown")
+            + System.lineSeparator());
+  }
+
+  @Test
+  public void testCommandWithoutIndex() throws Exception {
+    exception.expect(Exception.class);
+    exception.expectMessage(SearchCommand.NOT_INDEXED_MESSAGE);
+
+    command.process(new String[] { "note" });
+  }
+
+  @Test
+  public void testCommandWithInvalidLimit() throws Exception {
+    indexIssues(1);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(SearchCommand.INVALID_LIMIT_MESSAGE, "0"));
+
+    command.process(new String[] { "note", "--limit=0" });
+  }
+
+  private void indexIssues(int... ids) {
+    IssueMirror mirror = new IssueMirror(SERVER);
+    mirror.follow(7, "Project1");
+
+    Map<Integer, String> issues = new HashMap<>();
+    for (int id : ids) {
+      issues.put(id, issueJson(id, "Project1", "New", 1));
+    }
+    mirror.update(7, issues, null, 0);
+
+    index.update(mirror.getIssues());
+  }
+}
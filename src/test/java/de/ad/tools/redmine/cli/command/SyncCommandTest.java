@@ -0,0 +1,203 @@
+package de.ad.tools.redmine.cli.command;
+
+import com.taskadapter.redmineapi.IssueManager;
+import com.taskadapter.redmineapi.ProjectManager;
+import com.taskadapter.redmineapi.RedmineManager;
+import com.taskadapter.redmineapi.UserManager;
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.bean.IssueStatus;
+import com.taskadapter.redmineapi.bean.Project;
+import com.taskadapter.redmineapi.bean.User;
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssueMirror;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import de.ad.tools.redmine.cli.util.SearchIndex;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SyncCommandTest {
+  private static final String SERVER = "http://test.redmine.com";
+
+  private Configuration configuration;
+  private PrintStream out;
+  private RedmineManager redmineManager;
+  private ProjectManager projectManager;
+  private IssuePager issuePager;
+  private IssueMirror.Store mirrorStore;
+  private IssueMirror mirror;
+  private SearchIndex.Store indexStore;
+  private SearchIndex index;
+
+  private SyncCommand command;
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = mock(Configuration.class);
+    when(configuration.isConnected()).thenReturn(true);
+    when(configuration.getServer()).thenReturn(SERVER);
+
+    out = mock(PrintStream.class);
+
+    redmineManager = mock(RedmineManager.class);
+    projectManager = mock(ProjectManager.class);
+    IssueManager issueManager = mock(IssueManager.class);
+    UserManager userManager = mock(UserManager.class);
+    when(redmineManager.getProjectManager()).thenReturn(projectManager);
+    when(redmineManager.getIssueManager()).thenReturn(issueManager);
+    when(redmineManager.getUserManager()).thenReturn(userManager);
+
+    IssueStatus closed = mock(IssueStatus.class);
+    when(closed.getId()).thenReturn(5);
+    when(closed.isClosed()).thenReturn(true);
+    when(issueManager.getStatuses()).thenReturn(Arrays.asList(closed));
+
+    User user = mock(User.class);
+    when(user.getId()).thenReturn(3);
+    when(userManager.getCurrentUser()).thenReturn(user);
+
+    Project project = mock(Project.class);
+    when(project.getId()).thenReturn(7);
+    when(project.getName()).thenReturn("Project1");
+    when(projectManager.getProjects()).thenReturn(Arrays.asList(project));
+    RedmineUtil.cache = new ReferenceDataCache();
+
+    issuePager = mock(IssuePager.class);
+    when(issuePager.getIssueJson(anyInt())).thenAnswer(invocation -> {
+      int id = (Integer) invocation.getArguments()[0];
+      return issueJson(id, "Project1", "New", 1);
+    });
+
+    mirrorStore = mock(IssueMirror.Store.class);
+    mirror = new IssueMirror(SERVER);
+    when(mirrorStore.load(SERVER)).thenReturn(mirror);
+
+    indexStore = mock(SearchIndex.Store.class);
+    index = new SearchIndex(SERVER);
+    when(indexStore.load(SERVER)).thenReturn(index);
+
+    command = new SyncCommand(configuration, out, redmineManager, issuePager,
+        mirrorStore, indexStore);
+  }
+
+  @Test
+  public void testFirstSync() throws Exception {
+    mockChangedIssues(createIssue(1, 1000), createIssue(2, 3000));
+
+    command.process(new String[] { "Project1" });
+
+    Map<String, String> parameters = captureParameters();
+    assertThat(parameters).containsEntry("project_id", "7")
+        .containsEntry("status_id", "*")
+        .doesNotContainKey("updated_on");
+    assertThat(mirror.getIssues()).extracting("id").containsExactly(2, 1);
+    assertThat(mirror.getProjects().iterator().next().getWatermark())
+        .isEqualTo(new Date(3000));
+    assertThat(mirror.getCurrentUserId()).isEqualTo(3);
+    verify(mirrorStore).save(mirror);
+    assertThat(index.search("subject 2", 10)).extracting("id")
+        .containsExactly(2);
+    verify(indexStore).save(index);
+    verify(out).println(
+        String.format(SyncCommand.SYNC_SUCCESS_MESSAGE, 2, "Project1"));
+  }
+
+  @Test
+  public void testSyncRebuildsIndex() throws Exception {
+    Map<Integer, String> issues = new HashMap<>();
+    issues.put(1, issueJson(1, "Project1", "New", 1));
+    mirror.follow(7, "Project1");
+    mirror.update(7, issues, new Date(1000), 1);
+    mockChangedIssues();
+
+    command.process(new String[0]);
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.search("subject", 10)).extracting("id")
+        .containsExactly(1);
+  }
+
+  @Test
+  public void testIncrementalSync() throws Exception {
+    mirror.follow(7, "Project1");
+    mirror.update(7, Collections.emptyMap(), new Date(1420106400000L), 1);
+    mockChangedIssues(createIssue(3, 1420106500000L));
+
+    command.process(new String[0]);
+
+    assertThat(captureParameters())
+        .containsEntry("updated_on", ">=2015-01-01T10:00:00Z");
+    verify(issuePager).getIssueJson(3);
+    assertThat(mirror.getIssues()).extracting("id").containsExactly(3);
+    verify(out).println(
+        String.format(SyncCommand.SYNC_SUCCESS_MESSAGE, 1, "Project1"));
+  }
+
+  @Test
+  public void testSyncWithoutProject() throws Exception {
+    exception.expect(Exception.class);
+    exception.expectMessage(SyncCommand.NO_PROJECT_FOLLOWED_MESSAGE);
+
+    command.process(new String[0]);
+  }
+
+  @Test
+  public void testSyncWithInvalidProject() throws Exception {
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(SyncCommand.INVALID_PROJECT_MESSAGE, "Invalid"));
+
+    command.process(new String[] { "Invalid" });
+  }
+
+  private void mockChangedIssues(Issue... issues) throws Exception {
+    List<Issue> changed = Arrays.asList(issues);
+
+    doAnswer(invocation -> {
+      IssuePager.PageHandler handler =
+          (IssuePager.PageHandler) invocation.getArguments()[3];
+      handler.handle(new IssuePager.Page(changed, 0, changed.size()));
+      return null;
+    }).when(issuePager).forEachPage(any(), anyInt(), anyInt(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, String> captureParameters() throws Exception {
+    ArgumentCaptor<Map> parameters = ArgumentCaptor.forClass(Map.class);
+    verify(issuePager).forEachPage(parameters.capture(), anyInt(), anyInt(),
+        any());
+
+    return parameters.getValue();
+  }
+
+  private static Issue createIssue(int id, long updatedOn) {
+    Issue issue = mock(Issue.class);
+    when(issue.getId()).thenReturn(id);
+    when(issue.getUpdatedOn()).thenReturn(new Date(updatedOn));
+
+    return issue;
+  }
+}
@@ -11,15 +11,22 @@ import com.taskadapter.redmineapi.bean.Membership;
 import com.taskadapter.redmineapi.bean.Project;
 import com.taskadapter.redmineapi.bean.Tracker;
 import com.taskadapter.redmineapi.bean.User;
+import com.taskadapter.redmineapi.NotFoundException;
 import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.util.IssuePager;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import org.junit.After;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,7 +34,13 @@ import org.junit.rules.ExpectedException;
 
 import static de.ad.tools.redmine.cli.test.TestHelper.resourceToByteArray;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +50,7 @@ public class UpdateIssueCommandTest {
   private RedmineManager redmineManager;
 
   private IssueManager issueManager;
+  private IssuePager issuePager;
 
   private UpdateIssueCommand command;
 
@@ -55,7 +69,11 @@ public class UpdateIssueCommandTest {
 
     when(redmineManager.getIssueManager()).thenReturn(issueManager);
 
-    command = new UpdateIssueCommand(configuration, out, redmineManager);
+    issuePager = mock(IssuePager.class);
+    RedmineUtil.cache = new ReferenceDataCache();
+
+    command = new UpdateIssueCommand(configuration, out, redmineManager,
+        issuePager);
   }
 
   @Test
@@ -271,9 +289,208 @@ public class UpdateIssueCommandTest {
     command.process(arguments);
   }
 
-  @After
-  public void tearDown() throws Exception {
-    Arrays.stream(command.getOptions()).forEach(o -> o.setValue(null));
+  @Test
+  public void testUpdateIdList() throws Exception {
+    String[] arguments = new String[] { "1,3-5", "--subject=A new subject" };
+
+    List<Issue> issues = new ArrayList<>();
+    for (int id : new int[] { 1, 3, 4, 5 }) {
+      Issue issue = createMockIssue(id);
+      when(issueManager.getIssueById(id)).thenReturn(issue);
+      issues.add(issue);
+    }
+
+    command.process(arguments);
+
+    for (Issue issue : issues) {
+      verify(issue).setSubject("A new subject");
+      verify(issueManager).update(issue);
+      verify(out).println(String.format(
+          UpdateIssueCommand.ISSUE_UPDATE_SUCCESS_MESSAGE, issue.getId()));
+    }
+    verify(out).println(
+        String.format(UpdateIssueCommand.BULK_UPDATE_SUCCESS_MESSAGE, 4));
+  }
+
+  @Test
+  public void testUpdateIdListResolvesOptionsOnce() throws Exception {
+    String[] arguments = new String[] { "1-3", "--status=Closed" };
+
+    for (int id = 1; id <= 3; id++) {
+      Issue issue = createMockIssue(id);
+      when(issueManager.getIssueById(id)).thenReturn(issue);
+    }
+
+    List<IssueStatus> statuses = createDummyStatuses();
+    when(issueManager.getStatuses()).thenReturn(statuses);
+
+    command.process(arguments);
+
+    verify(issueManager, times(1)).getStatuses();
+    verify(issueManager, times(3)).update(any(Issue.class));
+  }
+
+  @Test
+  public void testUpdateIdListWithFailure() throws Exception {
+    String[] arguments = new String[] { "1,2", "--subject=A new subject" };
+
+    Issue issue = createMockIssue(1);
+    when(issueManager.getIssueById(1)).thenReturn(issue);
+    when(issueManager.getIssueById(2))
+        .thenThrow(new NotFoundException("Not found"));
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(UpdateIssueCommand.BULK_UPDATE_FAILURE_MESSAGE, 1, 2));
+
+    try {
+      command.process(arguments);
+    } finally {
+      verify(issueManager).update(issue);
+      verify(out).println(
+          String.format(UpdateIssueCommand.ISSUE_UPDATE_SUCCESS_MESSAGE, 1));
+      verify(out).println(String.format(
+          UpdateIssueCommand.ISSUE_UPDATE_FAILURE_MESSAGE, 2, "Not found"));
+    }
+  }
+
+  @Test
+  public void testUpdateIdListWithFailureWithoutMessage() throws Exception {
+    String[] arguments = new String[] { "1,2", "--subject=A new subject" };
+
+    Issue issue = createMockIssue(2);
+    when(issueManager.getIssueById(1)).thenThrow(new NullPointerException());
+    when(issueManager.getIssueById(2)).thenReturn(issue);
+
+    exception.expect(Exception.class);
+    exception.expectMessage(
+        String.format(UpdateIssueCommand.BULK_UPDATE_FAILURE_MESSAGE, 1, 2));
+
+    try {
+      command.process(arguments);
+    } finally {
+      verify(out).println(String.format(
+          UpdateIssueCommand.ISSUE_UPDATE_FAILURE_MESSAGE, 1,
+          "java.lang.NullPointerException"));
+    }
+  }
+
+  @Test
+  public void testUpdateWithInvalidIds() throws Exception {
+    String[] arguments = new String[] { "5-1", "--subject=A new subject" };
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        String.format(UpdateIssueCommand.INVALID_IDS_MESSAGE, "5-1"));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testUpdateWithTooManyIds() throws Exception {
+    String[] arguments =
+        new String[] { "1-1000000", "--subject=A new subject" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(String.format(
+        UpdateIssueCommand.TOO_MANY_ISSUES_MESSAGE,
+        UpdateIssueCommand.MAX_ISSUES));
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testUpdateProject() throws Exception {
+    String[] arguments =
+        new String[] { "--project=Project1", "--subject=A new subject" };
+
+    Project project = mock(Project.class);
+    when(project.getName()).thenReturn("Project1");
+    when(project.getId()).thenReturn(7);
+    ProjectManager projectManager = mock(ProjectManager.class);
+    when(projectManager.getProjects()).thenReturn(Arrays.asList(project));
+    when(redmineManager.getProjectManager()).thenReturn(projectManager);
+
+    List<Issue> issues = Arrays.asList(createMockIssue(1),
+        createMockIssue(2));
+    doAnswer(invocation -> {
+      IssuePager.PageHandler handler =
+          (IssuePager.PageHandler) invocation.getArguments()[3];
+      handler.handle(new IssuePager.Page(issues, 0, 2));
+      return null;
+    }).when(issuePager).forEachPage(any(), anyInt(), anyInt(), any());
+
+    command.process(arguments);
+
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("project_id", "7");
+    verify(issuePager).forEachPage(eq(parameters), anyInt(), anyInt(),
+        any());
+    verify(issueManager, never()).getIssueById(anyInt());
+    for (Issue issue : issues) {
+      verify(issueManager).update(issue);
+    }
+    verify(out).println(
+        String.format(UpdateIssueCommand.BULK_UPDATE_SUCCESS_MESSAGE, 2));
+  }
+
+  @Test
+  public void testUpdateProjectWithTooManyIssues() throws Exception {
+    String[] arguments =
+        new String[] { "--project=Project1", "--subject=A new subject" };
+
+    Project project = mock(Project.class);
+    when(project.getName()).thenReturn("Project1");
+    when(project.getId()).thenReturn(7);
+    ProjectManager projectManager = mock(ProjectManager.class);
+    when(projectManager.getProjects()).thenReturn(Arrays.asList(project));
+    when(redmineManager.getProjectManager()).thenReturn(projectManager);
+
+    List<Issue> issues = Arrays.asList(createMockIssue(1),
+        createMockIssue(2));
+    //Counts the pages fetched after the first one
+    AtomicInteger pages = new AtomicInteger();
+    doAnswer(invocation -> {
+      IssuePager.PageHandler handler =
+          (IssuePager.PageHandler) invocation.getArguments()[3];
+      handler.handle(new IssuePager.Page(issues, 0,
+          UpdateIssueCommand.MAX_ISSUES + 1));
+      pages.incrementAndGet();
+      return null;
+    }).when(issuePager).forEachPage(any(), anyInt(), anyInt(), any());
+
+    exception.expect(Exception.class);
+    exception.expectMessage(String.format(
+        UpdateIssueCommand.TOO_MANY_ISSUES_MESSAGE,
+        UpdateIssueCommand.MAX_ISSUES));
+
+    try {
+      command.process(arguments);
+    } finally {
+      assertThat(pages.get()).isZero();
+      verify(issueManager, never()).update(any(Issue.class));
+    }
+  }
+
+  @Test
+  public void testUpdateWithIdsAndProject() throws Exception {
+    String[] arguments = new String[] { "1", "--project=Project1",
+        "--subject=A new subject" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(UpdateIssueCommand.IDS_AND_PROJECT_MESSAGE);
+
+    command.process(arguments);
+  }
+
+  @Test
+  public void testUpdateWithoutIssues() throws Exception {
+    String[] arguments = new String[] { "--subject=A new subject" };
+
+    exception.expect(Exception.class);
+    exception.expectMessage(UpdateIssueCommand.NO_ISSUES_SELECTED_MESSAGE);
+
+    command.process(arguments);
   }
 
   private Issue createMockIssue(int id) {
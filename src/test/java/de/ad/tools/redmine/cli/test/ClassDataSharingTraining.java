@@ -0,0 +1,117 @@
+package de.ad.tools.redmine.cli.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Creates an application class data sharing archive for the jar. The classes
+ * are those loaded by running representative commands against a
+ * {@link FakeRedmineServer}, then the JVM dumps them into the archive.
+ * <p>
+ * Needs Java 10 or later. The archive is only used by the same JVM and with
+ * the jar at the same path.
+ * <p>
+ * Usage: ClassDataSharingTraining &lt;jar&gt; &lt;archive&gt;
+ */
+public class ClassDataSharingTraining {
+  static final String[][] COMMANDS = new String[][] {
+      new String[] { "help" },
+      new String[] { "issues" },
+      new String[] { "issue", "1" } };
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: ClassDataSharingTraining <jar> <archive>");
+      System.exit(1);
+    }
+
+    File jar = new File(args[0]).getAbsoluteFile();
+    File archive = new File(args[1]).getAbsoluteFile();
+
+    Path directory = Files.createTempDirectory("redmine-cds");
+    try (FakeRedmineServer server = new FakeRedmineServer().start()) {
+      ClassDataSharingTraining training =
+          new ClassDataSharingTraining(jar, directory);
+
+      training.train("connect", server.getUrl(), FakeRedmineServer.API_KEY);
+      for (String[] command : COMMANDS) {
+        training.train(command);
+      }
+
+      training.dump(archive);
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private final File jar;
+  private final Path directory;
+  private final Set<String> classes = new LinkedHashSet<>();
+
+  ClassDataSharingTraining(File jar, Path directory) {
+    this.jar = jar;
+    this.directory = directory;
+  }
+
+  void train(String... command) throws Exception {
+    File classList = new File(directory.toFile(), "classes.lst");
+
+    List<String> arguments = new ArrayList<>();
+    arguments.add("-XX:DumpLoadedClassList=" + classList);
+    arguments.add("-jar");
+    arguments.add(jar.getPath());
+    arguments.addAll(Arrays.asList(command));
+    run(arguments);
+
+    //Each run overwrites the list, keep the classes of all commands
+    classes.addAll(Files.readAllLines(classList.toPath(),
+        StandardCharsets.UTF_8));
+  }
+
+  void dump(File archive) throws Exception {
+    File classList = new File(directory.toFile(), "classes.lst");
+    Files.write(classList.toPath(), classes, StandardCharsets.UTF_8);
+
+    archive.getParentFile().mkdirs();
+    run(Arrays.asList("-Xshare:dump",
+        "-XX:SharedClassListFile=" + classList,
+        "-XX:SharedArchiveFile=" + archive, "-cp", jar.getPath()));
+  }
+
+  private void run(List<String> arguments) throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(new File(System.getProperty("java.home"), "bin/java")
+        .getPath());
+    command.addAll(arguments);
+
+    Process process = new ProcessBuilder(command)
+        .directory(directory.toFile()).redirectErrorStream(true)
+        .redirectOutput(new File(directory.toFile(), "output.log")).start();
+
+    int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IllegalStateException(String.format(
+          "'%s' exited with %d:%n%s", String.join(" ", command), exitCode,
+          new String(Files.readAllBytes(
+              new File(directory.toFile(), "output.log").toPath()),
+              StandardCharsets.UTF_8)));
+    }
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile)
+          .forEach(File::delete);
+    }
+  }
+}
@@ -0,0 +1,725 @@
+package de.ad.tools.redmine.cli.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Serves the Redmine REST API from a generated dataset on localhost, so
+ * commands can be run against real HTTP, JSON and paging without a network.
+ * Latency and failing requests can be injected.
+ * <p>
+ * GET responses carry an ETag and are answered with '304 Not Modified' when
+ * the client already has the same body.
+ * <p>
+ * Covers what the commands use: projects, memberships, statuses, trackers,
+ * priorities, the current user and issues including journals, filters,
+ * creation and updates.
+ */
+public class FakeRedmineServer implements AutoCloseable {
+  public static final String API_KEY = "0123456789abcdef0123456789abcdef";
+
+  //Like Redmine, larger limits are capped
+  public static final int MAX_LIMIT = 100;
+
+  static final String[] STATUSES = new String[] { "New", "In Progress",
+      "Resolved", "Feedback", "Closed", "Rejected" };
+  static final Set<Integer> CLOSED_STATUS_IDS =
+      new HashSet<>(Arrays.asList(5, 6));
+  static final String[] TRACKERS = new String[] { "Bug", "Feature",
+      "Support" };
+  static final String[] PRIORITIES = new String[] { "Low", "Normal", "High",
+      "Urgent", "Immediate" };
+  private static final String[] WORDS = new String[] { "login", "timeout",
+      "page", "report", "export", "search", "cache", "session", "upload",
+      "mail", "import", "layout", "crash", "slow", "error", "permission" };
+
+  private static final long CREATED_ON = Instant.parse("2015-01-01T00:00:00Z")
+      .toEpochMilli();
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ISO_INSTANT;
+
+  private static final Pattern PROJECT_PATTERN =
+      Pattern.compile("^/projects/([^/]+)\\.json$");
+  private static final Pattern MEMBERSHIPS_PATTERN =
+      Pattern.compile("^/projects/([^/]+)/memberships\\.json$");
+  private static final Pattern ISSUE_PATTERN =
+      Pattern.compile("^/issues/([0-9]+)\\.json$");
+
+  private int projectCount = 3;
+  private int issueCount = 100;
+  private int journalCount = 2;
+  private int memberCount = 5;
+  private long latency;
+  private double errorRate;
+  private long seed = 42;
+
+  private final TreeMap<Integer, FakeIssue> issues = new TreeMap<>();
+  private final Map<String, List<FakeIssue>> queries = new HashMap<>();
+  private final AtomicInteger requestCount = new AtomicInteger();
+  private final AtomicLong bytesSent = new AtomicLong();
+
+  private Random random;
+  private HttpServer server;
+  private ExecutorService executor;
+
+  public FakeRedmineServer withProjects(int count) {
+    projectCount = count;
+    return this;
+  }
+
+  public FakeRedmineServer withIssues(int count) {
+    issueCount = count;
+    return this;
+  }
+
+  /**
+   * @param count the number of journals of each issue
+   */
+  public FakeRedmineServer withJournals(int count) {
+    journalCount = count;
+    return this;
+  }
+
+  /**
+   * @param count the number of members of each project. The first one is
+   * the current user.
+   */
+  public FakeRedmineServer withMembers(int count) {
+    memberCount = count;
+    return this;
+  }
+
+  /**
+   * @param millis delay before each response, e.g. to simulate the round
+   * trip time to a remote server
+   */
+  public FakeRedmineServer withLatency(long millis) {
+    latency = millis;
+    return this;
+  }
+
+  /**
+   * @param rate the share of requests answered with '500 Internal Server
+   * Error', between 0 and 1
+   */
+  public FakeRedmineServer withErrorRate(double rate) {
+    errorRate = rate;
+    return this;
+  }
+
+  public FakeRedmineServer withSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  public FakeRedmineServer start() throws IOException {
+    random = new Random(seed);
+    generateIssues();
+
+    server = HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+
+    return this;
+  }
+
+  public String getUrl() {
+    return "http://" + server.getAddress().getHostString() + ":"
+        + server.getAddress().getPort();
+  }
+
+  public int getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * @return the number of response body bytes sent so far
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  public void resetStatistics() {
+    requestCount.set(0);
+    bytesSent.set(0);
+  }
+
+  public synchronized int getIssueCount() {
+    return issues.size();
+  }
+
+  @Override public void close() {
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+    }
+  }
+
+  private void generateIssues() {
+    for (int id = 1; id <= issueCount; id++) {
+      FakeIssue issue = new FakeIssue(id);
+      issue.projectId = 1 + random.nextInt(projectCount);
+      issue.trackerId = 1 + random.nextInt(TRACKERS.length);
+      issue.statusId = 1 + random.nextInt(STATUSES.length);
+      issue.priorityId = 1 + random.nextInt(PRIORITIES.length);
+      issue.assigneeId = random.nextInt(5) == 0 ?
+          null : 1 + random.nextInt(memberCount);
+      issue.authorId = 1 + random.nextInt(memberCount);
+      issue.subject = words(4) + " " + id;
+      issue.description = words(20);
+      issue.createdOn = CREATED_ON + TimeUnit.MINUTES.toMillis(id);
+      issue.updatedOn = issue.createdOn
+          + TimeUnit.HOURS.toMillis(random.nextInt(24 * 30));
+      issue.journalCount = journalCount;
+
+      issues.put(id, issue);
+    }
+  }
+
+  private String words(int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+
+    return text.toString();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requestCount.incrementAndGet();
+
+    try {
+      Response response = respond(exchange);
+
+      //Like Rails, GET responses carry an ETag of their body
+      if ("GET".equals(exchange.getRequestMethod())
+          && response.status == 200) {
+        String etag = "\"" + Integer.toHexString(response.body.hashCode())
+            + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        if (etag.equals(
+            exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+          response = new Response(304, "");
+        }
+      }
+
+      if (latency > 0) {
+        Thread.sleep(latency);
+      }
+
+      send(exchange, response);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      send(exchange, new Response(500, "{\"errors\": [" +
+          JSONObject.quote(String.valueOf(e.getMessage())) + "]}"));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Response respond(HttpExchange exchange) throws Exception {
+    String method = exchange.getRequestMethod();
+    String path = exchange.getRequestURI().getPath();
+    Map<String, String> query =
+        parseQuery(exchange.getRequestURI().getRawQuery());
+
+    String key = query.containsKey("key") ? query.get("key") :
+        exchange.getRequestHeaders().getFirst("X-Redmine-API-Key");
+    if (!API_KEY.equals(key)) {
+      return new Response(401, "");
+    }
+
+    if (errorRate > 0 && random.nextDouble() < errorRate) {
+      return new Response(500, "");
+    }
+
+    Matcher matcher;
+    if ("GET".equals(method)) {
+      if (path.equals("/users/current.json")) {
+        return new Response(200, "{\"user\": " + userJson(1) + "}");
+      } else if (path.equals("/projects.json")) {
+        return list("projects", projects(), query);
+      } else if ((matcher = PROJECT_PATTERN.matcher(path)).matches()) {
+        Integer projectId = findProject(matcher.group(1));
+        return projectId != null ? new Response(200,
+            "{\"project\": " + projectJson(projectId) + "}") : notFound();
+      } else if ((matcher = MEMBERSHIPS_PATTERN.matcher(path)).matches()) {
+        Integer projectId = findProject(matcher.group(1));
+        return projectId != null ?
+            list("memberships", memberships(projectId), query) : notFound();
+      } else if (path.equals("/issue_statuses.json")) {
+        return list("issue_statuses", statuses(), query);
+      } else if (path.equals("/trackers.json")) {
+        return list("trackers", trackers(), query);
+      } else if (path.equals("/enumerations/issue_priorities.json")) {
+        return list("issue_priorities", priorities(), query);
+      } else if (path.equals("/issues.json")) {
+        return listIssues(query);
+      } else if ((matcher = ISSUE_PATTERN.matcher(path)).matches()) {
+        FakeIssue issue = getIssue(Integer.valueOf(matcher.group(1)));
+        boolean journals = query.getOrDefault("include", "")
+            .contains("journals");
+        return issue != null ? new Response(200,
+            "{\"issue\": " + issueJson(issue, journals) + "}") : notFound();
+      }
+    } else if ("POST".equals(method) && path.equals("/issues.json")) {
+      FakeIssue issue = createIssue(readIssue(exchange));
+      return new Response(201, "{\"issue\": " + issueJson(issue, false) + "}");
+    } else if ("PUT".equals(method)
+        && (matcher = ISSUE_PATTERN.matcher(path)).matches()) {
+      return updateIssue(Integer.valueOf(matcher.group(1)),
+          readIssue(exchange)) ? new Response(200, "") : notFound();
+    }
+
+    return notFound();
+  }
+
+  private Response listIssues(Map<String, String> query) {
+    Map<String, String> filters = new TreeMap<>(query);
+    filters.remove("key");
+    filters.remove("offset");
+    filters.remove("limit");
+
+    List<FakeIssue> matches;
+    synchronized (this) {
+      //Pages of one query share the filtered list
+      matches = queries.computeIfAbsent(filters.toString(),
+          k -> filterIssues(filters));
+    }
+
+    List<String> items = new ArrayList<>(matches.size());
+    int offset = getInt(query, "offset", 0);
+    int limit = Math.min(getInt(query, "limit", 25), MAX_LIMIT);
+    for (int i = offset; i < Math.min(offset + limit, matches.size()); i++) {
+      items.add(issueJson(matches.get(i), false));
+    }
+
+    return page("issues", items, matches.size(), offset, limit);
+  }
+
+  private List<FakeIssue> filterIssues(Map<String, String> filters) {
+    Predicate<FakeIssue> filter = issue -> true;
+
+    String status = filters.getOrDefault("status_id", "open");
+    if ("open".equals(status)) {
+      filter = filter.and(i -> !CLOSED_STATUS_IDS.contains(i.statusId));
+    } else if ("closed".equals(status)) {
+      filter = filter.and(i -> CLOSED_STATUS_IDS.contains(i.statusId));
+    } else if (!"*".equals(status)) {
+      Set<Integer> ids = parseIds(status);
+      filter = filter.and(i -> ids.contains(i.statusId));
+    }
+
+    if (filters.containsKey("project_id")) {
+      Integer projectId = findProject(filters.get("project_id"));
+      filter = filter.and(i -> i.projectId.equals(projectId));
+    }
+    if (filters.containsKey("tracker_id")) {
+      Set<Integer> ids = parseIds(filters.get("tracker_id"));
+      filter = filter.and(i -> ids.contains(i.trackerId));
+    }
+    if (filters.containsKey("priority_id")) {
+      Set<Integer> ids = parseIds(filters.get("priority_id"));
+      filter = filter.and(i -> ids.contains(i.priorityId));
+    }
+    if (filters.containsKey("assigned_to_id")) {
+      Set<Integer> ids =
+          parseIds(filters.get("assigned_to_id").replace("me", "1"));
+      filter = filter.and(i -> ids.contains(i.assigneeId));
+    }
+    if (filters.containsKey("updated_on")) {
+      String value = filters.get("updated_on");
+      if (!value.startsWith(">=")) {
+        throw new IllegalArgumentException("Unsupported filter " + value);
+      }
+      long since = parseTimestamp(value.substring(2));
+      filter = filter.and(i -> i.updatedOn >= since);
+    }
+
+    //The default order of Redmine is the newest issue first
+    List<FakeIssue> matches = new ArrayList<>();
+    for (FakeIssue issue : issues.descendingMap().values()) {
+      if (filter.test(issue)) {
+        matches.add(issue);
+      }
+    }
+
+    return matches;
+  }
+
+  private synchronized FakeIssue getIssue(int id) {
+    return issues.get(id);
+  }
+
+  private synchronized FakeIssue createIssue(JSONObject json)
+      throws JSONException {
+    FakeIssue issue = new FakeIssue(issues.isEmpty() ? 1 :
+        issues.lastKey() + 1);
+    issue.projectId = json.getInt("project_id");
+    issue.subject = json.getString("subject");
+    issue.trackerId = 1;
+    issue.statusId = 1;
+    issue.priorityId = 2;
+    issue.authorId = 1;
+    issue.description = "";
+    issue.createdOn = System.currentTimeMillis();
+    apply(json, issue);
+
+    issues.put(issue.id, issue);
+    queries.clear();
+
+    return issue;
+  }
+
+  private synchronized boolean updateIssue(int id, JSONObject json)
+      throws JSONException {
+    FakeIssue issue = issues.get(id);
+    if (issue == null) {
+      return false;
+    }
+
+    issue.subject = json.optString("subject", issue.subject);
+    if (json.has("project_id")) {
+      issue.projectId = json.getInt("project_id");
+    }
+    apply(json, issue);
+    queries.clear();
+
+    return true;
+  }
+
+  private static void apply(JSONObject json, FakeIssue issue)
+      throws JSONException {
+    issue.description = json.optString("description", issue.description);
+    if (json.has("tracker_id")) {
+      issue.trackerId = json.getInt("tracker_id");
+    }
+    if (json.has("status_id")) {
+      issue.statusId = json.getInt("status_id");
+    }
+    if (json.has("priority_id")) {
+      issue.priorityId = json.getInt("priority_id");
+    }
+    if (json.has("assigned_to_id")) {
+      issue.assigneeId = json.getInt("assigned_to_id");
+    }
+    issue.updatedOn = System.currentTimeMillis();
+  }
+
+  private static JSONObject readIssue(HttpExchange exchange)
+      throws IOException, JSONException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        body.write(buffer, 0, read);
+      }
+    }
+
+    return new JSONObject(new String(body.toByteArray(),
+        StandardCharsets.UTF_8)).getJSONObject("issue");
+  }
+
+  private Integer findProject(String key) {
+    for (int id = 1; id <= projectCount; id++) {
+      if (key.equals(String.valueOf(id)) || key.equals(identifier(id))) {
+        return id;
+      }
+    }
+
+    return null;
+  }
+
+  private List<String> projects() {
+    List<String> projects = new ArrayList<>();
+    for (int id = 1; id <= projectCount; id++) {
+      projects.add(projectJson(id));
+    }
+
+    return projects;
+  }
+
+  private List<String> memberships(int projectId) {
+    List<String> memberships = new ArrayList<>();
+    for (int userId = 1; userId <= memberCount; userId++) {
+      memberships.add("{\"id\": " + (projectId * 1000 + userId)
+          + ", \"project\": " + reference(projectId, projectName(projectId))
+          + ", \"user\": " + reference(userId, userName(userId))
+          + ", \"roles\": [" + (userId == 1 ?
+          reference(3, "Manager") : reference(4, "Developer")) + "]}");
+    }
+
+    return memberships;
+  }
+
+  private static List<String> statuses() {
+    List<String> statuses = new ArrayList<>();
+    for (int id = 1; id <= STATUSES.length; id++) {
+      statuses.add("{\"id\": " + id + ", \"name\": "
+          + JSONObject.quote(STATUSES[id - 1]) + ", \"is_default\": "
+          + (id == 1) + ", \"is_closed\": " + CLOSED_STATUS_IDS.contains(id)
+          + "}");
+    }
+
+    return statuses;
+  }
+
+  private static List<String> trackers() {
+    List<String> trackers = new ArrayList<>();
+    for (int id = 1; id <= TRACKERS.length; id++) {
+      trackers.add(reference(id, TRACKERS[id - 1]));
+    }
+
+    return trackers;
+  }
+
+  private static List<String> priorities() {
+    List<String> priorities = new ArrayList<>();
+    for (int id = 1; id <= PRIORITIES.length; id++) {
+      priorities.add("{\"id\": " + id + ", \"name\": "
+          + JSONObject.quote(PRIORITIES[id - 1]) + ", \"is_default\": "
+          + (id == 2) + "}");
+    }
+
+    return priorities;
+  }
+
+  private static String projectJson(int id) {
+    return "{\"id\": " + id + ", \"name\": "
+        + JSONObject.quote(projectName(id)) + ", \"identifier\": "
+        + JSONObject.quote(identifier(id)) + ", \"description\": "
+        + JSONObject.quote("Description of " + projectName(id))
+        + ", \"created_on\": \"" + timestamp(CREATED_ON)
+        + "\", \"updated_on\": \"" + timestamp(CREATED_ON)
+        + "\", \"trackers\": [" + String.join(", ", trackers()) + "]}";
+  }
+
+  private static String userJson(int id) {
+    return "{\"id\": " + id + ", \"login\": \"user" + id
+        + "\", \"firstname\": \"User\", \"lastname\": \"" + id
+        + "\", \"mail\": \"user" + id + "@example.com\", \"created_on\": \""
+        + timestamp(CREATED_ON) + "\"}";
+  }
+
+  private static String issueJson(FakeIssue issue, boolean journals) {
+    StringBuilder json = new StringBuilder(512);
+    json.append("{\"id\": ").append(issue.id)
+        .append(", \"project\": ")
+        .append(reference(issue.projectId, projectName(issue.projectId)))
+        .append(", \"tracker\": ")
+        .append(reference(issue.trackerId, TRACKERS[issue.trackerId - 1]))
+        .append(", \"status\": ")
+        .append(reference(issue.statusId, STATUSES[issue.statusId - 1]))
+        .append(", \"priority\": ")
+        .append(reference(issue.priorityId,
+            PRIORITIES[issue.priorityId - 1]))
+        .append(", \"author\": ")
+        .append(reference(issue.authorId, userName(issue.authorId)));
+    if (issue.assigneeId != null) {
+      json.append(", \"assigned_to\": ")
+          .append(reference(issue.assigneeId, userName(issue.assigneeId)));
+    }
+    json.append(", \"subject\": ").append(JSONObject.quote(issue.subject))
+        .append(", \"description\": ")
+        .append(JSONObject.quote(issue.description))
+        .append(", \"created_on\": \"").append(timestamp(issue.createdOn))
+        .append("\", \"updated_on\": \"").append(timestamp(issue.updatedOn))
+        .append('"');
+
+    if (journals) {
+      json.append(", \"journals\": [");
+      for (int i = 1; i <= issue.journalCount; i++) {
+        if (i > 1) {
+          json.append(", ");
+        }
+        int userId = 1 + (issue.id + i) % Math.max(1, issue.authorId);
+        json.append("{\"id\": ").append(issue.id * 1000 + i)
+            .append(", \"user\": ").append(reference(userId, userName(userId)))
+            .append(", \"notes\": ")
+            .append(JSONObject.quote("Note " + i + " on #" + issue.id))
+            .append(", \"created_on\": \"")
+            .append(timestamp(issue.createdOn
+                + TimeUnit.HOURS.toMillis(i)))
+            .append("\", \"details\": [{\"property\": \"attr\", ")
+            .append("\"name\": \"status_id\", \"old_value\": \"1\", ")
+            .append("\"new_value\": \"2\"}]}");
+      }
+      json.append(']');
+    }
+
+    return json.append('}').toString();
+  }
+
+  private static Response list(String name, List<String> all,
+      Map<String, String> query) {
+    int offset = getInt(query, "offset", 0);
+    int limit = Math.min(getInt(query, "limit", 25), MAX_LIMIT);
+
+    List<String> items = all.subList(Math.min(offset, all.size()),
+        Math.min(offset + limit, all.size()));
+
+    return page(name, items, all.size(), offset, limit);
+  }
+
+  private static Response page(String name, List<String> items,
+      int totalCount, int offset, int limit) {
+    return new Response(200, "{\"" + name + "\": ["
+        + String.join(", ", items) + "], \"total_count\": " + totalCount
+        + ", \"offset\": " + offset + ", \"limit\": " + limit + "}");
+  }
+
+  private static Response notFound() {
+    return new Response(404, "");
+  }
+
+  private void send(HttpExchange exchange, Response response)
+      throws IOException {
+    byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+
+    exchange.getResponseHeaders().set("Content-Type",
+        "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(response.status,
+        body.length > 0 ? body.length : -1);
+    if (body.length > 0) {
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+
+    bytesSent.addAndGet(body.length);
+  }
+
+  private static String reference(int id, String name) {
+    return "{\"id\": " + id + ", \"name\": " + JSONObject.quote(name) + "}";
+  }
+
+  private static String projectName(int id) {
+    return "Project " + id;
+  }
+
+  private static String identifier(int id) {
+    return "project-" + id;
+  }
+
+  private static String userName(int id) {
+    return "User " + id;
+  }
+
+  private static String timestamp(long millis) {
+    return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(millis)
+        .truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
+  }
+
+  private static long parseTimestamp(String value) {
+    if (value.length() == 10) {
+      return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+          .toEpochMilli();
+    }
+
+    return Instant.parse(value).toEpochMilli();
+  }
+
+  private static Set<Integer> parseIds(String value) {
+    Set<Integer> ids = new HashSet<>();
+    for (String id : value.split("\\|")) {
+      ids.add(Integer.valueOf(id.trim()));
+    }
+
+    return ids;
+  }
+
+  private static int getInt(Map<String, String> query, String name,
+      int defaultValue) {
+    String value = query.get(name);
+
+    return value != null ? Integer.parseInt(value) : defaultValue;
+  }
+
+  private static Map<String, String> parseQuery(String query)
+      throws UnsupportedEncodingException {
+    Map<String, String> parameters = new HashMap<>();
+    if (query == null) {
+      return parameters;
+    }
+
+    for (String parameter : query.split("&")) {
+      int separator = parameter.indexOf('=');
+      if (separator > 0) {
+        parameters.put(
+            URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+            URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+      }
+    }
+
+    return parameters;
+  }
+
+  private static final class Response {
+    private final int status;
+    private final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  private static final class FakeIssue {
+    private final int id;
+    private Integer projectId;
+    private int trackerId;
+    private int statusId;
+    private int priorityId;
+    private Integer assigneeId;
+    private int authorId;
+    private String subject;
+    private String description;
+    private long createdOn;
+    private long updatedOn;
+    private int journalCount;
+
+    FakeIssue(int id) {
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package de.ad.tools.redmine.cli.test;
+
+import de.ad.tools.redmine.cli.Configuration;
+import de.ad.tools.redmine.cli.RedmineCli;
+import de.ad.tools.redmine.cli.util.FileUtil;
+import de.ad.tools.redmine.cli.util.RedmineUtil;
+import de.ad.tools.redmine.cli.util.ReferenceDataCache;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FakeRedmineServerTest {
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  private FakeRedmineServer server;
+  private ByteArrayOutputStream stream;
+
+  private RedmineCli redmineCli;
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    RedmineUtil.cache = new ReferenceDataCache();
+
+    server = new FakeRedmineServer().withProjects(2).withIssues(250)
+        .withJournals(3).start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.close();
+  }
+
+  @Test
+  public void testConnect() throws Exception {
+    createCli(new Configuration());
+
+    redmineCli.handleCommand(
+        new String[] { "connect", server.getUrl(),
+            FakeRedmineServer.API_KEY });
+
+    assertThat(stream.toString()).contains("user1");
+  }
+
+  @Test
+  public void testIssuesAcrossPages() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "issues" });
+
+    String output = stream.toString();
+    assertThat(output.split("\n").length).isGreaterThan(
+        FakeRedmineServer.MAX_LIMIT + 2);
+    assertThat(server.getRequestCount()).isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  public void testIssuesWithFilters() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "issues", "--project=Project 1",
+        "--status=Closed,Rejected", "--assignee=me" });
+
+    assertThat(stream.toString()).contains("Closed").contains("User 1")
+        .doesNotContain("In Progress").doesNotContain("User 2");
+  }
+
+  @Test
+  public void testIssueAndHistory() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "issue", "42" });
+    redmineCli.handleCommand(new String[] { "history", "42" });
+
+    assertThat(stream.toString()).contains(" 42").contains("Note 3 on #42");
+  }
+
+  @Test
+  public void testProjectsAndProject() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "projects" });
+    redmineCli.handleCommand(new String[] { "project", "project-2" });
+
+    assertThat(stream.toString()).contains("project-1").contains("Project 2")
+        .contains("User 5");
+  }
+
+  @Test
+  public void testList() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "list", "status" });
+
+    assertThat(stream.toString()).contains("In Progress").contains("Rejected");
+  }
+
+  @Test
+  public void testCreateAndUpdateIssue() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "create-issue", "project-1",
+        "New subject", "--priority=High" });
+    redmineCli.handleCommand(
+        new String[] { "update-issue", "251", "--status=Resolved" });
+    redmineCli.handleCommand(new String[] { "issue", "251" });
+
+    assertThat(server.getIssueCount()).isEqualTo(251);
+    assertThat(stream.toString()).contains("New subject").contains("High")
+        .contains("Resolved");
+  }
+
+  @Test
+  public void testRevalidatesReferenceData() throws Exception {
+    createConnectedCli();
+
+    redmineCli.handleCommand(new String[] { "projects" });
+    long bytesSent = server.getBytesSent();
+    redmineCli.handleCommand(new String[] { "projects" });
+
+    assertThat(server.getBytesSent()).isEqualTo(bytesSent);
+    assertThat(stream.toString()).contains("project-2");
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    server.close();
+    server = new FakeRedmineServer().withErrorRate(1).start();
+    createConnectedCli();
+
+    exception.expect(Exception.class);
+    redmineCli.handleCommand(new String[] { "issue", "1" });
+  }
+
+  @Test
+  public void testLatency() throws Exception {
+    server.close();
+    server = new FakeRedmineServer().withLatency(100).start();
+    createConnectedCli();
+
+    long start = System.nanoTime();
+    redmineCli.handleCommand(new String[] { "issue", "1" });
+
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(100000000L);
+  }
+
+  private void createConnectedCli() {
+    Configuration configuration = new Configuration();
+    configuration.setServer(server.getUrl());
+    configuration.setApiKey(FakeRedmineServer.API_KEY);
+
+    createCli(configuration);
+  }
+
+  private void createCli(Configuration configuration) {
+    stream = new ByteArrayOutputStream();
+    redmineCli = new RedmineCli(configuration, new PrintStream(stream),
+        new RedmineCli.RedmineManagerFactory());
+  }
+}
@@ -11,6 +11,28 @@ public class TestHelper {
     return toByteArray(in);
   }
 
+  /**
+   * @return an issue in the JSON format of the server, e.g. for the mirror
+   */
+  public static String issueJson(int id, String projectName, String status,
+      int statusId) {
+    return "{\"id\": " + id + ", "
+        + "\"project\": {\"id\": 7, \"name\": \"" + projectName + "\"}, "
+        + "\"tracker\": {\"id\": 1, \"name\": \"Bug\"}, "
+        + "\"status\": {\"id\": " + statusId + ", \"name\": \"" + status
+        + "\"}, "
+        + "\"priority\": {\"id\": 2, \"name\": \"High\"}, "
+        + "\"author\": {\"id\": 3, \"name\": \"John Doe\"}, "
+        + "\"assigned_to\": {\"id\": 3, \"name\": \"John Doe\"}, "
+        + "\"subject\": \"Subject of #" + id + "\", "
+        + "\"description\": \"Description of #" + id + "\", "
+        + "\"created_on\": \"2015-01-01T10:00:00Z\", "
+        + "\"updated_on\": \"2015-01-02T10:00:00Z\", "
+        + "\"journals\": [{\"id\": 1, \"user\": {\"id\": 3, "
+        + "\"name\": \"John Doe\"}, \"notes\": \"A note\", "
+        + "\"created_on\": \"2015-01-02T10:00:00Z\", \"details\": []}]}";
+  }
+
   private static byte[] toByteArray(InputStream in) throws IOException {
     ByteArrayOutputStream bytes = new ByteArrayOutputStream();
 
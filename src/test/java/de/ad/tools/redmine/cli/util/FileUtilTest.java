@@ -4,8 +4,15 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.rules.TemporaryFolder;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,6 +64,102 @@ public class FileUtilTest {
     assertThat(result).isEqualTo(object);
   }
 
+  @Test
+  public void testWriteFile() throws Exception {
+    byte[] content = new byte[] { 1, 2, 3 };
+    FileUtil.writeFile("test", content);
+    FileUtil.writeFile("test", content);
+
+    byte[] result = FileUtil.readFile("test");
+
+    assertThat(result).isEqualTo(content);
+    assertThat(tmpFolder.getRoot().list())
+        .containsOnly("test", FileUtil.LOCK_FILE_NAME);
+  }
+
+  @Test
+  public void testFilesShareLockFile() throws Exception {
+    FileUtil.writeFile("test1", new byte[] { 1 });
+    FileUtil.writeFile("test2", new byte[] { 2 });
+    FileUtil.updateFile("test1", content -> {
+      //Nested calls keep the lock of the thread
+      assertThat(FileUtil.readFile("test2")).isEqualTo(new byte[] { 2 });
+      return null;
+    });
+
+    assertThat(tmpFolder.getRoot().list())
+        .containsOnly("test1", "test2", FileUtil.LOCK_FILE_NAME);
+  }
+
+  @Test
+  public void testUpdateFile() throws Exception {
+    FileUtil.updateFile("test", content -> {
+      assertThat(content).isNull();
+      return new byte[] { 1 };
+    });
+    FileUtil.updateFile("test", content -> new byte[] { content[0], 2 });
+    FileUtil.updateFile("test", content -> null);
+
+    byte[] result = FileUtil.readFile("test");
+
+    assertThat(result).isEqualTo(new byte[] { 1, 2 });
+  }
+
+  @Test
+  public void testUpdateFileConcurrently() throws Exception {
+    FileUtil.writeFile("test", new byte[] { 0 });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      futures.add(executor.submit(() -> {
+        FileUtil.updateFile("test",
+            content -> new byte[] { (byte) (content[0] + 1) });
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    byte[] result = FileUtil.readFile("test");
+
+    assertThat(result).isEqualTo(new byte[] { 50 });
+  }
+
+  @Test
+  public void testReadFileConcurrently() throws Exception {
+    FileUtil.writeFile("test1", new byte[] { 1 });
+    FileUtil.writeFile("test2", new byte[] { 2 });
+
+    //Readers share one file lock, overlapping locks would fail
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<byte[]>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      String filename = i % 2 == 0 ? "test1" : "test2";
+      futures.add(executor.submit(() -> FileUtil.readFile(filename)));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      assertThat(futures.get(i).get())
+          .isEqualTo(new byte[] { (byte) (i % 2 + 1) });
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testReadFileWithoutLockFile() throws Exception {
+    Files.write(new File(tmpFolder.getRoot(), "test").toPath(),
+        new byte[] { 1 });
+    //Cannot be created or opened, like in a read-only directory
+    assertThat(new File(tmpFolder.getRoot(), FileUtil.LOCK_FILE_NAME).mkdir())
+        .isTrue();
+
+    byte[] result = FileUtil.readFile("test");
+
+    assertThat(result).isEqualTo(new byte[] { 1 });
+  }
+
   @Test
   public void testPrivateConstructor() throws Exception {
     Constructor<?>[] constructors =
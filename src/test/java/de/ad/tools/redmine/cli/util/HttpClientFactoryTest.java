@@ -0,0 +1,133 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpClientFactoryTest {
+
+  @Test
+  public void testCreate() throws Exception {
+    DefaultHttpClient client =
+        (DefaultHttpClient) HttpClientFactory.create(16, 30, 5, 20, true);
+
+    try {
+      HttpParams params = client.getParams();
+      assertThat(HttpConnectionParams.getConnectionTimeout(params))
+          .isEqualTo(5000);
+      assertThat(HttpConnectionParams.getSoTimeout(params)).isEqualTo(20000);
+      assertThat(HttpConnectionParams.getTcpNoDelay(params)).isTrue();
+      assertThat(params.getLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, 0))
+          .isEqualTo(5000);
+
+      PoolingClientConnectionManager connectionManager =
+          (PoolingClientConnectionManager) client.getConnectionManager();
+      assertThat(connectionManager.getMaxTotal()).isEqualTo(16);
+      assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(16);
+    } finally {
+      client.getConnectionManager().shutdown();
+    }
+  }
+
+  @Test
+  public void testCompression() throws Exception {
+    DefaultHttpClient client =
+        (DefaultHttpClient) HttpClientFactory.create(1, 30, 5, 20, true);
+
+    try {
+      //The Redmine API asks for gzip, the client adds no second header
+      assertThat(findRequestInterceptor(client, RequestAcceptEncoding.class))
+          .isNull();
+      assertThat(findRequestInterceptor(client,
+          HttpClientFactory.RemoveAcceptEncoding.class)).isNull();
+
+      BasicHttpContext context = new BasicHttpContext();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+        gzip.write("{\"issues\": []}".getBytes("UTF-8"));
+      }
+      HttpResponse response =
+          new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+      ByteArrayEntity entity = new ByteArrayEntity(bytes.toByteArray());
+      entity.setContentEncoding("gzip");
+      response.setEntity(entity);
+      for (int i = 0; i < client.getResponseInterceptorCount(); i++) {
+        if (client.getResponseInterceptor(i)
+            instanceof ResponseContentEncoding) {
+          client.getResponseInterceptor(i).process(response, context);
+        }
+      }
+
+      assertThat(EntityUtils.toString(response.getEntity()))
+          .isEqualTo("{\"issues\": []}");
+    } finally {
+      client.getConnectionManager().shutdown();
+    }
+  }
+
+  @Test
+  public void testWithoutCompression() throws Exception {
+    DefaultHttpClient client =
+        (DefaultHttpClient) HttpClientFactory.create(1, 30, 5, 20, false);
+
+    try {
+      BasicHttpRequest request = new BasicHttpRequest("GET", "/issues.json");
+      request.addHeader("Accept-Encoding", "gzip");
+      findRequestInterceptor(client,
+          HttpClientFactory.RemoveAcceptEncoding.class)
+          .process(request, new BasicHttpContext());
+
+      assertThat(request.containsHeader("Accept-Encoding")).isFalse();
+    } finally {
+      client.getConnectionManager().shutdown();
+    }
+  }
+
+  @Test
+  public void testKeepAlive() throws Exception {
+    ConnectionKeepAliveStrategy strategy =
+        HttpClientFactory.createKeepAliveStrategy(30000);
+
+    HttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    assertThat(strategy.getKeepAliveDuration(response, null))
+        .isEqualTo(30000);
+
+    response.setHeader("Keep-Alive", "timeout=5");
+    assertThat(strategy.getKeepAliveDuration(response, null))
+        .isEqualTo(5000);
+
+    response.setHeader("Keep-Alive", "timeout=300");
+    assertThat(strategy.getKeepAliveDuration(response, null))
+        .isEqualTo(30000);
+  }
+
+  private static HttpRequestInterceptor findRequestInterceptor(
+      DefaultHttpClient client, Class<?> type) {
+    for (int i = 0; i < client.getRequestInterceptorCount(); i++) {
+      if (type.isInstance(client.getRequestInterceptor(i))) {
+        return client.getRequestInterceptor(i);
+      }
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,108 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.bean.Issue;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static de.ad.tools.redmine.cli.test.TestHelper.issueJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IssueMirrorTest {
+  private static final String SERVER = "http://test.redmine.com";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private IssueMirror mirror;
+  private long now;
+
+  @Before
+  public void setUp() throws Exception {
+    now = 100000;
+    mirror = new IssueMirror(SERVER);
+    mirror.setClock(() -> now);
+    mirror.follow(7, "Project1");
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    Map<Integer, String> issues = new HashMap<>();
+    issues.put(1, issueJson(1, "Project1", "New", 1));
+    issues.put(2, issueJson(2, "Project1", "Closed", 5));
+    mirror.setClosedStatusIds(Collections.singleton(5));
+
+    mirror.update(7, issues, new Date(42), now);
+
+    assertThat(mirror.getIssues()).extracting("id").containsExactly(2, 1);
+    Issue issue = mirror.getIssue(1).get();
+    assertThat(issue.getSubject()).isEqualTo("Subject of #1");
+    assertThat(issue.getJournals()).hasSize(1);
+    assertThat(mirror.isClosed(mirror.getIssue(2).get())).isTrue();
+    assertThat(mirror.getIssue(3).isPresent()).isFalse();
+    assertThat(mirror.getProjects().iterator().next().getWatermark())
+        .isEqualTo(new Date(42));
+  }
+
+  @Test
+  public void testUpdateKeepsWatermarkWithoutChanges() throws Exception {
+    mirror.update(7, Collections.emptyMap(), new Date(42), now);
+    mirror.update(7, Collections.emptyMap(), null, now);
+
+    assertThat(mirror.getProjects().iterator().next().getWatermark())
+        .isEqualTo(new Date(42));
+  }
+
+  @Test
+  public void testIsFresh() throws Exception {
+    assertThat(mirror.isFresh(7, 1000)).isFalse();
+
+    mirror.update(7, Collections.emptyMap(), null, now);
+    now += 1000;
+
+    assertThat(mirror.isFresh(7, 1000)).isTrue();
+    assertThat(mirror.isFresh(1000)).isTrue();
+    assertThat(mirror.isFresh(7, 999)).isFalse();
+    assertThat(mirror.isFresh(8, 1000)).isFalse();
+  }
+
+  @Test
+  public void testFollow() throws Exception {
+    mirror.follow(7, "Project1");
+    mirror.follow(8, "Project2");
+
+    assertThat(mirror.getProjects()).extracting("name")
+        .containsExactly("Project1", "Project2");
+    assertThat(mirror.getProjectByName("Project2").get().getId())
+        .isEqualTo(8);
+  }
+
+  @Test
+  public void testStore() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    IssueMirror.Store store = new IssueMirror.Store("mirror");
+    mirror.update(7, Collections.singletonMap(1,
+        issueJson(1, "Project1", "New", 1)), null, now);
+
+    store.save(mirror);
+
+    assertThat(store.load(SERVER).getIssue(1).isPresent()).isTrue();
+    assertThat(store.load("http://other.redmine.com").getIssues()).isEmpty();
+  }
+
+  @Test
+  public void testStoreWithoutFile() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    IssueMirror.Store store = new IssueMirror.Store("mirror");
+
+    IssueMirror actual = store.load(SERVER);
+
+    assertThat(actual.getServer()).isEqualTo(SERVER);
+    assertThat(actual.getProjects()).isEmpty();
+  }
+}
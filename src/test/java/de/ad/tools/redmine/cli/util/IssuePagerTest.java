@@ -0,0 +1,145 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.RedmineException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IssuePagerTest {
+  private HttpClient httpClient;
+
+  private IssuePager issuePager;
+
+  @Rule
+  public ExpectedException exception = ExpectedException.none();
+
+  @Before
+  public void setUp() throws Exception {
+    httpClient = mock(HttpClient.class);
+
+    issuePager =
+        new IssuePager("http://test.redmine.com", "apiKey", httpClient);
+  }
+
+  @Test
+  public void testGetPage() throws Exception {
+    HttpResponse response = createResponse(
+        "{\"issues\":[{\"id\":1,\"subject\":\"Issue 1\"}],"
+            + "\"total_count\":5,\"offset\":2,\"limit\":1}");
+    when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(response);
+
+    IssuePager.Page page = issuePager.getPage(
+        Collections.singletonMap("status_id", "2"), 2, 1);
+
+    ArgumentCaptor<HttpUriRequest> request =
+        ArgumentCaptor.forClass(HttpUriRequest.class);
+    verify(httpClient).execute(request.capture());
+
+    String uri = request.getValue().getURI().toString();
+    assertThat(uri).startsWith("http://test.redmine.com/issues.json?");
+    assertThat(uri).contains("status_id=2", "offset=2", "limit=1",
+        "key=apiKey");
+
+    assertThat(page.getIssues()).hasSize(1);
+    assertThat(page.getIssues().get(0).getSubject()).isEqualTo("Issue 1");
+    assertThat(page.getOffset()).isEqualTo(2);
+    assertThat(page.getTotalCount()).isEqualTo(5);
+  }
+
+  @Test
+  public void testForEachPage() throws Exception {
+    HttpResponse page1 = createResponse(
+        "{\"issues\":[{\"id\":2},{\"id\":1}],\"total_count\":3}");
+    HttpResponse page2 = createResponse(
+        "{\"issues\":[{\"id\":3}],\"total_count\":3}");
+    when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(page1,
+        page2);
+
+    List<Integer> offsets = new ArrayList<>();
+    issuePager.forEachPage(Collections.emptyMap(), 2,
+        page -> offsets.add(page.getOffset()));
+
+    verify(httpClient, times(2)).execute(any(HttpUriRequest.class));
+    assertThat(offsets).containsExactly(0, 2);
+  }
+
+  @Test
+  public void testForEachPageWithoutResults() throws Exception {
+    HttpResponse response =
+        createResponse("{\"issues\":[],\"total_count\":0}");
+    when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(response);
+
+    List<Integer> sizes = new ArrayList<>();
+    issuePager.forEachPage(Collections.emptyMap(), 0,
+        page -> sizes.add(page.getIssues().size()));
+
+    verify(httpClient, times(1)).execute(any(HttpUriRequest.class));
+    assertThat(sizes).containsExactly(0);
+  }
+
+  @Test
+  public void testForEachPageConcurrently() throws Exception {
+    when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(
+        invocation -> {
+          HttpUriRequest request = (HttpUriRequest) invocation.getArguments()[0];
+          int offset = Integer.parseInt(request.getURI().getQuery()
+              .replaceAll(".*offset=([0-9]+).*", "$1"));
+
+          //Let later pages overtake earlier ones
+          Thread.sleep(50 - offset * 5);
+
+          return createResponse(String.format(
+              "{\"issues\":[{\"id\":%d},{\"id\":%d}],\"total_count\":10}",
+              offset + 1, offset + 2));
+        });
+
+    List<Integer> ids = new ArrayList<>();
+    issuePager.forEachPage(Collections.emptyMap(), 2, 3,
+        page -> page.getIssues().forEach(i -> ids.add(i.getId())));
+
+    verify(httpClient, times(5)).execute(any(HttpUriRequest.class));
+    assertThat(ids).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+  }
+
+  @Test
+  public void testForEachPageConcurrentlyWithError() throws Exception {
+    HttpResponse page1 = createResponse(
+        "{\"issues\":[{\"id\":1}],\"total_count\":3}");
+    HttpResponse error =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, 500, "Error");
+    error.setEntity(new StringEntity("", "UTF-8"));
+    when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(page1,
+        error);
+
+    exception.expect(RedmineException.class);
+
+    issuePager.forEachPage(Collections.emptyMap(), 1, 2, page -> {
+    });
+  }
+
+  private HttpResponse createResponse(String json) throws Exception {
+    HttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+    response.setEntity(new StringEntity(json, "UTF-8"));
+
+    return response;
+  }
+}
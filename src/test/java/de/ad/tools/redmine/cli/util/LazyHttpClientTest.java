@@ -0,0 +1,100 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LazyHttpClientTest {
+  private HttpClient delegate;
+  private int created;
+
+  private LazyHttpClient httpClient;
+
+  @After
+  public void tearDown() throws Exception {
+    Timings.instance = new Timings(false);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    delegate = mock(HttpClient.class);
+    created = 0;
+
+    httpClient = new LazyHttpClient(() -> {
+      created++;
+      return delegate;
+    });
+  }
+
+  @Test
+  public void testCreatesDelegateOnFirstRequest() throws Exception {
+    HttpResponse response = mock(HttpResponse.class);
+    when(delegate.execute(any(HttpUriRequest.class))).thenReturn(response);
+
+    assertThat(httpClient.isInitialized()).isFalse();
+
+    HttpGet request = new HttpGet("http://test.redmine.com");
+    assertThat(httpClient.execute(request)).isSameAs(response);
+    httpClient.execute(request);
+
+    assertThat(httpClient.isInitialized()).isTrue();
+    assertThat(created).isEqualTo(1);
+  }
+
+  @Test
+  public void testShutdownBeforeFirstRequest() throws Exception {
+    httpClient.shutdown();
+
+    assertThat(created).isEqualTo(0);
+  }
+
+  @Test
+  public void testShutdown() throws Exception {
+    ClientConnectionManager connectionManager =
+        mock(ClientConnectionManager.class);
+    when(delegate.getConnectionManager()).thenReturn(connectionManager);
+
+    httpClient.getConnectionManager();
+    httpClient.shutdown();
+
+    verify(connectionManager).shutdown();
+    verify(delegate, never()).execute(any(HttpUriRequest.class));
+  }
+
+  @Test
+  public void testRecordsTimings() throws Exception {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200,
+        "OK");
+    response.setEntity(new StringEntity("{\"a\"}"));
+    when(delegate.execute(any(HttpUriRequest.class))).thenReturn(response);
+    Timings.instance = new Timings(true);
+
+    HttpResponse actual = httpClient.execute(
+        new HttpGet("http://test.redmine.com/issues.json?limit=25"));
+
+    assertThat(EntityUtils.toString(actual.getEntity())).isEqualTo("{\"a\"}");
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    Timings.instance.report(new PrintStream(stream));
+    assertThat(new String(stream.toByteArray()))
+        .contains("GET /issues.json 200 5 bytes");
+  }
+}
@@ -14,12 +14,15 @@ import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RedmineUtilTest {
@@ -106,6 +109,67 @@ public class RedmineUtilTest {
     assertThat(actual.get()).isEqualTo(expected);
   }
 
+  @Test
+  public void testResolveFromCache() throws Exception {
+    RedmineUtil.cache = new ReferenceDataCache();
+    RedmineUtil.cache.bind("http://test.redmine.com", 60000);
+
+    List<IssueStatus> statuses = createDummyStatuses();
+    when(issueManager.getStatuses()).thenReturn(statuses);
+
+    RedmineUtil.resolveStatusByName(redmineManager, "Closed");
+    Optional<IssueStatus> actual =
+        RedmineUtil.resolveStatusByName(redmineManager, "Closed");
+
+    verify(issueManager, times(1)).getStatuses();
+    assertThat(actual.isPresent()).isTrue();
+    assertThat(actual.get().getId()).isEqualTo(2);
+    assertThat(actual.get().getName()).isEqualTo("Closed");
+  }
+
+  @Test
+  public void testResolveFromCacheWithUnknownName() throws Exception {
+    RedmineUtil.cache = new ReferenceDataCache();
+    RedmineUtil.cache.bind("http://test.redmine.com", 60000);
+
+    List<Tracker> trackers = createDummyTrackers();
+    when(issueManager.getTrackers()).thenReturn(trackers);
+
+    RedmineUtil.resolveTrackerByName(redmineManager, "Feature");
+    Optional<Tracker> actual =
+        RedmineUtil.resolveTrackerByName(redmineManager, "Support");
+
+    verify(issueManager, times(2)).getTrackers();
+    assertThat(actual.isPresent()).isFalse();
+  }
+
+  @Test
+  public void testRefreshReferenceData() throws Exception {
+    RedmineUtil.cache = new ReferenceDataCache();
+    RedmineUtil.cache.bind("http://test.redmine.com", 60000);
+
+    List<IssueStatus> statuses = createDummyStatuses();
+    List<Tracker> trackers = createDummyTrackers();
+    List<IssuePriority> priorities = createDummyPriorities();
+    List<Project> projects = createDummyProjects();
+    when(issueManager.getStatuses()).thenReturn(statuses);
+    when(issueManager.getTrackers()).thenReturn(trackers);
+    when(issueManager.getIssuePriorities()).thenReturn(priorities);
+    when(projectManager.getProjects()).thenReturn(projects);
+
+    RedmineUtil.refreshReferenceData(redmineManager);
+
+    Optional<IssuePriority> priority =
+        RedmineUtil.resolvePriorityByName(redmineManager, "High");
+    Optional<Project> project =
+        RedmineUtil.resolveProjectByName(redmineManager, "Project 2");
+
+    verify(issueManager, times(1)).getIssuePriorities();
+    verify(projectManager, times(1)).getProjects();
+    assertThat(priority.get().getId()).isEqualTo(2);
+    assertThat(project.get().getId()).isEqualTo(2);
+  }
+
   @Test
   public void testPrivateConstructor() throws Exception {
     Constructor<?>[] constructors =
@@ -114,6 +178,11 @@ public class RedmineUtilTest {
     constructors[0].newInstance((Object[]) null);
   }
 
+  @After
+  public void tearDown() throws Exception {
+    RedmineUtil.cache = new ReferenceDataCache();
+  }
+
   private List<IssuePriority> createDummyPriorities() {
     IssuePriority normal = mock(IssuePriority.class);
     when(normal.getName()).thenReturn("Normal");
@@ -0,0 +1,107 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReferenceDataCacheTest {
+  private static final String SERVER = "http://test.redmine.com";
+  private static final long TTL = 1000;
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private ReferenceDataCache cache;
+  private long now;
+
+  @Before
+  public void setUp() throws Exception {
+    now = 0;
+
+    cache = new ReferenceDataCache();
+    cache.setClock(() -> now);
+    cache.bind(SERVER, TTL);
+  }
+
+  @Test
+  public void testLookup() throws Exception {
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    assertThat(cache.lookup(ReferenceDataCache.STATUSES, "Closed"))
+        .isEqualTo(Optional.of(2));
+    assertThat(cache.lookup(ReferenceDataCache.STATUSES, "Unknown"))
+        .isEqualTo(Optional.empty());
+    assertThat(cache.lookup(ReferenceDataCache.TRACKERS, "Closed"))
+        .isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void testLookupWhenExpired() throws Exception {
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    now = TTL;
+
+    assertThat(cache.isFresh(ReferenceDataCache.STATUSES)).isFalse();
+    assertThat(cache.lookup(ReferenceDataCache.STATUSES, "Closed"))
+        .isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void testLookupForOtherServer() throws Exception {
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    cache.bind("http://other.redmine.com", TTL);
+
+    assertThat(cache.lookup(ReferenceDataCache.STATUSES, "Closed"))
+        .isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void testUpdateWhenNotBound() throws Exception {
+    cache = new ReferenceDataCache();
+
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    assertThat(cache.isDirty()).isFalse();
+    assertThat(cache.lookup(ReferenceDataCache.STATUSES, "Closed"))
+        .isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    cache.invalidate();
+
+    assertThat(cache.isFresh(ReferenceDataCache.STATUSES)).isFalse();
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    cache.update(ReferenceDataCache.STATUSES, createDummyIndex());
+
+    FileUtil.writeObjectToFile(cache, "cache");
+    ReferenceDataCache result = FileUtil.readObjectFromFile("cache");
+    result.setClock(() -> now);
+    result.bind(SERVER, TTL);
+
+    assertThat(result.isDirty()).isFalse();
+    assertThat(result.lookup(ReferenceDataCache.STATUSES, "Closed"))
+        .isEqualTo(Optional.of(2));
+  }
+
+  private Map<String, Integer> createDummyIndex() {
+    Map<String, Integer> index = new HashMap<>();
+    index.put("New", 1);
+    index.put("Closed", 2);
+
+    return index;
+  }
+}
@@ -0,0 +1,52 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.File;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+  private static final String KEY =
+      "http://test.redmine.com/projects.json?key=1234567890";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private ResponseCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+
+    cache = new ResponseCache("cache");
+  }
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    cache.put(KEY, new ResponseCache.Entry("\"abc\"", null,
+        "application/json", new byte[] { 1, 2, 3 }));
+
+    ResponseCache.Entry entry = cache.get(KEY).get();
+    assertThat(entry.getEtag()).isEqualTo("\"abc\"");
+    assertThat(entry.getLastModified()).isNull();
+    assertThat(entry.getContentType()).isEqualTo("application/json");
+    assertThat(entry.getBody()).isEqualTo(new byte[] { 1, 2, 3 });
+
+    assertThat(cache.get(KEY + "1").isPresent()).isFalse();
+  }
+
+  @Test
+  public void testFileNameHidesApiKey() throws Exception {
+    cache.put(KEY, new ResponseCache.Entry("\"abc\"", null, null,
+        new byte[0]));
+
+    File[] files = new File(tmpFolder.getRoot(), "cache").listFiles();
+    assertThat(files).isNotEmpty();
+    for (File file : files) {
+      assertThat(file.getName()).doesNotContain("1234567890");
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RevalidatingHttpClientTest {
+  private static final String URL =
+      "http://test.redmine.com/projects.json?key=1234567890";
+
+  private HttpClient delegate;
+  private ResponseCache cache;
+
+  private RevalidatingHttpClient httpClient;
+
+  @Before
+  public void setUp() throws Exception {
+    delegate = mock(HttpClient.class);
+    cache = mock(ResponseCache.class);
+    when(cache.get(anyString())).thenReturn(Optional.empty());
+
+    httpClient = new RevalidatingHttpClient(delegate, cache);
+  }
+
+  @Test
+  public void testStoresResponseWithEtag() throws Exception {
+    HttpResponse response = createResponse(200, "{\"projects\": []}");
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    HttpResponse actual = httpClient.execute(new HttpGet(URL));
+
+    assertThat(EntityUtils.toString(actual.getEntity()))
+        .isEqualTo("{\"projects\": []}");
+    ArgumentCaptor<ResponseCache.Entry> entry =
+        ArgumentCaptor.forClass(ResponseCache.Entry.class);
+    verify(cache).put(eq(URL), entry.capture());
+    assertThat(entry.getValue().getEtag()).isEqualTo("\"abc\"");
+    assertThat(new String(entry.getValue().getBody(), "UTF-8"))
+        .isEqualTo("{\"projects\": []}");
+  }
+
+  @Test
+  public void testReusesBodyWhenNotModified() throws Exception {
+    when(cache.get(URL)).thenReturn(Optional.of(new ResponseCache.Entry(
+        "\"abc\"", "Thu, 01 Jan 2015 10:00:00 GMT", "application/json",
+        "{\"projects\": []}".getBytes("UTF-8"))));
+    mockResponse(createResponse(304, null));
+
+    HttpResponse actual = httpClient.execute(new HttpGet(URL));
+
+    ArgumentCaptor<HttpUriRequest> request =
+        ArgumentCaptor.forClass(HttpUriRequest.class);
+    verify(delegate).execute(request.capture(), any(HttpContext.class));
+    assertThat(request.getValue().getFirstHeader("If-None-Match").getValue())
+        .isEqualTo("\"abc\"");
+    assertThat(request.getValue().getFirstHeader("If-Modified-Since")
+        .getValue()).isEqualTo("Thu, 01 Jan 2015 10:00:00 GMT");
+
+    assertThat(actual.getStatusLine().getStatusCode()).isEqualTo(200);
+    assertThat(RevalidatingHttpClient.isRevalidated(actual)).isTrue();
+    assertThat(EntityUtils.toString(actual.getEntity()))
+        .isEqualTo("{\"projects\": []}");
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  @Test
+  public void testReplacesModifiedBody() throws Exception {
+    when(cache.get(URL)).thenReturn(Optional.of(new ResponseCache.Entry(
+        "\"abc\"", null, null, new byte[0])));
+    HttpResponse response = createResponse(200, "{\"projects\": [{}]}");
+    response.setHeader("ETag", "\"def\"");
+    mockResponse(response);
+
+    HttpResponse actual = httpClient.execute(new HttpGet(URL));
+
+    assertThat(RevalidatingHttpClient.isRevalidated(actual)).isFalse();
+    ArgumentCaptor<ResponseCache.Entry> entry =
+        ArgumentCaptor.forClass(ResponseCache.Entry.class);
+    verify(cache).put(eq(URL), entry.capture());
+    assertThat(entry.getValue().getEtag()).isEqualTo("\"def\"");
+  }
+
+  @Test
+  public void testDoesNotStoreWithoutValidator() throws Exception {
+    mockResponse(createResponse(200, "{}"));
+
+    httpClient.execute(new HttpGet(URL));
+
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  @Test
+  public void testPassesLargeBodyOfUnknownLength() throws Exception {
+    byte[] body = new byte[RevalidatingHttpClient.MAX_BODY_SIZE + 10];
+    body[body.length - 1] = 1;
+    HttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "");
+    //Like a decompressed body
+    response.setEntity(
+        new InputStreamEntity(new ByteArrayInputStream(body), -1));
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    HttpResponse actual = httpClient.execute(new HttpGet(URL));
+
+    assertThat(EntityUtils.toByteArray(actual.getEntity())).isEqualTo(body);
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  @Test
+  public void testDoesNotCacheIssueLists() throws Exception {
+    HttpResponse response = createResponse(200, "{}");
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    httpClient.execute(
+        new HttpGet("http://test.redmine.com/issues.json?offset=0"));
+
+    verify(cache, never()).get(anyString());
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  @Test
+  public void testDoesNotCacheSingleIssues() throws Exception {
+    HttpResponse response = createResponse(200, "{}");
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    httpClient.execute(new HttpGet(
+        "http://test.redmine.com/issues/1.json?include=journals"));
+
+    verify(cache, never()).get(anyString());
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  @Test
+  public void testCachesReferenceData() throws Exception {
+    HttpResponse response = createResponse(200, "{}");
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    httpClient.execute(new HttpGet(
+        "http://test.redmine.com/redmine/projects/project-1.json"));
+    httpClient.execute(new HttpGet(
+        "http://test.redmine.com/projects/project-1/memberships.json"));
+    httpClient.execute(
+        new HttpGet("http://test.redmine.com/issue_statuses.json"));
+    httpClient.execute(new HttpGet("http://test.redmine.com/trackers.json"));
+    httpClient.execute(new HttpGet(
+        "http://test.redmine.com/enumerations/issue_priorities.json"));
+
+    verify(cache, times(5)).put(anyString(), any());
+  }
+
+  @Test
+  public void testDoesNotCacheUpdates() throws Exception {
+    HttpResponse response = createResponse(200, "{}");
+    response.setHeader("ETag", "\"abc\"");
+    mockResponse(response);
+
+    httpClient.execute(new HttpPut("http://test.redmine.com/issues/1.json"));
+
+    verify(cache, never()).get(anyString());
+    verify(cache, never()).put(anyString(), any());
+  }
+
+  private void mockResponse(HttpResponse response) throws Exception {
+    when(delegate.execute(any(HttpUriRequest.class), any(HttpContext.class)))
+        .thenReturn(response);
+  }
+
+  private static HttpResponse createResponse(int status, String body)
+      throws Exception {
+    HttpResponse response =
+        new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+    if (body != null) {
+      response.setEntity(new StringEntity(body));
+    }
+
+    return response;
+  }
+}
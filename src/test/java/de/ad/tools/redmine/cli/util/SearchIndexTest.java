@@ -0,0 +1,121 @@
+package de.ad.tools.redmine.cli.util;
+
+import com.taskadapter.redmineapi.bean.Issue;
+import com.taskadapter.redmineapi.bean.Journal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchIndexTest {
+  private static final String SERVER = "http://test.redmine.com";
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private SearchIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    index = new SearchIndex(SERVER);
+    index.update(Arrays.asList(
+        createIssue(1, "Login fails", "The login page times out."),
+        createIssue(2, "Slow search", "Search takes long after login.",
+            "Login is not the cause."),
+        createIssue(3, "Export to CSV", "Umlauts like Ä get lost.")));
+  }
+
+  @Test
+  public void testTokenize() throws Exception {
+    assertThat(SearchIndex.tokenize("Login-Page, ÄÖÜ and 42 ;)"))
+        .containsExactly("login", "page", "äöü", "and", "42");
+    assertThat(SearchIndex.tokenize(null)).isEmpty();
+  }
+
+  @Test
+  public void testSearchRanksSubjectFirst() throws Exception {
+    assertThat(index.search("login", 10)).extracting("id")
+        .containsExactly(1, 2);
+  }
+
+  @Test
+  public void testSearchMatchesAllTerms() throws Exception {
+    assertThat(index.search("LOGIN search", 10)).extracting("id")
+        .containsExactly(2);
+    assertThat(index.search("login unknown", 10)).isEmpty();
+    assertThat(index.search("ä", 10)).extracting("id").containsExactly(3);
+  }
+
+  @Test
+  public void testSearchWithLimit() throws Exception {
+    assertThat(index.search("login", 1)).extracting("id").containsExactly(1);
+  }
+
+  @Test
+  public void testSearchWithoutTerms() throws Exception {
+    assertThat(index.search(" ;) ", 10)).isEmpty();
+  }
+
+  @Test
+  public void testUpdateReplacesTerms() throws Exception {
+    index.update(Arrays.asList(createIssue(1, "Logout fails", null)));
+
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.search("login", 10)).extracting("id").containsExactly(2);
+    assertThat(index.search("logout", 10)).extracting("subject")
+        .containsExactly("Logout fails");
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    index.clear();
+
+    assertThat(index.size()).isEqualTo(0);
+    assertThat(index.search("login", 10)).isEmpty();
+  }
+
+  @Test
+  public void testStore() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+    SearchIndex.Store store = new SearchIndex.Store("index");
+
+    store.save(index);
+
+    assertThat(store.load(SERVER).search("csv", 10)).extracting("id")
+        .containsExactly(3);
+    assertThat(store.load("http://other.redmine.com").size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testStoreWithoutFile() throws Exception {
+    FileUtil.impl = new FileUtil.FileUtilImpl(tmpFolder.getRoot());
+
+    assertThat(new SearchIndex.Store("index").load(SERVER).size())
+        .isEqualTo(0);
+  }
+
+  private static Issue createIssue(int id, String subject, String description,
+      String... notes) {
+    Issue issue = mock(Issue.class);
+    when(issue.getId()).thenReturn(id);
+    when(issue.getSubject()).thenReturn(subject);
+    when(issue.getDescription()).thenReturn(description);
+
+    List<Journal> journals = new ArrayList<>();
+    for (String note : notes) {
+      Journal journal = mock(Journal.class);
+      when(journal.getNotes()).thenReturn(note);
+      journals.add(journal);
+    }
+    when(issue.getJournals()).thenReturn(journals);
+
+    return issue;
+  }
+}
@@ -28,6 +28,41 @@ public class StringUtilTest {
     assertThat(result).hasSize(10).endsWith(StringUtil.ELLIPSIS);
   }
 
+  @Test
+  public void testSplitArguments() throws Exception {
+    String[] result = StringUtil.splitArguments(
+        "  update-issue 1  --subject=\"New subject\" --status='In Progress' ");
+
+    assertThat(result).containsExactly("update-issue", "1",
+        "--subject=New subject", "--status=In Progress");
+  }
+
+  @Test
+  public void testSplitArgumentsWithEmptyQuotes() throws Exception {
+    String[] result = StringUtil.splitArguments("connect \"\" key");
+
+    assertThat(result).containsExactly("connect", "", "key");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSplitArgumentsWithUnterminatedQuote() throws Exception {
+    StringUtil.splitArguments("issues --status=\"In Progress");
+  }
+
+  @Test
+  public void testSplitCsvLine() throws Exception {
+    String[] result = StringUtil.splitCsvLine(
+        "web,\"Subject, with comma\",,\"Say \"\"hi\"\"\"");
+
+    assertThat(result).containsExactly("web", "Subject, with comma", "",
+        "Say \"hi\"");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSplitCsvLineWithUnterminatedQuote() throws Exception {
+    StringUtil.splitCsvLine("web,\"Subject");
+  }
+
   @Test
   public void testPrivateConstructor() throws Exception {
     Constructor<?>[] constructors =
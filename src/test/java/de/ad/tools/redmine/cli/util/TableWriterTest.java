@@ -0,0 +1,106 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableWriterTest {
+  private static final String[] HEADER = new String[] { "header1", "header2" };
+
+  private ByteArrayOutputStream stream;
+  private PrintStream out;
+
+  @Before
+  public void setUp() throws Exception {
+    stream = new ByteArrayOutputStream();
+    out = new PrintStream(stream);
+  }
+
+  @Test
+  public void testWithLookAhead() throws Exception {
+    TableWriter table = TableWriter.withLookAhead(out, HEADER, 2);
+
+    table.writeRow("row1,col1", "row1,col2");
+    assertThat(stream.size()).isEqualTo(0);
+
+    table.writeRow("row2,col1,long", "row2,col2");
+    table.writeRow("row3,col1,longer", "row3,col2");
+    table.flush();
+
+    assertThat(lines()).containsExactly(
+        "HEADER1         HEADER2    ",
+        "¯¯¯¯¯¯¯         ¯¯¯¯¯¯¯    ",
+        "row1,col1       row1,col2  ",
+        "row2,col1,long  row2,col2  ",
+        "row3,col1,longer  row3,col2  ");
+  }
+
+  @Test
+  public void testWithoutRows() throws Exception {
+    TableWriter table = TableWriter.withLookAhead(out, HEADER, 10);
+
+    table.flush();
+
+    assertThat(lines()).containsExactly(
+        "HEADER1  HEADER2  ",
+        "¯¯¯¯¯¯¯  ¯¯¯¯¯¯¯  ");
+  }
+
+  @Test
+  public void testWithColumnSizes() throws Exception {
+    TableWriter table = TableWriter.withColumnSizes(out, HEADER, 5, 9);
+
+    table.writeRow("row1,col1", "row1,col2");
+    table.writeRow("row2", null);
+    table.flush();
+
+    assertThat(lines()).containsExactly(
+        "HEAD…  HEADER2    ",
+        "¯¯¯¯¯  ¯¯¯¯¯¯¯    ",
+        "row1…  row1,col2  ",
+        "row2   null       ");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWithInvalidColumnSizes() throws Exception {
+    TableWriter.withColumnSizes(out, HEADER, 5);
+  }
+
+  @Test
+  public void testWithMaxWidth() throws Exception {
+    TableWriter table = TableWriter.withMaxWidth(out, HEADER, 1, 22);
+
+    table.writeRow("row1,col1", "row1,col2,long");
+    table.writeRow("row2,col1", "row2,col2,longer");
+    table.flush();
+
+    assertThat(lines()).containsExactly(
+        "HEADER1    HEADER2    ",
+        "¯¯¯¯¯¯¯    ¯¯¯¯¯¯¯    ",
+        "row1,col1  row1,col…  ",
+        "row2,col1  row2,col…  ");
+  }
+
+  @Test
+  public void testUsesCharsetOfStream() throws Exception {
+    out = new PrintStream(stream, false, "UTF-16BE");
+    TableWriter table = TableWriter.withColumnSizes(out, HEADER, 7, 7);
+
+    table.writeRow("row1,col1", "row1");
+    table.flush();
+
+    assertThat(stream.toString("UTF-16BE").split(System.lineSeparator()))
+        .containsExactly(
+            "HEADER1  HEADER2  ",
+            "\u00af\u00af\u00af\u00af\u00af\u00af\u00af  "
+                + "\u00af\u00af\u00af\u00af\u00af\u00af\u00af  ",
+            "row1,c\u2026  row1     ");
+  }
+
+  private String[] lines() {
+    return new String(stream.toByteArray()).split(System.lineSeparator());
+  }
+}
@@ -0,0 +1,111 @@
+package de.ad.tools.redmine.cli.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingsTest {
+  private long now;
+  private Timings timings;
+
+  @Before
+  public void setUp() throws Exception {
+    now = 0;
+    timings = new Timings(true, () -> now);
+  }
+
+  @Test
+  public void testReport() throws Exception {
+    try (Timings.Phase phase = timings.start("config load")) {
+      advance(2);
+    }
+    try (Timings.Phase phase = timings.start("command execution")) {
+      try (Timings.Phase load = timings.start("load statuses")) {
+        long start = timings.requestStarted();
+        advance(30);
+        timings.http("GET", "/issue_statuses.json", 200, 512, start);
+        advance(5);
+      }
+      for (int i = 0; i < 2; i++) {
+        try (Timings.Phase render = timings.start(Timings.RENDER)) {
+          advance(1);
+        }
+      }
+    }
+
+    String[] lines = report();
+
+    assertThat(lines).hasSize(9);
+    assertThat(lines[0]).isEqualTo("Timings (ms):");
+    assertThat(lines[1]).startsWith("total").endsWith("39.0");
+    assertThat(lines[2]).startsWith("  config load").endsWith("2.0");
+    assertThat(lines[3]).startsWith("  command execution").endsWith("37.0");
+    assertThat(lines[4]).startsWith("    load statuses").endsWith("35.0");
+    assertThat(lines[5])
+        .startsWith("      GET /issue_statuses.json 200 512 bytes")
+        .endsWith("30.0");
+    assertThat(lines[6]).startsWith("      mapping").endsWith("5.0");
+    assertThat(lines[7]).startsWith("    render (2x)").endsWith("2.0");
+
+    JSONObject json = new JSONObject(lines[8]);
+    assertThat(json.getString("name")).isEqualTo("total");
+    assertThat(json.getDouble("ms")).isEqualTo(39.0);
+
+    JSONObject execution = json.getJSONArray("phases").getJSONObject(1);
+    JSONObject http = execution.getJSONArray("phases").getJSONObject(0)
+        .getJSONArray("phases").getJSONObject(0);
+    assertThat(http.getString("method")).isEqualTo("GET");
+    assertThat(http.getString("path")).isEqualTo("/issue_statuses.json");
+    assertThat(http.getInt("status")).isEqualTo(200);
+    assertThat(http.getLong("bytes")).isEqualTo(512);
+
+    JSONArray phases = execution.getJSONArray("phases");
+    assertThat(phases.getJSONObject(1).getInt("count")).isEqualTo(2);
+  }
+
+  @Test
+  public void testMappingEndsWithNextRequest() throws Exception {
+    long start = timings.requestStarted();
+    advance(10);
+    timings.http("GET", "/issues.json", 200, 1, start);
+    advance(3);
+    start = timings.requestStarted();
+    advance(10);
+    timings.http("GET", "/issues.json", 200, 1, start);
+
+    String[] lines = report();
+
+    assertThat(lines[2]).startsWith("  GET /issues.json");
+    assertThat(lines[3]).startsWith("  mapping").endsWith("3.0");
+    assertThat(lines[4]).startsWith("  GET /issues.json");
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    timings = new Timings(false, () -> now);
+
+    try (Timings.Phase phase = timings.start("config load")) {
+      advance(2);
+    }
+    timings.http("GET", "/issues.json", 200, 1, timings.requestStarted());
+
+    assertThat(report()).containsExactly("");
+  }
+
+  private void advance(long millis) {
+    now += TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  private String[] report() {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    timings.report(new PrintStream(stream));
+
+    return new String(stream.toByteArray()).split(System.lineSeparator());
+  }
+}